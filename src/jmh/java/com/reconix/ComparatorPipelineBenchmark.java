@@ -0,0 +1,106 @@
+package com.reconix;
+
+// ===== COMPARATOR PIPELINE BENCHMARK =====
+// Per-pair cost of compiled comparator pipelines versus interpreted field scoring
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComparatorPipelineBenchmark {
+
+    private static final int PAIRS = 1024;
+    private static final double THRESHOLD = 0.85;
+    private static final List<String> FIELDS = List.of("accountId", "amount", "valueDate", "counterparty", "reference");
+
+    private RecordSet sourceRecords;
+    private RecordSet targetRecords;
+    private RecordBatch sourceBatch;
+    private RecordBatch targetBatch;
+    private FuzzyMatchScorer interpreted;
+    private FuzzyMatchScorer compiled;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        List<Object> source = new ArrayList<>(PAIRS);
+        List<Object> target = new ArrayList<>(PAIRS);
+        for (int i = 0; i < PAIRS; i++) {
+            Map<String, Object> record = new HashMap<>();
+            record.put("accountId", "ACC-" + random.nextInt(50));
+            record.put("amount", BigDecimal.valueOf(random.nextInt(1_000_000), 2));
+            record.put("valueDate", LocalDate.of(2024, 1, 1).plusDays(random.nextInt(30)));
+            record.put("counterparty", "COUNTERPARTY " + Integer.toString(random.nextInt(1 << 20), 36).toUpperCase());
+            record.put("reference", "INV" + random.nextInt(1_000_000));
+            source.add(record);
+            // Half the pairs agree on every field, half differ in amount and reference, like a blocked candidate list
+            Map<String, Object> counterpart = new HashMap<>(record);
+            if (i % 2 == 1) {
+                counterpart.put("amount", BigDecimal.valueOf(random.nextInt(1_000_000), 2));
+                counterpart.put("reference", "INV" + random.nextInt(1_000_000));
+            }
+            target.add(counterpart);
+        }
+        sourceRecords = RecordSet.of(source);
+        targetRecords = RecordSet.of(target);
+        StringDictionary dictionary = new StringDictionary();
+        sourceBatch = RecordBatch.from(source, dictionary);
+        targetBatch = RecordBatch.from(target, dictionary);
+        ComparatorCompiler compiler = new ComparatorCompiler(new CounterpartyNormalizer(new SimpleMeterRegistry()));
+        interpreted = new FuzzyMatchScorer(FIELDS, THRESHOLD);
+        compiled = new FuzzyMatchScorer(FIELDS, THRESHOLD,
+            new ScoringCascade(compiler.compile(FIELDS, sourceBatch, targetBatch), null, 0.0));
+    }
+
+    /** Field-name lookups on the ingested maps, as before columnar storage. */
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void interpretedRecords(Blackhole blackhole) {
+        for (int i = 0; i < PAIRS; i++) {
+            blackhole.consume(interpreted.score(sourceRecords, i, targetRecords, i, THRESHOLD));
+        }
+    }
+
+    /** Field-name lookups that box values back out of the batch columns. */
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void interpretedBatch(Blackhole blackhole) {
+        for (int i = 0; i < PAIRS; i++) {
+            blackhole.consume(interpreted.score(sourceBatch, i, targetBatch, i, THRESHOLD));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void compiledPipeline(Blackhole blackhole) {
+        for (int i = 0; i < PAIRS; i++) {
+            blackhole.consume(compiled.score(sourceBatch, i, targetBatch, i, THRESHOLD));
+        }
+    }
+}
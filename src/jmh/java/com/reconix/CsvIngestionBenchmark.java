@@ -0,0 +1,127 @@
+package com.reconix;
+
+// ===== CSV INGESTION BENCHMARK =====
+// Memory-mapped column decoding versus line-by-line String splitting
+
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingests a generated bank extract of eight columns, four of which the job
+ * needs. Throughput is the file size logged at setup divided by the score.
+ * The second and later iterations read the file from the page cache, so the
+ * score measures decoding rather than the disk.
+ */
+@Slf4j
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CsvIngestionBenchmark {
+
+    private static final long PARALLEL_CHUNK_BYTES = 8L * 1024 * 1024;
+    private static final String HEADER = "accountId,reference,amount,valueDate,counterparty,narrative,bookingDate,currency";
+
+    @Param({"1000000"})
+    public int rows;
+
+    private Path file;
+    private Map<String, RecordSchema.ColumnType> fields;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("reconix-ingestion", ".csv");
+        Random random = new Random(42);
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (int i = 0; i < rows; i++) {
+                writer.write("ACC-" + random.nextInt(500) + ",INV" + random.nextInt(2_000_000) + ","
+                    + random.nextInt(1_000_000) + "." + (10 + random.nextInt(90)) + ",2024-0" + (1 + random.nextInt(9))
+                    + "-1" + random.nextInt(10) + ",\"COUNTERPARTY " + random.nextInt(5_000) + " LTD\","
+                    + "\"Payment for services rendered, batch " + random.nextInt(100_000) + "\",2024-01-01,EUR");
+                writer.newLine();
+            }
+        }
+        fields = new LinkedHashMap<>();
+        fields.put("accountId", RecordSchema.ColumnType.STRING);
+        fields.put("reference", RecordSchema.ColumnType.STRING);
+        fields.put("amount", RecordSchema.ColumnType.AMOUNT);
+        fields.put("valueDate", RecordSchema.ColumnType.DATE);
+        log.info("Benchmark file: {} bytes", Files.size(file));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public RecordBatch mappedColumns() throws IOException {
+        return new MappedCsvReader(file, ',', '"', true, null, fields, 2).read(new StringDictionary()).batch();
+    }
+
+    /** All cores, 8 MiB ranges: compare with {@link #mappedColumns} for the scaling factor. */
+    @Benchmark
+    public RecordBatch mappedColumnsParallel() throws IOException {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        return new MappedCsvReader(file, ',', '"', true, null, fields, 2)
+            .read(new StringDictionary(), pool, pool.getParallelism(), PARALLEL_CHUNK_BYTES).batch();
+    }
+
+    /** Naive reference: readline, quote-unaware split and boxed values, then columnar encoding. */
+    @Benchmark
+    public RecordBatch lineSplitting() throws IOException {
+        List<Object> records = new ArrayList<>(rows);
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String[] header = reader.readLine().split(",");
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] values = line.split(",");
+                Map<String, Object> record = new HashMap<>();
+                for (int f = 0; f < header.length && f < values.length; f++) {
+                    RecordSchema.ColumnType type = fields.get(header[f]);
+                    if (type == RecordSchema.ColumnType.AMOUNT) {
+                        record.put(header[f], new BigDecimal(values[f]));
+                    } else if (type == RecordSchema.ColumnType.DATE) {
+                        record.put(header[f], LocalDate.parse(values[f]));
+                    } else if (type != null) {
+                        record.put(header[f], values[f]);
+                    }
+                }
+                records.add(record);
+            }
+        }
+        return RecordBatch.from(records, new StringDictionary());
+    }
+}
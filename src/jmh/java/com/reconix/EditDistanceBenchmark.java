@@ -0,0 +1,114 @@
+package com.reconix;
+
+// ===== EDIT DISTANCE BENCHMARK =====
+// Bit-parallel / banded kernel versus a full-matrix two-row DP baseline
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EditDistanceBenchmark {
+
+    private static final int PAIRS = 1024;
+    private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 ";
+
+    /** 24: counterparty names, 48: references plus narrative, 160: long remittance text (banded path). */
+    @Param({"24", "48", "160"})
+    public int length;
+
+    /** Similarity threshold the kernel's exit bound is derived from. */
+    @Param({"0.85"})
+    public double threshold;
+
+    private String[] left;
+    private String[] right;
+    private int maxDistance;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        left = new String[PAIRS];
+        right = new String[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            char[] base = new char[length];
+            for (int c = 0; c < length; c++) {
+                base[c] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+            }
+            left[i] = new String(base);
+            // Half the pairs are near-duplicates, half unrelated, like a blocked candidate list
+            if (i % 2 == 0) {
+                char[] edited = base.clone();
+                for (int e = 0; e < Math.max(1, length / 20); e++) {
+                    edited[random.nextInt(length)] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+                }
+                right[i] = new String(edited);
+            } else {
+                char[] other = new char[length];
+                for (int c = 0; c < length; c++) {
+                    other[c] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+                }
+                right[i] = new String(other);
+            }
+        }
+        maxDistance = (int) Math.floor((1.0 - threshold) * length);
+    }
+
+    @Benchmark
+    public void kernelDamerau(Blackhole blackhole) {
+        for (int i = 0; i < PAIRS; i++) {
+            blackhole.consume(EditDistanceKernel.damerau(left[i], right[i], maxDistance));
+        }
+    }
+
+    @Benchmark
+    public void kernelLevenshtein(Blackhole blackhole) {
+        for (int i = 0; i < PAIRS; i++) {
+            blackhole.consume(EditDistanceKernel.levenshtein(left[i], right[i], maxDistance));
+        }
+    }
+
+    @Benchmark
+    public void naiveDp(Blackhole blackhole) {
+        for (int i = 0; i < PAIRS; i++) {
+            blackhole.consume(naiveLevenshtein(left[i], right[i]) <= maxDistance);
+        }
+    }
+
+    private static int naiveLevenshtein(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+}
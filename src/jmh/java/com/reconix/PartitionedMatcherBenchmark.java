@@ -0,0 +1,102 @@
+package com.reconix;
+
+// ===== PARTITIONED MATCHER BENCHMARK =====
+// Exact-pass hash join on one thread versus hash partitions across workers
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matches two ingested batches on three key fields, nine in ten targets
+ * having a counterpart. The speedup at a parallelism is the
+ * {@code parallelism=1} score divided by its score; {@link #hashJoin} is the
+ * serial pass the partitioned one replaces, so the gap between it and
+ * {@code parallelism=1} is the partitioning overhead. Parallelism above the
+ * machine's core count measures contention, not speedup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PartitionedMatcherBenchmark {
+
+    private static final List<String> FIELDS = List.of("accountId", "reference", "amount");
+
+    @Param({"1000000"})
+    public int records;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private RecordBatch source;
+    private RecordBatch target;
+    private ForkJoinPool pool;
+    private PartitionedMatcher matcher;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        List<Object> sourceRecords = new ArrayList<>(records);
+        List<Object> targetRecords = new ArrayList<>(records);
+        for (int i = 0; i < records; i++) {
+            Map<String, Object> record = new HashMap<>();
+            record.put("accountId", "ACC-" + random.nextInt(500));
+            record.put("reference", "INV" + i);
+            record.put("amount", BigDecimal.valueOf(random.nextInt(1_000_000), 2));
+            record.put("valueDate", LocalDate.of(2024, 1, 1).plusDays(random.nextInt(90)));
+            sourceRecords.add(record);
+            Map<String, Object> counterpart = new HashMap<>(record);
+            if (i % 10 == 0) {
+                counterpart.put("reference", "INV-X" + i);
+            }
+            targetRecords.add(counterpart);
+        }
+        // Targets arrive in a different order from their sources, as in a real statement
+        Collections.shuffle(targetRecords, random);
+        StringDictionary dictionary = new StringDictionary();
+        source = RecordBatch.from(sourceRecords, dictionary);
+        target = RecordBatch.from(targetRecords, dictionary);
+        pool = new ForkJoinPool(parallelism);
+        matcher = new PartitionedMatcher(pool, parallelism);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public PartitionedMatcher.PartitionedResult partitioned() {
+        return matcher.match(source, target, FIELDS, null);
+    }
+
+    /** Independent of {@code parallelism}; compare with {@code partitioned} at {@code parallelism=1}. */
+    @Benchmark
+    public MatchPairs hashJoin() {
+        return HashJoinMatcher.match(source, target, FIELDS);
+    }
+}
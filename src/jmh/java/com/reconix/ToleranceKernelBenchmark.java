@@ -0,0 +1,93 @@
+package com.reconix;
+
+// ===== TOLERANCE KERNEL BENCHMARK =====
+// Scalar versus runtime-selected (vector) amount-run and date-window filters
+
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs both kernels over one candidate block: a run of {@code block} amounts
+ * inside the tolerance followed by amounts above it, and the matching days
+ * spread over +/-10 days around a +/-3 day window. The forked JVM resolves
+ * {@code jdk.incubator.vector}, so {@code selected*} measures the vector
+ * kernels on JDK 17+; the selected implementation is logged at setup.
+ */
+@Slf4j
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class ToleranceKernelBenchmark {
+
+    private static final int WINDOW_CENTER = 19_700;
+    private static final int WINDOW_DAYS = 3;
+
+    /** 16: typical key group, 64/256: recurring fees and round amounts, 1024: unkeyed date-only runs. */
+    @Param({"16", "64", "256", "1024"})
+    public int block;
+
+    private long[] amounts;
+    private int[] days;
+    private int[] selected;
+    private long high;
+    private ToleranceKernels scalar;
+    private ToleranceKernels selectedKernels;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        int size = block * 2;
+        amounts = new long[size];
+        for (int i = 0; i < size; i++) {
+            amounts[i] = 100_000 + random.nextInt(10_000);
+        }
+        Arrays.sort(amounts);
+        high = amounts[block - 1];
+        days = new int[size];
+        for (int i = 0; i < size; i++) {
+            days[i] = WINDOW_CENTER + random.nextInt(21) - 10;
+        }
+        selected = new int[size];
+        scalar = new ScalarToleranceKernels();
+        selectedKernels = ToleranceKernels.selected();
+        log.info("Selected tolerance kernels: {}", selectedKernels.name());
+    }
+
+    @Benchmark
+    public int scalarAmountRun() {
+        return scalar.amountRunEnd(amounts, 0, amounts.length, high);
+    }
+
+    @Benchmark
+    public int selectedAmountRun() {
+        return selectedKernels.amountRunEnd(amounts, 0, amounts.length, high);
+    }
+
+    @Benchmark
+    public int scalarDateWindow() {
+        return scalar.selectDays(days, 0, block, WINDOW_CENTER - WINDOW_DAYS, WINDOW_CENTER + WINDOW_DAYS, selected);
+    }
+
+    @Benchmark
+    public int selectedDateWindow() {
+        return selectedKernels.selectDays(days, 0, block, WINDOW_CENTER - WINDOW_DAYS, WINDOW_CENTER + WINDOW_DAYS, selected);
+    }
+}
@@ -0,0 +1,471 @@
+package com.reconix;
+
+// ===== AGGREGATE MATCHER =====
+// Many-to-one and one-to-many matching by bounded subset-sum search
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Matches the residue where one record settles several on the other side,
+ * e.g. one bank credit paying several invoices or a batch payout split into
+ * many ledger lines. Records are grouped by the configured fields (typically
+ * counterparty); within a group, each record is tried as the total of a
+ * subset of same-signed counterpart records dated inside the window.
+ *
+ * <p>Small candidate sets are solved by meet-in-the-middle over sorted half
+ * sums; larger ones by depth-first search over amounts sorted descending,
+ * pruned by the best sum still reachable with the remaining subset size.
+ * Every group gets a hard node and wall-clock budget, so a pathological
+ * group is abandoned instead of stalling the job.
+ */
+@Slf4j
+public final class AggregateMatcher {
+
+    private static final int MEET_IN_THE_MIDDLE_MAX_CANDIDATES = 20;
+    private static final int MAX_CANDIDATES = 64;
+    private static final int DEFAULT_MAX_GROUP_SIZE = 8;
+    private static final int DEFAULT_DATE_WINDOW_DAYS = 3;
+    private static final long DEFAULT_NODE_BUDGET = 1_000_000L;
+    private static final long DEFAULT_TIME_BUDGET_MILLIS = 50L;
+
+    private final List<String> groupByFields;
+    private final String amountField;
+    private final int scale;
+    private final AmountTolerance tolerance;
+    private final String dateField;
+    private final int windowDays;
+    private final BusinessDayCalendar calendar;
+    private final int maxGroupSize;
+    private final long nodeBudget;
+    private final long timeBudgetNanos;
+
+    private AggregateMatcher(List<String> groupByFields, String amountField, int scale, AmountTolerance tolerance,
+                             String dateField, int windowDays, BusinessDayCalendar calendar,
+                             int maxGroupSize, long nodeBudget, long timeBudgetMillis) {
+        this.groupByFields = groupByFields;
+        this.amountField = amountField;
+        this.scale = scale;
+        this.tolerance = tolerance;
+        this.dateField = dateField;
+        this.windowDays = windowDays;
+        this.calendar = calendar;
+        this.maxGroupSize = maxGroupSize;
+        this.nodeBudget = nodeBudget;
+        this.timeBudgetNanos = timeBudgetMillis * 1_000_000L;
+    }
+
+    /** @return the configured aggregate matcher, or {@code null} if aggregate matching is not enabled */
+    public static AggregateMatcher fromConfiguration(ReconciliationConfigurationDTO configuration, int scale) {
+        AggregateMatchingDTO aggregate = configuration.getAggregateMatching();
+        if (aggregate == null || configuration.getAmountField() == null) {
+            return null;
+        }
+        return new AggregateMatcher(
+            aggregate.getGroupByFields() != null ? aggregate.getGroupByFields() : List.of(),
+            configuration.getAmountField(), scale,
+            AmountTolerance.of(configuration.getAmountTolerance(), configuration.getAmountTolerancePercent(), scale),
+            configuration.getDateField(),
+            aggregate.getDateWindowDays() != null ? aggregate.getDateWindowDays() : DEFAULT_DATE_WINDOW_DAYS,
+            BusinessDayCalendar.from(configuration.getBusinessCalendar()),
+            Math.max(2, aggregate.getMaxGroupSize() != null ? aggregate.getMaxGroupSize() : DEFAULT_MAX_GROUP_SIZE),
+            aggregate.getNodeBudget() != null ? aggregate.getNodeBudget() : DEFAULT_NODE_BUDGET,
+            aggregate.getTimeBudgetMillis() != null ? aggregate.getTimeBudgetMillis() : DEFAULT_TIME_BUDGET_MILLIS);
+    }
+
+    public List<String> groupByFields() {
+        return groupByFields;
+    }
+
+    public AggregateResult match(RecordSet source, int[] sourceOrdinals, RecordSet target, int[] targetOrdinals) {
+        KeyGroups groups = new KeyGroups(groupByFields);
+        Side sources = new Side(source, sourceOrdinals, groups);
+        Side targets = new Side(target, targetOrdinals, groups);
+        sources.partition(groups.size());
+        targets.partition(groups.size());
+
+        List<AggregateGroup> matched = new ArrayList<>();
+        int exhaustedGroups = 0;
+        for (int g = 0; g < groups.size(); g++) {
+            if (sources.groupSize(g) == 0 || targets.groupSize(g) == 0) {
+                continue;
+            }
+            SearchBudget budget = new SearchBudget(nodeBudget, System.nanoTime() + timeBudgetNanos);
+            // One target settling several sources, then one source settling several targets
+            matchGroup(g, targets, sources, budget, matched, false);
+            matchGroup(g, sources, targets, budget, matched, true);
+            if (budget.exhausted()) {
+                exhaustedGroups++;
+                log.debug("Aggregate search budget exhausted for group {}", g);
+            }
+        }
+        return new AggregateResult(matched, exhaustedGroups);
+    }
+
+    private void matchGroup(int group, Side totals, Side parts, SearchBudget budget,
+                            List<AggregateGroup> matched, boolean totalIsSource) {
+        long[] candidateAmounts = new long[MAX_CANDIDATES];
+        int[] candidatePositions = new int[MAX_CANDIDATES];
+        for (int t = totals.groupStart(group); t < totals.groupEnd(group) && !budget.exhausted(); t++) {
+            if (totals.claimed.get(t)) {
+                continue;
+            }
+            long total = totals.amounts[t];
+            int count = 0;
+            long limit = Math.abs(total) + tolerance.toleranceFor(total);
+            for (int p = parts.groupStart(group); p < parts.groupEnd(group) && count < MAX_CANDIDATES; p++) {
+                long amount = parts.amounts[p];
+                if (parts.claimed.get(p) || amount == 0 || Long.signum(amount) != Long.signum(total)
+                        || Math.abs(amount) > limit || !inWindow(totals.days[t], parts.days[p])) {
+                    continue;
+                }
+                candidateAmounts[count] = Math.abs(amount);
+                candidatePositions[count] = p;
+                count++;
+            }
+            if (count < 2) {
+                continue;
+            }
+            int[] subset = findSubset(candidateAmounts, candidatePositions, count,
+                Math.abs(total), tolerance.toleranceFor(total), budget);
+            if (subset == null) {
+                continue;
+            }
+            totals.claimed.set(t);
+            long sum = 0;
+            int[] partOrdinals = new int[subset.length];
+            for (int i = 0; i < subset.length; i++) {
+                parts.claimed.set(subset[i]);
+                partOrdinals[i] = parts.ordinals[subset[i]];
+                sum += parts.amounts[subset[i]];
+            }
+            int[] totalOrdinal = {totals.ordinals[t]};
+            matched.add(totalIsSource
+                ? new AggregateGroup(totalOrdinal, partOrdinals, total, sum, tolerance.toleranceFor(total))
+                : new AggregateGroup(partOrdinals, totalOrdinal, sum, total, tolerance.toleranceFor(total)));
+        }
+    }
+
+    private boolean inWindow(int totalDay, int partDay) {
+        if (dateField == null) {
+            return true;
+        }
+        if (totalDay == FieldValues.NO_DATE || partDay == FieldValues.NO_DATE) {
+            return false;
+        }
+        return partDay >= calendar.shift(totalDay, -windowDays) && partDay <= calendar.shift(totalDay, windowDays);
+    }
+
+    /**
+     * @return positions of a subset of 2..maxGroupSize candidates summing to
+     *         {@code total} within {@code slack}, or {@code null}
+     */
+    private int[] findSubset(long[] amounts, int[] positions, int count, long total, long slack, SearchBudget budget) {
+        // Sort descending by amount (ascending by negated key), ties by position
+        long[] keys = new long[count];
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = -amounts[i];
+            order[i] = positions[i];
+        }
+        PrimitiveSort.sort(keys, order, 0, count - 1);
+        long[] values = new long[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = -keys[i];
+        }
+        int[] chosen = count <= MEET_IN_THE_MIDDLE_MAX_CANDIDATES
+            ? meetInTheMiddle(values, total, slack, budget)
+            : depthFirst(values, total, slack, budget);
+        if (chosen == null) {
+            return null;
+        }
+        int[] subset = new int[chosen.length];
+        for (int i = 0; i < chosen.length; i++) {
+            subset[i] = order[chosen[i]];
+        }
+        return subset;
+    }
+
+    private int[] meetInTheMiddle(long[] values, long total, long slack, SearchBudget budget) {
+        int leftSize = values.length / 2;
+        int rightSize = values.length - leftSize;
+        int rightSubsets = 1 << rightSize;
+        if (!budget.spend((1L << leftSize) + rightSubsets)) {
+            return null;
+        }
+        long[] rightSums = new long[rightSubsets];
+        int[] rightMasks = new int[rightSubsets];
+        for (int mask = 0; mask < rightSubsets; mask++) {
+            long sum = 0;
+            for (int bit = 0; bit < rightSize; bit++) {
+                if ((mask & (1 << bit)) != 0) {
+                    sum += values[leftSize + bit];
+                }
+            }
+            rightSums[mask] = sum;
+            rightMasks[mask] = mask;
+        }
+        PrimitiveSort.sort(rightSums, rightMasks, 0, rightSubsets - 1);
+
+        for (int leftMask = 0; leftMask < (1 << leftSize); leftMask++) {
+            int leftCount = Integer.bitCount(leftMask);
+            if (leftCount > maxGroupSize) {
+                continue;
+            }
+            long leftSum = 0;
+            for (int bit = 0; bit < leftSize; bit++) {
+                if ((leftMask & (1 << bit)) != 0) {
+                    leftSum += values[bit];
+                }
+            }
+            long low = total - slack - leftSum;
+            long high = total + slack - leftSum;
+            for (int r = lowerBound(rightSums, low); r < rightSubsets && rightSums[r] <= high; r++) {
+                if (!budget.spend(1)) {
+                    return null;
+                }
+                int size = leftCount + Integer.bitCount(rightMasks[r]);
+                if (size >= 2 && size <= maxGroupSize) {
+                    return toIndexes(leftMask, rightMasks[r], leftSize, size);
+                }
+            }
+        }
+        return null;
+    }
+
+    private int[] depthFirst(long[] values, long total, long slack, SearchBudget budget) {
+        // prefix[i] = sum of values[0..i), so the r largest from i sum to prefix[i + r] - prefix[i]
+        long[] prefix = new long[values.length + 1];
+        for (int i = 0; i < values.length; i++) {
+            prefix[i + 1] = prefix[i] + values[i];
+        }
+        int[] chosen = new int[maxGroupSize];
+        int depth = search(values, prefix, total - slack, total + slack, 0, 0, 0L, chosen, budget);
+        return depth < 0 ? null : Arrays.copyOf(chosen, depth);
+    }
+
+    /** @return the size of the subset found, or -1 */
+    private int search(long[] values, long[] prefix, long low, long high, int start, int depth, long sum,
+                       int[] chosen, SearchBudget budget) {
+        int remaining = maxGroupSize - depth;
+        for (int i = start; i < values.length; i++) {
+            if (!budget.spend(1)) {
+                return -1;
+            }
+            int reachable = Math.min(remaining, values.length - i);
+            if (sum + prefix[i + reachable] - prefix[i] < low) {
+                // Amounts only shrink from here on, so no later start can reach the total
+                return -1;
+            }
+            long next = sum + values[i];
+            if (next > high) {
+                continue;
+            }
+            chosen[depth] = i;
+            if (next >= low && depth + 1 >= 2) {
+                return depth + 1;
+            }
+            if (remaining > 1) {
+                int found = search(values, prefix, low, high, i + 1, depth + 1, next, chosen, budget);
+                if (found > 0) {
+                    return found;
+                }
+                if (budget.exhausted()) {
+                    return -1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static int[] toIndexes(int leftMask, int rightMask, int leftSize, int size) {
+        int[] indexes = new int[size];
+        int next = 0;
+        for (int bit = 0; bit < 32 && next < size; bit++) {
+            if ((leftMask & (1 << bit)) != 0) {
+                indexes[next++] = bit;
+            }
+        }
+        for (int bit = 0; bit < 32 && next < size; bit++) {
+            if ((rightMask & (1 << bit)) != 0) {
+                indexes[next++] = leftSize + bit;
+            }
+        }
+        return indexes;
+    }
+
+    private static int lowerBound(long[] sorted, long value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** One side's residual records, partitioned by group in ordinal order. */
+    private final class Side {
+        private int[] ordinals;
+        private long[] amounts;
+        private int[] days;
+        private int[] recordGroups;
+        private int[] groupStart;
+        private BitSet claimed;
+
+        private Side(RecordSet records, int[] residualOrdinals, KeyGroups groups) {
+            int count = residualOrdinals.length;
+            ordinals = new int[count];
+            amounts = new long[count];
+            days = new int[count];
+            recordGroups = new int[count];
+            int kept = 0;
+            for (int ordinal : residualOrdinals) {
+                long amount = records.minorUnits(ordinal, amountField, scale);
+                if (amount == FieldValues.NO_AMOUNT) {
+                    continue;
+                }
+                int group = groups.assign(records, ordinal);
+                if (group == KeyGroups.NO_GROUP) {
+                    continue;
+                }
+                ordinals[kept] = ordinal;
+                amounts[kept] = amount;
+                days[kept] = dateField == null ? 0 : records.epochDay(ordinal, dateField);
+                recordGroups[kept] = group;
+                kept++;
+            }
+            ordinals = Arrays.copyOf(ordinals, kept);
+            amounts = Arrays.copyOf(amounts, kept);
+            days = Arrays.copyOf(days, kept);
+            recordGroups = Arrays.copyOf(recordGroups, kept);
+        }
+
+        /** Stable counting sort by group, once every group id is known. */
+        private void partition(int groupCount) {
+            groupStart = new int[groupCount + 1];
+            for (int group : recordGroups) {
+                groupStart[group + 1]++;
+            }
+            for (int g = 0; g < groupCount; g++) {
+                groupStart[g + 1] += groupStart[g];
+            }
+            int[] fill = groupStart.clone();
+            int[] sortedOrdinals = new int[ordinals.length];
+            long[] sortedAmounts = new long[ordinals.length];
+            int[] sortedDays = new int[ordinals.length];
+            for (int i = 0; i < ordinals.length; i++) {
+                int position = fill[recordGroups[i]]++;
+                sortedOrdinals[position] = ordinals[i];
+                sortedAmounts[position] = amounts[i];
+                sortedDays[position] = days[i];
+            }
+            ordinals = sortedOrdinals;
+            amounts = sortedAmounts;
+            days = sortedDays;
+            claimed = new BitSet(ordinals.length);
+        }
+
+        private int groupStart(int group) {
+            return groupStart[group];
+        }
+
+        private int groupEnd(int group) {
+            return groupStart[group + 1];
+        }
+
+        private int groupSize(int group) {
+            return groupStart[group + 1] - groupStart[group];
+        }
+    }
+
+    private static final class SearchBudget {
+        private final long deadline;
+        private long nodesLeft;
+
+        private SearchBudget(long nodes, long deadline) {
+            this.nodesLeft = nodes;
+            this.deadline = deadline;
+        }
+
+        private boolean spend(long nodes) {
+            nodesLeft -= nodes;
+            if (nodesLeft < 0) {
+                return false;
+            }
+            if ((nodesLeft & 1023) < nodes && System.nanoTime() > deadline) {
+                nodesLeft = -1;
+                return false;
+            }
+            return true;
+        }
+
+        private boolean exhausted() {
+            return nodesLeft < 0;
+        }
+    }
+
+    /** Records settled together; one side always holds exactly one ordinal. */
+    public static final class AggregateGroup {
+        private final int[] sourceOrdinals;
+        private final int[] targetOrdinals;
+        private final long sourceTotal;
+        private final long targetTotal;
+        private final long tolerance;
+
+        AggregateGroup(int[] sourceOrdinals, int[] targetOrdinals, long sourceTotal, long targetTotal, long tolerance) {
+            this.sourceOrdinals = sourceOrdinals;
+            this.targetOrdinals = targetOrdinals;
+            this.sourceTotal = sourceTotal;
+            this.targetTotal = targetTotal;
+            this.tolerance = tolerance;
+        }
+
+        public int[] getSourceOrdinals() {
+            return sourceOrdinals;
+        }
+
+        public int[] getTargetOrdinals() {
+            return targetOrdinals;
+        }
+
+        public long getSourceTotal() {
+            return sourceTotal;
+        }
+
+        public long getTargetTotal() {
+            return targetTotal;
+        }
+
+        public double confidence() {
+            long delta = Math.abs(sourceTotal - targetTotal);
+            return tolerance == 0 ? 1.0 : 1.0 - 0.5 * delta / tolerance;
+        }
+    }
+
+    public static final class AggregateResult {
+        private final List<AggregateGroup> groups;
+        private final int exhaustedGroups;
+
+        AggregateResult(List<AggregateGroup> groups, int exhaustedGroups) {
+            this.groups = groups;
+            this.exhaustedGroups = exhaustedGroups;
+        }
+
+        public List<AggregateGroup> getGroups() {
+            return groups;
+        }
+
+        public int getExhaustedGroups() {
+            return exhaustedGroups;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.reconix;
+
+// ===== AMOUNT TOLERANCE =====
+// Absolute and percentage amount tolerance in minor units
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Tolerance bound for amounts in minor units: the larger of an absolute
+ * amount and a percentage of the amount being matched.
+ */
+public final class AmountTolerance {
+
+    private final long absoluteMinorUnits;
+    private final double percent;
+
+    private AmountTolerance(long absoluteMinorUnits, double percent) {
+        this.absoluteMinorUnits = absoluteMinorUnits;
+        this.percent = percent;
+    }
+
+    public static AmountTolerance of(BigDecimal absolute, BigDecimal percent, int scale) {
+        return new AmountTolerance(
+            absolute == null ? 0L : absolute.abs().setScale(scale, RoundingMode.FLOOR).unscaledValue().longValueExact(),
+            percent == null ? 0.0 : percent.abs().doubleValue());
+    }
+
+    public long toleranceFor(long amount) {
+        long percentage = (long) Math.floor(Math.abs((double) amount) * percent / 100.0);
+        return Math.max(absoluteMinorUnits, percentage);
+    }
+
+    /** {@code value + delta}, clamped instead of overflowing. */
+    static long saturatedAdd(long value, long delta) {
+        long result = value + delta;
+        if (((value ^ result) & (delta ^ result)) < 0) {
+            return delta < 0 ? Long.MIN_VALUE + 1 : Long.MAX_VALUE;
+        }
+        return result;
+    }
+}
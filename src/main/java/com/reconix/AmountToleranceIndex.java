@@ -0,0 +1,142 @@
+package com.reconix;
+
+// ===== AMOUNT TOLERANCE INDEX =====
+// Sorted primitive amount arrays answering [amount - tol, amount + tol] range queries
+
+/**
+ * Target amounts in minor units, grouped by the non-amount key fields and
+ * sorted within each group. A range lookup is a binary search for the lower
+ * bound followed by a scan, i.e. O(log n + k) for k hits. Ties on amount are
+ * ordered by ordinal so scans are deterministic.
+ *
+ * <p>When built with a date field, the targets' epoch days are stored in
+ * position order next to the amounts, so the scan and the date-window check
+ * run as bulk {@link ToleranceKernels} passes over contiguous arrays.
+ */
+public final class AmountToleranceIndex {
+
+    private static final ToleranceKernels KERNELS = ToleranceKernels.selected();
+
+    private final KeyGroups groups;
+    private final int[] groupStart;
+    private final long[] amounts;
+    private final int[] ordinals;
+    private final int[] days;
+
+    private AmountToleranceIndex(KeyGroups groups, int[] groupStart, long[] amounts, int[] ordinals, int[] days) {
+        this.groups = groups;
+        this.groupStart = groupStart;
+        this.amounts = amounts;
+        this.ordinals = ordinals;
+        this.days = days;
+    }
+
+    /**
+     * @param dateField field whose epoch days are stored by position for
+     *                  {@link #selectInDateWindow}, or {@code null}
+     */
+    public static AmountToleranceIndex build(RecordSet target, int[] targetOrdinals, KeyGroups groups,
+                                             String amountField, int scale, String dateField) {
+        int[] recordGroup = new int[targetOrdinals.length];
+        long[] recordAmount = new long[targetOrdinals.length];
+        int indexed = 0;
+        for (int i = 0; i < targetOrdinals.length; i++) {
+            long amount = target.minorUnits(targetOrdinals[i], amountField, scale);
+            int group = amount == FieldValues.NO_AMOUNT ? KeyGroups.NO_GROUP : groups.assign(target, targetOrdinals[i]);
+            recordGroup[i] = group;
+            recordAmount[i] = amount;
+            if (group != KeyGroups.NO_GROUP) {
+                indexed++;
+            }
+        }
+
+        // Counting sort by group, then sort each group's slice by amount
+        int[] groupStart = new int[groups.size() + 1];
+        for (int group : recordGroup) {
+            if (group != KeyGroups.NO_GROUP) {
+                groupStart[group + 1]++;
+            }
+        }
+        for (int g = 0; g < groups.size(); g++) {
+            groupStart[g + 1] += groupStart[g];
+        }
+        int[] fill = groupStart.clone();
+        long[] amounts = new long[indexed];
+        int[] ordinals = new int[indexed];
+        for (int i = 0; i < targetOrdinals.length; i++) {
+            int group = recordGroup[i];
+            if (group != KeyGroups.NO_GROUP) {
+                int position = fill[group]++;
+                amounts[position] = recordAmount[i];
+                ordinals[position] = targetOrdinals[i];
+            }
+        }
+        for (int g = 0; g < groups.size(); g++) {
+            PrimitiveSort.sort(amounts, ordinals, groupStart[g], groupStart[g + 1] - 1);
+        }
+        int[] days = null;
+        if (dateField != null) {
+            days = new int[indexed];
+            for (int p = 0; p < indexed; p++) {
+                days[p] = target.epochDay(ordinals[p], dateField);
+            }
+        }
+        return new AmountToleranceIndex(groups, groupStart, amounts, ordinals, days);
+    }
+
+    public KeyGroups groups() {
+        return groups;
+    }
+
+    /** First position in the group whose amount is {@code >= amount}. */
+    public int lowerBound(int group, long amount) {
+        int low = groupStart[group];
+        int high = groupStart[group + 1];
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (amounts[mid] < amount) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public int groupEnd(int group) {
+        return groupStart[group + 1];
+    }
+
+    /** First position from {@code from} on, within the group, whose amount is {@code > high}. */
+    public int upperBound(int group, int from, long high) {
+        return KERNELS.amountRunEnd(amounts, from, groupStart[group + 1], high);
+    }
+
+    /**
+     * Collects the positions in {@code [from, to)} whose date lies in
+     * {@code [windowStart, windowEnd]}; targets without a date never qualify.
+     * Requires an index built with a date field.
+     *
+     * @return the number of positions written to {@code selected}
+     */
+    public int selectInDateWindow(int from, int to, int windowStart, int windowEnd, int[] selected) {
+        return KERNELS.selectDays(days, from, to, Math.max(windowStart, FieldValues.NO_DATE + 1), windowEnd, selected);
+    }
+
+    /** Number of indexed targets, an upper bound on any selection. */
+    public int size() {
+        return amounts.length;
+    }
+
+    public int dayAt(int position) {
+        return days[position];
+    }
+
+    public long amountAt(int position) {
+        return amounts[position];
+    }
+
+    public int ordinalAt(int position) {
+        return ordinals[position];
+    }
+}
@@ -0,0 +1,392 @@
+package com.reconix;
+
+// ===== OPTIMAL CANDIDATE ASSIGNMENT =====
+// Maximum-weight bipartite matching of scored candidates, per connected component
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Chooses which scored candidate pairs to accept so that the total score is
+ * maximal and every record is used at most once, replacing first-come greedy
+ * acceptance whose result depends on source order.
+ *
+ * <p>The candidate graph is split into connected components that are solved
+ * independently on the matching pool. Components with a single source or a
+ * single target are resolved directly; the rest run an epsilon-scaling
+ * forward auction. To let records stay unmatched, each component is made
+ * square: every source gets a private zero-benefit "unmatched" object, and
+ * every target a zero-benefit "unmatched" bidder that can also take the
+ * unmatched objects of the target's candidate sources. Benefits are integer
+ * scores scaled by {@code n + 1}, so the final epsilon-1 phase is exactly
+ * optimal.
+ *
+ * <p>A component with more than {@link #MAX_AUCTION_EDGES} edges, or one still
+ * bidding when the job's time budget runs out, falls back to greedy
+ * acceptance in descending score order.
+ */
+@Slf4j
+public final class AssignmentSolver {
+
+    private static final int MAX_AUCTION_EDGES = 200_000;
+    private static final long SCORE_RESOLUTION = 1_000_000L;
+    private static final int EPSILON_REDUCTION = 5;
+    private static final int DEADLINE_CHECK_INTERVAL = 4096;
+
+    private final ForkJoinPool pool;
+    private final int parallelism;
+    private final long timeBudgetNanos;
+
+    public AssignmentSolver(ForkJoinPool pool, int parallelism, long timeBudgetMillis) {
+        this.pool = pool;
+        this.parallelism = parallelism;
+        this.timeBudgetNanos = timeBudgetMillis * 1_000_000L;
+    }
+
+    /**
+     * @param edges scored candidate pairs, each (source, target) at most once
+     * @return the accepted pairs in source ordinal order
+     */
+    public AssignmentResult solve(MatchPairs edges) {
+        long deadline = System.nanoTime() + timeBudgetNanos;
+        int[][] components = components(edges);
+        MatchPairs[] solved = new MatchPairs[components.length];
+        boolean[] fellBack = new boolean[components.length];
+        ParallelTasks.run("Parallel assignment", pool, parallelism, components.length, c -> {
+            int[] component = components[c];
+            if (isStar(edges, component)) {
+                solved[c] = greedy(edges, component);
+                return;
+            }
+            MatchPairs auction = component.length < MAX_AUCTION_EDGES
+                ? new Auction(edges, component, deadline).run() : null;
+            fellBack[c] = auction == null;
+            solved[c] = auction != null ? auction : greedy(edges, component);
+        });
+
+        int fallbacks = 0;
+        for (boolean fallback : fellBack) {
+            fallbacks += fallback ? 1 : 0;
+        }
+        if (fallbacks > 0) {
+            log.warn("{} of {} candidate components fell back to greedy assignment", fallbacks, components.length);
+        }
+        return new AssignmentResult(mergeBySource(solved), components.length, fallbacks);
+    }
+
+    /** Edge indexes grouped by connected component, components ordered by their first edge. */
+    private static int[][] components(MatchPairs edges) {
+        int maxSource = -1;
+        int maxTarget = -1;
+        for (int e = 0; e < edges.size(); e++) {
+            maxSource = Math.max(maxSource, edges.sourceOrdinal(e));
+            maxTarget = Math.max(maxTarget, edges.targetOrdinal(e));
+        }
+        // Union-find over sources [0, maxSource] and targets offset past them
+        int targetBase = maxSource + 1;
+        int[] parent = new int[targetBase + maxTarget + 1];
+        for (int node = 0; node < parent.length; node++) {
+            parent[node] = node;
+        }
+        for (int e = 0; e < edges.size(); e++) {
+            int a = find(parent, edges.sourceOrdinal(e));
+            int b = find(parent, targetBase + edges.targetOrdinal(e));
+            if (a != b) {
+                parent[Math.max(a, b)] = Math.min(a, b);
+            }
+        }
+        int[] componentOfRoot = new int[parent.length];
+        Arrays.fill(componentOfRoot, -1);
+        int[] componentOfEdge = new int[edges.size()];
+        int componentCount = 0;
+        for (int e = 0; e < edges.size(); e++) {
+            int root = find(parent, edges.sourceOrdinal(e));
+            if (componentOfRoot[root] < 0) {
+                componentOfRoot[root] = componentCount++;
+            }
+            componentOfEdge[e] = componentOfRoot[root];
+        }
+        int[] sizes = new int[componentCount];
+        for (int component : componentOfEdge) {
+            sizes[component]++;
+        }
+        int[][] components = new int[componentCount][];
+        for (int c = 0; c < componentCount; c++) {
+            components[c] = new int[sizes[c]];
+        }
+        int[] fill = new int[componentCount];
+        for (int e = 0; e < edges.size(); e++) {
+            components[componentOfEdge[e]][fill[componentOfEdge[e]]++] = e;
+        }
+        return components;
+    }
+
+    private static int find(int[] parent, int node) {
+        while (parent[node] != node) {
+            parent[node] = parent[parent[node]];
+            node = parent[node];
+        }
+        return node;
+    }
+
+    /** A component with one source or one target is solved by its single best edge. */
+    private static boolean isStar(MatchPairs edges, int[] component) {
+        boolean oneSource = true;
+        boolean oneTarget = true;
+        for (int e : component) {
+            oneSource &= edges.sourceOrdinal(e) == edges.sourceOrdinal(component[0]);
+            oneTarget &= edges.targetOrdinal(e) == edges.targetOrdinal(component[0]);
+        }
+        return oneSource || oneTarget;
+    }
+
+    /** Accepts edges in descending score, ties by source then target ordinal. */
+    private static MatchPairs greedy(MatchPairs edges, int[] component) {
+        Integer[] order = new Integer[component.length];
+        for (int i = 0; i < component.length; i++) {
+            order[i] = component[i];
+        }
+        Arrays.sort(order, (a, b) -> {
+            int byScore = Double.compare(edges.score(b), edges.score(a));
+            if (byScore != 0) {
+                return byScore;
+            }
+            int bySource = Integer.compare(edges.sourceOrdinal(a), edges.sourceOrdinal(b));
+            return bySource != 0 ? bySource : Integer.compare(edges.targetOrdinal(a), edges.targetOrdinal(b));
+        });
+        Set<Integer> usedSources = new HashSet<>();
+        Set<Integer> usedTargets = new HashSet<>();
+        MatchPairs accepted = new MatchPairs();
+        for (int e : order) {
+            if (!usedSources.contains(edges.sourceOrdinal(e)) && !usedTargets.contains(edges.targetOrdinal(e))) {
+                usedSources.add(edges.sourceOrdinal(e));
+                usedTargets.add(edges.targetOrdinal(e));
+                accepted.add(edges.sourceOrdinal(e), edges.targetOrdinal(e), edges.score(e));
+            }
+        }
+        return accepted;
+    }
+
+    private static MatchPairs mergeBySource(MatchPairs[] parts) {
+        int total = 0;
+        for (MatchPairs part : parts) {
+            total += part.size();
+        }
+        long[] sourceOrdinals = new long[total];
+        int[] refs = new int[total];
+        int[] partOf = new int[total];
+        int[] indexOf = new int[total];
+        int next = 0;
+        for (int p = 0; p < parts.length; p++) {
+            for (int i = 0; i < parts[p].size(); i++, next++) {
+                sourceOrdinals[next] = parts[p].sourceOrdinal(i);
+                refs[next] = next;
+                partOf[next] = p;
+                indexOf[next] = i;
+            }
+        }
+        PrimitiveSort.sort(sourceOrdinals, refs, 0, total - 1);
+        MatchPairs merged = new MatchPairs(total);
+        for (int ref : refs) {
+            MatchPairs part = parts[partOf[ref]];
+            int i = indexOf[ref];
+            merged.add(part.sourceOrdinal(i), part.targetOrdinal(i), part.score(i));
+        }
+        return merged;
+    }
+
+    /**
+     * Forward auction over one squared-up component. Bidders are the sources
+     * {@code [0, n)} then the targets' unmatched bidders {@code [n, n + m)};
+     * objects are the targets {@code [0, m)} then the sources' unmatched
+     * objects {@code [m, m + n)}.
+     */
+    private static final class Auction {
+        private final MatchPairs edges;
+        private final long deadline;
+        private final int sourceCount;
+        private final int targetCount;
+        private final int[] sourceOrdinals;
+        private final int[] targetOrdinals;
+        private final int[] bidOffsets;
+        private final int[] bidObjects;
+        private final long[] bidBenefits;
+        private final int[] bidEdges;
+        private long maxBenefit;
+
+        Auction(MatchPairs edges, int[] component, long deadline) {
+            this.edges = edges;
+            this.deadline = deadline;
+            int[] sources = new int[component.length];
+            int[] targets = new int[component.length];
+            for (int i = 0; i < component.length; i++) {
+                sources[i] = edges.sourceOrdinal(component[i]);
+                targets[i] = edges.targetOrdinal(component[i]);
+            }
+            sourceOrdinals = distinctSorted(sources);
+            targetOrdinals = distinctSorted(targets);
+            sourceCount = sourceOrdinals.length;
+            targetCount = targetOrdinals.length;
+            long scale = sourceCount + targetCount + 1L;
+
+            int[] sourceDegree = new int[sourceCount];
+            int[] targetDegree = new int[targetCount];
+            int[] localSource = new int[component.length];
+            int[] localTarget = new int[component.length];
+            for (int i = 0; i < component.length; i++) {
+                localSource[i] = Arrays.binarySearch(sourceOrdinals, sources[i]);
+                localTarget[i] = Arrays.binarySearch(targetOrdinals, targets[i]);
+                sourceDegree[localSource[i]]++;
+                targetDegree[localTarget[i]]++;
+            }
+            int bidders = sourceCount + targetCount;
+            bidOffsets = new int[bidders + 1];
+            for (int s = 0; s < sourceCount; s++) {
+                bidOffsets[s + 1] = bidOffsets[s] + sourceDegree[s] + 1;
+            }
+            for (int t = 0; t < targetCount; t++) {
+                bidOffsets[sourceCount + t + 1] = bidOffsets[sourceCount + t] + targetDegree[t] + 1;
+            }
+            bidObjects = new int[bidOffsets[bidders]];
+            bidBenefits = new long[bidObjects.length];
+            bidEdges = new int[bidObjects.length];
+            Arrays.fill(bidEdges, -1);
+            int[] fill = Arrays.copyOf(bidOffsets, bidders);
+            for (int i = 0; i < component.length; i++) {
+                int s = localSource[i];
+                int t = localTarget[i];
+                long benefit = Math.round(edges.score(component[i]) * SCORE_RESOLUTION) * scale;
+                maxBenefit = Math.max(maxBenefit, benefit);
+                bidObjects[fill[s]] = t;
+                bidBenefits[fill[s]] = benefit;
+                bidEdges[fill[s]++] = component[i];
+                // The target's unmatched bidder may take this source's unmatched object
+                bidObjects[fill[sourceCount + t]++] = targetCount + s;
+            }
+            for (int s = 0; s < sourceCount; s++) {
+                bidObjects[fill[s]++] = targetCount + s;
+            }
+            for (int t = 0; t < targetCount; t++) {
+                bidObjects[fill[sourceCount + t]++] = t;
+            }
+        }
+
+        /** @return the optimal pairs, or {@code null} if the deadline passed first */
+        MatchPairs run() {
+            int size = sourceCount + targetCount;
+            long[] prices = new long[size];
+            int[] ownerOf = new int[size];
+            int[] objectOf = new int[size];
+            int[] queue = new int[size];
+            long epsilon = Math.max(1, maxBenefit / EPSILON_REDUCTION);
+            int bids = 0;
+            while (true) {
+                Arrays.fill(ownerOf, -1);
+                Arrays.fill(objectOf, -1);
+                for (int b = 0; b < size; b++) {
+                    queue[b] = b;
+                }
+                // Circular queue of unassigned bidders; at most `size` are ever waiting
+                int head = 0;
+                int waiting = size;
+                while (waiting > 0) {
+                    if (++bids % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+                        return null;
+                    }
+                    int bidder = queue[head];
+                    head = (head + 1) % size;
+                    waiting--;
+
+                    int bestObject = -1;
+                    long bestValue = Long.MIN_VALUE;
+                    long secondValue = Long.MIN_VALUE;
+                    for (int k = bidOffsets[bidder]; k < bidOffsets[bidder + 1]; k++) {
+                        long value = bidBenefits[k] - prices[bidObjects[k]];
+                        if (value > bestValue) {
+                            secondValue = bestValue;
+                            bestValue = value;
+                            bestObject = bidObjects[k];
+                        } else if (value > secondValue) {
+                            secondValue = value;
+                        }
+                    }
+                    // A bidder with a single option may raise its price by any amount
+                    long increment = secondValue == Long.MIN_VALUE
+                        ? maxBenefit + epsilon : bestValue - secondValue + epsilon;
+                    prices[bestObject] += increment;
+                    int displaced = ownerOf[bestObject];
+                    ownerOf[bestObject] = bidder;
+                    objectOf[bidder] = bestObject;
+                    if (displaced >= 0) {
+                        objectOf[displaced] = -1;
+                        queue[(head + waiting) % size] = displaced;
+                        waiting++;
+                    }
+                }
+                if (epsilon == 1) {
+                    break;
+                }
+                epsilon = Math.max(1, epsilon / EPSILON_REDUCTION);
+            }
+
+            MatchPairs accepted = new MatchPairs();
+            for (int s = 0; s < sourceCount; s++) {
+                int object = objectOf[s];
+                if (object < targetCount) {
+                    int edge = edgeTo(s, object);
+                    accepted.add(sourceOrdinals[s], targetOrdinals[object], edges.score(edge));
+                }
+            }
+            return accepted;
+        }
+
+        private int edgeTo(int source, int target) {
+            for (int k = bidOffsets[source]; k < bidOffsets[source + 1]; k++) {
+                if (bidObjects[k] == target && bidEdges[k] >= 0) {
+                    return bidEdges[k];
+                }
+            }
+            throw new IllegalStateException("Auction assigned a source to a target it has no edge to");
+        }
+
+        private static int[] distinctSorted(int[] values) {
+            int[] sorted = values.clone();
+            Arrays.sort(sorted);
+            int distinct = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    sorted[distinct++] = sorted[i];
+                }
+            }
+            return Arrays.copyOf(sorted, distinct);
+        }
+    }
+
+    public static final class AssignmentResult {
+        private final MatchPairs pairs;
+        private final int components;
+        private final int greedyFallbacks;
+
+        AssignmentResult(MatchPairs pairs, int components, int greedyFallbacks) {
+            this.pairs = pairs;
+            this.components = components;
+            this.greedyFallbacks = greedyFallbacks;
+        }
+
+        public MatchPairs getPairs() {
+            return pairs;
+        }
+
+        public int getComponents() {
+            return components;
+        }
+
+        public int getGreedyFallbacks() {
+            return greedyFallbacks;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.reconix;
+
+// ===== BLOCKED BLOOM FILTER =====
+// Compact membership prefilter over match-key fingerprints
+
+/**
+ * Bloom filter whose bits for one key all fall in a single 512-bit block,
+ * so a lookup touches one cache line. At the default 10 bits per key the
+ * false-positive rate is about 1%; there are no false negatives, so a key
+ * that misses the filter is certainly absent from the set it was built over.
+ *
+ * <p>The filter is a flat {@code long[]}, small enough to stand in for a
+ * full key set while one side of a join lives on disk. Fingerprints come
+ * from {@link MatchKey#fingerprint()}.
+ */
+public final class BlockedBloomFilter {
+
+    public static final int DEFAULT_BITS_PER_KEY = 10;
+
+    private static final int BLOCK_LONGS = 8;
+    private static final int BLOCK_BITS_SHIFT = 9; // log2(BLOCK_LONGS * 64)
+    private static final int BLOCK_BITS_MASK = (1 << BLOCK_BITS_SHIFT) - 1;
+    private static final int HASHES = 6;
+
+    private final long[] bits;
+    private final int blockCount;
+
+    private BlockedBloomFilter(long[] bits) {
+        this.bits = bits;
+        this.blockCount = bits.length / BLOCK_LONGS;
+    }
+
+    public static BlockedBloomFilter withExpectedKeys(long expectedKeys) {
+        return withExpectedKeys(expectedKeys, DEFAULT_BITS_PER_KEY);
+    }
+
+    public static BlockedBloomFilter withExpectedKeys(long expectedKeys, int bitsPerKey) {
+        if (bitsPerKey <= 0) {
+            throw new IllegalArgumentException("bitsPerKey must be positive");
+        }
+        long blocks = Math.max(1, (Math.max(1, expectedKeys) * bitsPerKey + (BLOCK_LONGS * 64) - 1) / (BLOCK_LONGS * 64));
+        if (blocks > Integer.MAX_VALUE / BLOCK_LONGS) {
+            throw new IllegalArgumentException("Bloom filter for " + expectedKeys + " keys is too large");
+        }
+        return new BlockedBloomFilter(new long[(int) blocks * BLOCK_LONGS]);
+    }
+
+    public void put(long fingerprint) {
+        int base = block(fingerprint) * BLOCK_LONGS;
+        long positions = fingerprint * 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < HASHES; i++) {
+            int bit = (int) (positions >>> (i * BLOCK_BITS_SHIFT)) & BLOCK_BITS_MASK;
+            bits[base + (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    public boolean mightContain(long fingerprint) {
+        int base = block(fingerprint) * BLOCK_LONGS;
+        long positions = fingerprint * 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < HASHES; i++) {
+            int bit = (int) (positions >>> (i * BLOCK_BITS_SHIFT)) & BLOCK_BITS_MASK;
+            if ((bits[base + (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long sizeInBytes() {
+        return (long) bits.length * Long.BYTES;
+    }
+
+    private int block(long fingerprint) {
+        return (int) (((fingerprint >>> 32) * blockCount) >>> 32);
+    }
+}
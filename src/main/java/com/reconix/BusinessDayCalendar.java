@@ -0,0 +1,95 @@
+package com.reconix;
+
+// ===== BUSINESS DAY CALENDAR =====
+// Weekend and holiday aware day arithmetic for value-date windows
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Shifts epoch days by business days, skipping configured weekend days and
+ * holidays. {@link #CALENDAR_DAYS} treats every day as a business day.
+ * At least one weekday must be a business day, and a shift that meets more
+ * than {@value #MAX_NON_BUSINESS_RUN} consecutive holidays fails rather
+ * than walking on.
+ */
+public final class BusinessDayCalendar {
+
+    public static final BusinessDayCalendar CALENDAR_DAYS = new BusinessDayCalendar(EnumSet.noneOf(DayOfWeek.class), Set.of());
+
+    static final int MAX_NON_BUSINESS_RUN = 3660;
+
+    private final boolean[] weekend = new boolean[7];
+    private final Set<Integer> holidays;
+
+    public BusinessDayCalendar(Set<DayOfWeek> weekendDays, Collection<LocalDate> holidays) {
+        if (weekendDays.size() == DayOfWeek.values().length) {
+            throw new ValidationException("Business calendar weekend days cover the whole week");
+        }
+        for (DayOfWeek day : weekendDays) {
+            weekend[day.getValue() - 1] = true;
+        }
+        this.holidays = new HashSet<>();
+        for (LocalDate holiday : holidays) {
+            if (holiday == null) {
+                throw new ValidationException("Business calendar holidays must not contain null");
+            }
+            this.holidays.add((int) holiday.toEpochDay());
+        }
+    }
+
+    public static BusinessDayCalendar from(BusinessCalendarDTO calendar) {
+        if (calendar == null) {
+            return CALENDAR_DAYS;
+        }
+        Set<DayOfWeek> weekendDays = calendar.getWeekendDays() != null
+            ? weekendDays(calendar.getWeekendDays())
+            : EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY);
+        return new BusinessDayCalendar(weekendDays,
+            calendar.getHolidays() != null ? calendar.getHolidays() : Set.of());
+    }
+
+    // EnumSet.copyOf rejects an empty plain collection, and an empty set is a seven-day week
+    private static Set<DayOfWeek> weekendDays(Collection<DayOfWeek> days) {
+        Set<DayOfWeek> weekendDays = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek day : days) {
+            if (day == null) {
+                throw new ValidationException("Business calendar weekend days must not contain null");
+            }
+            weekendDays.add(day);
+        }
+        return weekendDays;
+    }
+
+    public boolean isBusinessDay(int epochDay) {
+        // 1970-01-01 was a Thursday (ISO day 4)
+        int isoDayIndex = Math.floorMod(epochDay + 3, 7);
+        return !weekend[isoDayIndex] && !holidays.contains(epochDay);
+    }
+
+    /** Returns the epoch day {@code businessDays} business days away (negative shifts go back). */
+    public int shift(int epochDay, int businessDays) {
+        if (this == CALENDAR_DAYS) {
+            return epochDay + businessDays;
+        }
+        int step = businessDays < 0 ? -1 : 1;
+        int remaining = Math.abs(businessDays);
+        int day = epochDay;
+        int nonBusinessRun = 0;
+        while (remaining > 0) {
+            day += step;
+            if (isBusinessDay(day)) {
+                remaining--;
+                nonBusinessRun = 0;
+            } else if (++nonBusinessRun > MAX_NON_BUSINESS_RUN) {
+                throw new ValidationException("Business calendar has no business day within "
+                    + MAX_NON_BUSINESS_RUN + " days of " + LocalDate.ofEpochDay(day - (long) step * nonBusinessRun));
+            }
+        }
+        return day;
+    }
+}
@@ -0,0 +1,136 @@
+package com.reconix;
+
+// ===== BYTE FIELD DECODER =====
+// Amounts and dates parsed straight from ASCII bytes into minor units and epoch days
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes numeric fields from a byte slice without building a String or a
+ * BigDecimal. Failures return {@link FieldValues#NO_AMOUNT} or
+ * {@link FieldValues#NO_DATE} so callers can record a validation error and
+ * leave the value null.
+ */
+public final class ByteFieldDecoder {
+
+    private static final int DAYS_0000_TO_1970 = 719_468;
+
+    private ByteFieldDecoder() {
+    }
+
+    /**
+     * Parses {@code [+-]digits[<separator>digits]}, surrounding spaces
+     * allowed, into minor units at {@code scale}. Fraction digits beyond the
+     * scale must be zero, as for {@link java.math.RoundingMode#UNNECESSARY}.
+     */
+    public static long minorUnits(ByteBuffer buffer, int start, int end, int scale, byte decimalSeparator) {
+        while (start < end && buffer.get(start) == ' ') {
+            start++;
+        }
+        while (end > start && buffer.get(end - 1) == ' ') {
+            end--;
+        }
+        if (start == end) {
+            return FieldValues.NO_AMOUNT;
+        }
+        boolean negative = false;
+        byte first = buffer.get(start);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            start++;
+        }
+        long value = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == decimalSeparator && fractionDigits < 0) {
+                fractionDigits = 0;
+                continue;
+            }
+            if (b < '0' || b > '9') {
+                return FieldValues.NO_AMOUNT;
+            }
+            if (fractionDigits >= 0 && fractionDigits >= scale) {
+                if (b != '0') {
+                    return FieldValues.NO_AMOUNT;
+                }
+                continue;
+            }
+            if (value > (Long.MAX_VALUE - 9) / 10) {
+                return FieldValues.NO_AMOUNT;
+            }
+            value = value * 10 + (b - '0');
+            digits++;
+            if (fractionDigits >= 0) {
+                fractionDigits++;
+            }
+        }
+        if (digits == 0 && fractionDigits <= 0) {
+            return FieldValues.NO_AMOUNT;
+        }
+        for (int f = Math.max(fractionDigits, 0); f < scale; f++) {
+            if (value > Long.MAX_VALUE / 10) {
+                return FieldValues.NO_AMOUNT;
+            }
+            value *= 10;
+        }
+        return negative ? -value : value;
+    }
+
+    /** Parses {@code yyyy-MM-dd} or {@code yyyyMMdd} into an epoch day. */
+    public static int isoEpochDay(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        if (length == 10) {
+            if (buffer.get(start + 4) != '-' || buffer.get(start + 7) != '-') {
+                return FieldValues.NO_DATE;
+            }
+            return epochDay(digits(buffer, start, 4), digits(buffer, start + 5, 2), digits(buffer, start + 8, 2));
+        }
+        if (length == 8) {
+            return epochDay(digits(buffer, start, 4), digits(buffer, start + 4, 2), digits(buffer, start + 6, 2));
+        }
+        return FieldValues.NO_DATE;
+    }
+
+    /** Value of {@code count} ASCII digits, or -1 if any byte is not a digit. */
+    public static int digits(ByteBuffer buffer, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /** Proleptic Gregorian epoch day, or {@link FieldValues#NO_DATE} for an invalid date. */
+    public static int epochDay(int year, int month, int day) {
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return FieldValues.NO_DATE;
+        }
+        // Days from civil: years start in March so the leap day falls at the end
+        int y = month <= 2 ? year - 1 : year;
+        int era = y / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - DAYS_0000_TO_1970;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.reconix;
+
+// ===== BYTE STRING INTERNER =====
+// Dictionary codes for UTF-8 byte slices without allocating a String per occurrence
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Maps raw field bytes to {@link StringDictionary} codes. Each distinct
+ * slice is copied once into an arena and decoded to a String once, on first
+ * sight; repeats are a hash probe and a byte comparison. Slices are keyed by
+ * their raw bytes, so a value seen both quoted with {@code ""} escapes and
+ * unquoted takes two entries but resolves to one dictionary code.
+ * Not thread-safe: use one interner per reading thread.
+ */
+public final class ByteStringInterner {
+
+    private static final int INITIAL_SLOTS = 1 << 12;
+
+    private final StringDictionary dictionary;
+    private final byte quote;
+    private final Charset charset;
+    private byte[] arena = new byte[1 << 16];
+    private int arenaSize;
+    private int[] entryOffset = new int[INITIAL_SLOTS / 2];
+    private int[] entryLength = new int[INITIAL_SLOTS / 2];
+    private int[] entryHash = new int[INITIAL_SLOTS / 2];
+    private int[] entryCode = new int[INITIAL_SLOTS / 2];
+    private int entries;
+    private int[] slots = new int[INITIAL_SLOTS];
+
+    /**
+     * @param quote quote byte whose doubled form is unescaped when decoding
+     *              slices marked as escaped
+     */
+    public ByteStringInterner(StringDictionary dictionary, byte quote) {
+        this(dictionary, quote, StandardCharsets.UTF_8);
+    }
+
+    /** @param charset encoding of the slices, for files that are not UTF-8 */
+    public ByteStringInterner(StringDictionary dictionary, byte quote, Charset charset) {
+        this.dictionary = dictionary;
+        this.quote = quote;
+        this.charset = charset;
+        Arrays.fill(slots, -1);
+    }
+
+    public StringDictionary dictionary() {
+        return dictionary;
+    }
+
+    /**
+     * @param escaped whether the slice contains doubled quote bytes to
+     *                collapse when the string is first decoded
+     */
+    public int intern(ByteBuffer buffer, int start, int end, boolean escaped) {
+        int length = end - start;
+        int hash = escaped ? 1 : 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + buffer.get(i);
+        }
+        int mask = slots.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int entry = slots[slot];
+            if (entry < 0) {
+                int code = dictionary.encode(decode(buffer, start, end, escaped));
+                slots[slot] = add(buffer, start, length, hash, code);
+                if (entries * 2 > slots.length) {
+                    rehash();
+                }
+                return code;
+            }
+            if (entryHash[entry] == hash && entryLength[entry] == length && sameBytes(entry, buffer, start)) {
+                return entryCode[entry];
+            }
+        }
+    }
+
+    private boolean sameBytes(int entry, ByteBuffer buffer, int start) {
+        int offset = entryOffset[entry];
+        for (int i = 0; i < entryLength[entry]; i++) {
+            if (arena[offset + i] != buffer.get(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int add(ByteBuffer buffer, int start, int length, int hash, int code) {
+        if (arenaSize + length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaSize + length));
+        }
+        for (int i = 0; i < length; i++) {
+            arena[arenaSize + i] = buffer.get(start + i);
+        }
+        if (entries == entryOffset.length) {
+            int grown = entries * 2;
+            entryOffset = Arrays.copyOf(entryOffset, grown);
+            entryLength = Arrays.copyOf(entryLength, grown);
+            entryHash = Arrays.copyOf(entryHash, grown);
+            entryCode = Arrays.copyOf(entryCode, grown);
+        }
+        entryOffset[entries] = arenaSize;
+        entryLength[entries] = length;
+        entryHash[entries] = hash;
+        entryCode[entries] = code;
+        arenaSize += length;
+        return entries++;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        Arrays.fill(slots, -1);
+        int mask = slots.length - 1;
+        for (int entry = 0; entry < entries; entry++) {
+            int slot = mix(entryHash[entry]) & mask;
+            while (slots[slot] >= 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = entry;
+        }
+    }
+
+    private String decode(ByteBuffer buffer, int start, int end, boolean escaped) {
+        byte[] bytes = new byte[end - start];
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            bytes[length++] = b;
+            if (escaped && b == quote && i + 1 < end && buffer.get(i + 1) == quote) {
+                i++;
+            }
+        }
+        return new String(bytes, 0, length, charset);
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
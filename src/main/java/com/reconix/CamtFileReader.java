@@ -0,0 +1,467 @@
+package com.reconix;
+
+// ===== CAMT FILE READER =====
+// Reads camt statement files into batches, splitting multi-statement documents across workers
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Reads an ISO 20022 camt file into a batch of {@link StatementEntry#schema}
+ * rows through {@link CamtStatementReader}, either as one stream or split by
+ * statement across workers.
+ *
+ * <p>The split comes from a byte-level pre-scan that tracks element depth,
+ * skipping comments, CDATA sections, processing instructions and quoted
+ * attribute values, and records where each {@code Stmt}, {@code Ntfctn} or
+ * {@code Rpt} element starts and ends. Consecutive statements are grouped
+ * into ranges of similar size, and each range is parsed as a document of
+ * its own: the file's bytes before the first statement, the range, and the
+ * bytes after the last, so namespace declarations and the encoding carry
+ * over. Ranges are concatenated in document order, so ordinals match a
+ * sequential read.
+ */
+@Slf4j
+public final class CamtFileReader {
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final int SCAN_BUFFER_BYTES = 1024 * 1024;
+    private static final int MAX_ENVELOPE_BYTES = 16 * 1024 * 1024;
+    private static final int RANGES_PER_WORKER = 4;
+
+    private final XMLInputFactory factory;
+    private final Path file;
+    private final int scale;
+
+    public CamtFileReader(XMLInputFactory factory, Path file, int scale) {
+        this.factory = factory;
+        this.file = file;
+        this.scale = scale;
+    }
+
+    /** Streams the whole document on the calling thread. */
+    public IngestionResult read(StringDictionary dictionary) throws IOException, XMLStreamException {
+        long started = System.nanoTime();
+        long size = Files.size(file);
+        RecordBatchBuilder builder = new RecordBatchBuilder(StatementEntry.schema(scale), dictionary);
+        IngestionErrors errors = new IngestionErrors();
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(file), BUFFER_BYTES)) {
+            parse(input, builder, errors);
+        }
+        IngestionResult.ChunkStatistics statistics = new IngestionResult.ChunkStatistics(0, 0, size,
+            builder.size(), System.nanoTime() - started);
+        return new IngestionResult(builder.build(), errors, size, List.of(statistics));
+    }
+
+    /**
+     * Parses statements on up to {@code parallelism} workers of {@code pool}.
+     * Documents with a single statement, or whose content outside the
+     * statements is implausibly large, are streamed sequentially.
+     */
+    public IngestionResult read(StringDictionary dictionary, ForkJoinPool pool, int parallelism)
+            throws IOException, XMLStreamException {
+        if (parallelism <= 1) {
+            return read(dictionary);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] statements = new StatementScanner().scan(channel);
+            int statementCount = statements.length / 2;
+            if (statementCount < 2) {
+                return read(dictionary);
+            }
+            long firstStart = statements[0];
+            long lastEnd = statements[statements.length - 1];
+            if (firstStart > MAX_ENVELOPE_BYTES || size - lastEnd > MAX_ENVELOPE_BYTES) {
+                log.warn("Statements of {} are wrapped in {} bytes of other content; reading sequentially",
+                    file.getFileName(), firstStart + size - lastEnd);
+                return read(dictionary);
+            }
+            byte[] prologue = readFully(channel, 0, (int) firstStart);
+            byte[] epilogue = readFully(channel, lastEnd, (int) (size - lastEnd));
+            long[] bounds = ranges(statements, parallelism * RANGES_PER_WORKER);
+            int rangeCount = bounds.length - 1;
+            Range[] ranges = new Range[rangeCount];
+            ParallelTasks.run("Parallel camt parsing", pool, parallelism, rangeCount, r -> {
+                ranges[r] = new Range(r);
+                ranges[r].parse(channel, prologue, epilogue, bounds[r], bounds[r + 1]);
+            });
+            RecordBatchBuilder builder = new RecordBatchBuilder(StatementEntry.schema(scale), dictionary);
+            IngestionErrors errors = new IngestionErrors();
+            List<IngestionResult.ChunkStatistics> statistics = new ArrayList<>(rangeCount);
+            for (Range range : ranges) {
+                StringDictionary local = range.builder.dictionary();
+                int[] codes = new int[local.size()];
+                for (int code = 0; code < codes.length; code++) {
+                    codes[code] = dictionary.encode(local.decode(code));
+                }
+                errors.addAll(range.errors, builder.size());
+                builder.append(range.builder, codes);
+                statistics.add(range.statistics);
+            }
+            log.debug("Parsed {} statements of {} as {} ranges", statementCount, file.getFileName(), rangeCount);
+            return new IngestionResult(builder.build(), errors, size, statistics);
+        }
+    }
+
+    private void parse(InputStream input, RecordBatchBuilder builder, IngestionErrors errors)
+            throws XMLStreamException {
+        try (CamtStatementReader reader = new CamtStatementReader(factory, input, scale)) {
+            for (StatementEntry entry = reader.next(); entry != null; entry = reader.next()) {
+                entry.appendTo(builder);
+            }
+            errors.addAll(reader.errorLog(), 0);
+        }
+    }
+
+    /**
+     * Groups consecutive statements into at most {@code maxRanges} ranges of
+     * roughly equal bytes, splitting at the first statement that starts past
+     * the middle of each nominal range; returns the range bounds, each a
+     * statement start, followed by the end of the last statement.
+     */
+    static long[] ranges(long[] statements, int maxRanges) {
+        int statementCount = statements.length / 2;
+        int nominalRanges = Math.min(maxRanges, statementCount);
+        long first = statements[0];
+        long total = statements[statements.length - 1] - first;
+        long[] bounds = new long[nominalRanges + 1];
+        int count = 0;
+        bounds[count++] = first;
+        int s = 1;
+        for (int k = 1; k < nominalRanges; k++) {
+            long split = first + (total * (2L * k - 1)) / (2L * nominalRanges);
+            while (s < statementCount && statements[2 * s] < split) {
+                s++;
+            }
+            if (s == statementCount) {
+                break;
+            }
+            bounds[count++] = statements[2 * s++];
+        }
+        bounds[count++] = statements[statements.length - 1];
+        return Arrays.copyOf(bounds, count);
+    }
+
+    private static byte[] readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file at byte " + (position + buffer.position()));
+            }
+        }
+        return buffer.array();
+    }
+
+    /** One run of statements parsed on a worker into its own builder, dictionary and error log. */
+    private final class Range {
+        final int index;
+        final RecordBatchBuilder builder;
+        final IngestionErrors errors = new IngestionErrors();
+        IngestionResult.ChunkStatistics statistics;
+
+        Range(int index) {
+            this.index = index;
+            this.builder = new RecordBatchBuilder(StatementEntry.schema(scale), new StringDictionary());
+        }
+
+        void parse(FileChannel channel, byte[] prologue, byte[] epilogue, long from, long to) {
+            long started = System.nanoTime();
+            InputStream document = new SequenceInputStream(new SequenceInputStream(
+                new ByteArrayInputStream(prologue), new BufferedInputStream(new ChannelRangeInputStream(channel, from, to),
+                    BUFFER_BYTES)), new ByteArrayInputStream(epilogue));
+            try {
+                CamtFileReader.this.parse(document, builder, errors);
+            } catch (XMLStreamException e) {
+                throw new ReconciliationException("Malformed statement in " + file.getFileName()
+                    + " between bytes " + from + " and " + to, e);
+            }
+            statistics = new IngestionResult.ChunkStatistics(index, from, to - from, builder.size(),
+                System.nanoTime() - started);
+        }
+    }
+
+    /** Positional reads of one byte range, so workers share the channel without seeking it. */
+    private static final class ChannelRangeInputStream extends InputStream {
+        private final FileChannel channel;
+        private final long end;
+        private long position;
+
+        ChannelRangeInputStream(FileChannel channel, long from, long to) {
+            this.channel = channel;
+            this.position = from;
+            this.end = to;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            int n = channel.read(ByteBuffer.wrap(target, offset, (int) Math.min(length, end - position)), position);
+            if (n < 0) {
+                throw new IOException("Unexpected end of file at byte " + position);
+            }
+            position += n;
+            return n;
+        }
+    }
+
+    /**
+     * Finds the byte ranges of the statement elements: children of the
+     * message element, at depth three. Markup is tracked one byte at a time
+     * with the state kept across buffer refills.
+     */
+    static final class StatementScanner {
+        private static final int TEXT = 0;
+        private static final int OPEN = 1;
+        private static final int START_NAME = 2;
+        private static final int IN_TAG = 3;
+        private static final int ATTRIBUTE_VALUE = 4;
+        private static final int END_NAME = 5;
+        private static final int END_TAIL = 6;
+        private static final int BANG = 7;
+        private static final int COMMENT = 8;
+        private static final int CDATA = 9;
+        private static final int DECLARATION = 10;
+        private static final int INSTRUCTION = 11;
+
+        private static final byte[] CDATA_OPEN = {'[', 'C', 'D', 'A', 'T', 'A', '['};
+        private static final int MAX_NAME = 16;
+
+        private final byte[] name = new byte[MAX_NAME];
+        private int nameLength;
+        private int state = TEXT;
+        private int depth;
+        private long tagStart;
+        private long statementStart = -1;
+        private boolean slash;
+        private byte quote;
+        private int matched;
+        private int brackets;
+        private long[] statements = new long[64];
+        private int statementBounds;
+
+        /** Start and end offsets of every statement, interleaved, in document order. */
+        long[] scan(FileChannel channel) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_BYTES);
+            byte[] bytes = buffer.array();
+            long position = 0;
+            int n;
+            while ((n = channel.read(buffer, position)) > 0) {
+                for (int i = 0; i < n; i++) {
+                    accept(bytes[i], position + i);
+                }
+                position += n;
+                buffer.clear();
+            }
+            return Arrays.copyOf(statements, statementBounds);
+        }
+
+        private void accept(byte b, long position) {
+            switch (state) {
+                case TEXT:
+                    if (b == '<') {
+                        tagStart = position;
+                        state = OPEN;
+                    }
+                    break;
+                case OPEN:
+                    nameLength = 0;
+                    if (b == '/') {
+                        state = END_NAME;
+                    } else if (b == '!') {
+                        matched = 0;
+                        state = BANG;
+                    } else if (b == '?') {
+                        matched = 0;
+                        state = INSTRUCTION;
+                    } else {
+                        appendName(b);
+                        state = START_NAME;
+                    }
+                    break;
+                case START_NAME:
+                    if (b == '>' || b == '/' || isWhitespace(b)) {
+                        startTag();
+                        slash = false;
+                        state = IN_TAG;
+                        accept(b, position);
+                    } else {
+                        appendName(b);
+                    }
+                    break;
+                case IN_TAG:
+                    if (b == '>') {
+                        if (slash) {
+                            endTag(position);
+                        }
+                        state = TEXT;
+                    } else if (b == '"' || b == '\'') {
+                        quote = b;
+                        state = ATTRIBUTE_VALUE;
+                    } else if (!isWhitespace(b)) {
+                        slash = b == '/';
+                    }
+                    break;
+                case ATTRIBUTE_VALUE:
+                    if (b == quote) {
+                        slash = false;
+                        state = IN_TAG;
+                    }
+                    break;
+                case END_NAME:
+                    if (b == '>') {
+                        endTag(position);
+                        state = TEXT;
+                    } else if (isWhitespace(b)) {
+                        state = END_TAIL;
+                    } else {
+                        appendName(b);
+                    }
+                    break;
+                case END_TAIL:
+                    if (b == '>') {
+                        endTag(position);
+                        state = TEXT;
+                    }
+                    break;
+                case BANG:
+                    bang(b);
+                    break;
+                case COMMENT:
+                    if (b == '>' && matched >= 2) {
+                        state = TEXT;
+                    } else {
+                        matched = b == '-' ? matched + 1 : 0;
+                    }
+                    break;
+                case CDATA:
+                    if (b == '>' && matched >= 2) {
+                        state = TEXT;
+                    } else {
+                        matched = b == ']' ? matched + 1 : 0;
+                    }
+                    break;
+                case DECLARATION:
+                    // Internal DTD subsets nest markup in brackets; the factory rejects them anyway
+                    if (b == '[') {
+                        brackets++;
+                    } else if (b == ']') {
+                        brackets--;
+                    } else if (b == '>' && brackets <= 0) {
+                        state = TEXT;
+                    }
+                    break;
+                case INSTRUCTION:
+                    if (b == '>' && matched == 1) {
+                        state = TEXT;
+                    } else {
+                        matched = b == '?' ? 1 : 0;
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown scanner state " + state);
+            }
+        }
+
+        /** Distinguishes {@code <!--}, {@code <![CDATA[} and declarations from the bytes after {@code <!}. */
+        private void bang(byte b) {
+            if (matched == 0 && b == '-') {
+                matched = -1;
+            } else if (matched == -1) {
+                if (b == '-') {
+                    matched = 0;
+                    state = COMMENT;
+                } else {
+                    declaration(b);
+                }
+            } else if (matched >= 0 && b == CDATA_OPEN[matched]) {
+                if (++matched == CDATA_OPEN.length) {
+                    matched = 0;
+                    state = CDATA;
+                }
+            } else {
+                declaration(b);
+            }
+        }
+
+        private void declaration(byte b) {
+            brackets = 0;
+            state = DECLARATION;
+            accept(b, -1);
+        }
+
+        private void startTag() {
+            depth++;
+            if (depth == 3 && isStatement()) {
+                statementStart = tagStart;
+            }
+        }
+
+        private void endTag(long position) {
+            if (depth == 3 && statementStart >= 0) {
+                if (statementBounds + 2 > statements.length) {
+                    statements = Arrays.copyOf(statements, statements.length * 2);
+                }
+                statements[statementBounds++] = statementStart;
+                statements[statementBounds++] = position + 1;
+                statementStart = -1;
+            }
+            depth--;
+        }
+
+        private void appendName(byte b) {
+            if (b == ':') {
+                // Namespace prefix: keep the local name only
+                nameLength = 0;
+            } else if (nameLength < MAX_NAME) {
+                name[nameLength++] = b;
+            } else {
+                nameLength = MAX_NAME + 1;
+            }
+        }
+
+        private boolean isStatement() {
+            return nameIs("Stmt") || nameIs("Ntfctn") || nameIs("Rpt");
+        }
+
+        private boolean nameIs(String candidate) {
+            if (nameLength != candidate.length()) {
+                return false;
+            }
+            for (int i = 0; i < nameLength; i++) {
+                if (name[i] != candidate.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isWhitespace(byte b) {
+            return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.reconix;
+
+// ===== CAMT STATEMENT READER =====
+// Pull-based StAX reader yielding ISO 20022 camt.052/053/054 entries one at a time
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Streams the {@code <Ntry>} elements of a camt.053 statement (also camt.052
+ * reports and camt.054 notifications) as {@link StatementEntry} records.
+ * Only the element path and the current entry's fields are held, so memory
+ * stays constant however many entries or statements the document has.
+ * Elements are matched by local name, so every schema version is read.
+ *
+ * <p>Per entry: the amount is signed by {@code CdtDbtInd}, the references
+ * and remittance come from the first {@code TxDtls}, unstructured
+ * remittance lines are joined (falling back to the structured creditor
+ * reference, then {@code AddtlNtryInf}), and the counterparty is the debtor
+ * of a credit or the creditor of a debit. Unreadable amounts and dates are
+ * left null and reported through {@link #errors()}.
+ *
+ * <p>The factory must come from {@link XmlParsingConfig}: the reader relies
+ * on it to refuse DTDs and external entities.
+ */
+public final class CamtStatementReader implements AutoCloseable {
+
+    private static final int MAX_DEPTH = 64;
+
+    private final XMLStreamReader reader;
+    private final int scale;
+    private final StatementEntry entry = new StatementEntry();
+    private final String[] path = new String[MAX_DEPTH + 1];
+    private final StringBuilder text = new StringBuilder();
+    private final StringBuilder remittance = new StringBuilder();
+    private final IngestionErrors errors = new IngestionErrors();
+    private int depth;
+    private int statementDepth = -1;
+    private int entryDepth = -1;
+    private int entries;
+
+    // Per-entry state resolved when the entry closes
+    private String amountText;
+    private boolean debit;
+    private int transactionDetails;
+    private String debtorName;
+    private String creditorName;
+    private String creditorReference;
+    private String additionalInfo;
+
+    public CamtStatementReader(XMLInputFactory factory, InputStream input, int scale) throws XMLStreamException {
+        this.reader = factory.createXMLStreamReader(input);
+        this.scale = scale;
+    }
+
+    /**
+     * Advances to the next entry and returns it, or {@code null} at the end
+     * of the document. The same instance is returned every time.
+     */
+    public StatementEntry next() throws XMLStreamException {
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    startElement();
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    if (endElement()) {
+                        return entry;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return null;
+    }
+
+    /** Entries returned so far. */
+    public int entries() {
+        return entries;
+    }
+
+    /** The first {@value IngestionErrors#MAX_REPORTED_ERRORS} problems, each naming its entry's ordinal. */
+    public List<String> errors() {
+        return errors.messages();
+    }
+
+    public long errorCount() {
+        return errors.count();
+    }
+
+    IngestionErrors errorLog() {
+        return errors;
+    }
+
+    @Override
+    public void close() throws XMLStreamException {
+        reader.close();
+    }
+
+    private void startElement() throws XMLStreamException {
+        if (++depth > MAX_DEPTH) {
+            throw new XMLStreamException("Element nesting deeper than " + MAX_DEPTH, reader.getLocation());
+        }
+        String name = reader.getLocalName();
+        path[depth] = name;
+        text.setLength(0);
+        if (statementDepth < 0) {
+            if (depth == 3 && isStatement(name)) {
+                statementDepth = depth;
+                entry.resetStatement();
+            }
+        } else if (entryDepth < 0) {
+            if (depth == statementDepth + 1 && name.equals("Ntry")) {
+                entryDepth = depth;
+                startEntry();
+            }
+        } else if (depth == entryDepth + 1 && name.equals("Amt")) {
+            entry.currency(reader.getAttributeValue(null, "Ccy"));
+        } else if (name.equals("TxDtls") && parent().equals("NtryDtls")) {
+            transactionDetails++;
+        }
+    }
+
+    /** Handles the closing element; true when it closed an entry. */
+    private boolean endElement() {
+        String name = path[depth];
+        boolean entryDone = false;
+        if (entryDepth >= 0) {
+            if (depth == entryDepth) {
+                finishEntry();
+                entryDepth = -1;
+                entryDone = true;
+            } else {
+                entryField(name);
+            }
+        } else if (statementDepth >= 0) {
+            if (depth == statementDepth) {
+                statementDepth = -1;
+            } else {
+                statementField(name);
+            }
+        }
+        text.setLength(0);
+        depth--;
+        return entryDone;
+    }
+
+    private void statementField(String name) {
+        int level = depth - statementDepth;
+        if (level == 1 && name.equals("Id")) {
+            entry.statementId(value());
+        } else if (level >= 3 && path[statementDepth + 1].equals("Acct") && path[statementDepth + 2].equals("Id")) {
+            // Acct/Id/IBAN, or Acct/Id/Othr/Id for non-IBAN accounts
+            if (name.equals("IBAN") || (name.equals("Id") && parent().equals("Othr") && entry.account() == null)) {
+                entry.account(value());
+            }
+        }
+    }
+
+    private void entryField(String name) {
+        int level = depth - entryDepth;
+        if (level == 1) {
+            switch (name) {
+                case "Amt":
+                    amountText = value();
+                    break;
+                case "CdtDbtInd":
+                    debit = value().equals("DBIT");
+                    break;
+                case "Sts":
+                    // camt.053.001.02 carries the code as text, later versions in Sts/Cd
+                    if (entry.status() == null) {
+                        entry.status(value());
+                    }
+                    break;
+                case "NtryRef":
+                    entry.entryReference(value());
+                    break;
+                case "AcctSvcrRef":
+                    entry.bankReference(value());
+                    break;
+                case "AddtlNtryInf":
+                    additionalInfo = value();
+                    break;
+                default:
+                    break;
+            }
+            return;
+        }
+        String parent = parent();
+        if (level == 2) {
+            if (parent.equals("Sts") && name.equals("Cd")) {
+                entry.status(value());
+            } else if (parent.equals("BookgDt") && (name.equals("Dt") || name.equals("DtTm"))) {
+                entry.bookingDate(date(value(), "booking date"));
+            } else if (parent.equals("ValDt") && (name.equals("Dt") || name.equals("DtTm"))) {
+                entry.valueDate(date(value(), "value date"));
+            }
+            return;
+        }
+        if (transactionDetails != 1) {
+            return;
+        }
+        switch (name) {
+            case "EndToEndId":
+                if (parent.equals("Refs") && entry.endToEndId() == null) {
+                    entry.endToEndId(value());
+                }
+                break;
+            case "Ustrd":
+                if (parent.equals("RmtInf")) {
+                    if (remittance.length() > 0) {
+                        remittance.append(' ');
+                    }
+                    remittance.append(value());
+                }
+                break;
+            case "Ref":
+                if (parent.equals("CdtrRefInf") && creditorReference == null) {
+                    creditorReference = value();
+                }
+                break;
+            case "Nm":
+                // RltdPties/Dbtr/Nm, or RltdPties/Dbtr/Pty/Nm from camt.053.001.08
+                String party = parent.equals("Pty") ? path[depth - 2] : parent;
+                if (party.equals("Dbtr") && debtorName == null) {
+                    debtorName = value();
+                } else if (party.equals("Cdtr") && creditorName == null) {
+                    creditorName = value();
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void startEntry() {
+        entry.resetEntry();
+        amountText = null;
+        debit = false;
+        transactionDetails = 0;
+        debtorName = null;
+        creditorName = null;
+        creditorReference = null;
+        additionalInfo = null;
+        remittance.setLength(0);
+    }
+
+    private void finishEntry() {
+        if (amountText != null) {
+            long amount = FieldValues.toMinorUnits(amountText, scale);
+            if (amount == FieldValues.NO_AMOUNT) {
+                error("invalid amount '" + amountText + "'");
+            } else {
+                entry.amount(debit ? -amount : amount);
+            }
+        }
+        entry.counterparty(debit ? creditorName : debtorName);
+        if (remittance.length() > 0) {
+            entry.remittanceInfo(remittance.toString());
+        } else {
+            entry.remittanceInfo(creditorReference != null ? creditorReference : additionalInfo);
+        }
+        entries++;
+    }
+
+    private int date(String value, String field) {
+        // DtTm values carry a time and offset; the booking day is the date part
+        String day = value.length() > 10 && value.charAt(10) == 'T' ? value.substring(0, 10) : value;
+        int epochDay = FieldValues.toEpochDay(day);
+        if (epochDay == FieldValues.NO_DATE) {
+            error("invalid " + field + " '" + value + "'");
+        }
+        return epochDay;
+    }
+
+    private void error(String message) {
+        errors.add(entries, message);
+    }
+
+    private String value() {
+        return text.toString().trim();
+    }
+
+    private String parent() {
+        return path[depth - 1];
+    }
+
+    private static boolean isStatement(String name) {
+        return name.equals("Stmt") || name.equals("Ntfctn") || name.equals("Rpt");
+    }
+}
@@ -0,0 +1,105 @@
+package com.reconix;
+
+// ===== CANDIDATE PAIR LISTS =====
+// Compressed sparse rows of target candidates per source record
+
+import java.util.Arrays;
+
+/**
+ * Candidate target ordinals grouped by source, stored as compressed sparse
+ * rows: the candidates of the i-th source are
+ * {@code targets[offsets[i] .. offsets[i + 1])}.
+ */
+public final class CandidatePairs {
+
+    private final int[] sourceOrdinals;
+    private final int[] offsets;
+    private final int[] targetOrdinals;
+
+    CandidatePairs(int[] sourceOrdinals, int[] offsets, int[] targetOrdinals) {
+        this.sourceOrdinals = sourceOrdinals;
+        this.offsets = offsets;
+        this.targetOrdinals = targetOrdinals;
+    }
+
+    /**
+     * Merges two candidate sets generated over the same source ordinals. Each
+     * source's merged candidates are distinct and in ascending target order.
+     */
+    public static CandidatePairs union(CandidatePairs first, CandidatePairs second) {
+        if (first.sourceOrdinals != second.sourceOrdinals && !Arrays.equals(first.sourceOrdinals, second.sourceOrdinals)) {
+            throw new IllegalArgumentException("Candidate sets cover different source records");
+        }
+        Builder builder = new Builder(first.sourceOrdinals);
+        int[] scratch = new int[16];
+        for (int i = 0; i < first.sourceCount(); i++) {
+            int firstCount = first.candidatesEnd(i) - first.candidatesStart(i);
+            int secondCount = second.candidatesEnd(i) - second.candidatesStart(i);
+            if (scratch.length < firstCount + secondCount) {
+                scratch = new int[firstCount + secondCount];
+            }
+            System.arraycopy(first.targetOrdinals, first.candidatesStart(i), scratch, 0, firstCount);
+            System.arraycopy(second.targetOrdinals, second.candidatesStart(i), scratch, firstCount, secondCount);
+            Arrays.sort(scratch, 0, firstCount + secondCount);
+            for (int k = 0; k < firstCount + secondCount; k++) {
+                if (k == 0 || scratch[k] != scratch[k - 1]) {
+                    builder.add(scratch[k]);
+                }
+            }
+            builder.endSource();
+        }
+        return builder.build();
+    }
+
+    public int sourceCount() {
+        return sourceOrdinals.length;
+    }
+
+    public int sourceOrdinal(int sourceIndex) {
+        return sourceOrdinals[sourceIndex];
+    }
+
+    public int candidatesStart(int sourceIndex) {
+        return offsets[sourceIndex];
+    }
+
+    public int candidatesEnd(int sourceIndex) {
+        return offsets[sourceIndex + 1];
+    }
+
+    public int targetOrdinal(int position) {
+        return targetOrdinals[position];
+    }
+
+    public long pairCount() {
+        return offsets[sourceOrdinals.length];
+    }
+
+    static final class Builder {
+        private final int[] sourceOrdinals;
+        private final int[] offsets;
+        private int[] targets = new int[64];
+        private int size;
+        private int sourceIndex;
+
+        Builder(int[] sourceOrdinals) {
+            this.sourceOrdinals = sourceOrdinals;
+            this.offsets = new int[sourceOrdinals.length + 1];
+        }
+
+        void add(int targetOrdinal) {
+            if (size == targets.length) {
+                targets = Arrays.copyOf(targets, size + (size >> 1) + 1);
+            }
+            targets[size++] = targetOrdinal;
+        }
+
+        void endSource() {
+            offsets[++sourceIndex] = size;
+        }
+
+        CandidatePairs build() {
+            return new CandidatePairs(sourceOrdinals, offsets, Arrays.copyOf(targets, size));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.reconix;
+
+// ===== COMPARATOR COMPILER =====
+// Compiles matchingFields configurations into cached comparator pipelines
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Turns a job's matching fields into a {@link ComparatorPipeline} for the
+ * column layout of its source and target batches. The cache key is the field
+ * list plus each field's column index, type and scale on both sides, so jobs
+ * that share a configuration and feed shape reuse one compiled pipeline.
+ * Fields named as counterparty fields compare on {@link CounterpartyNormalizer}
+ * keys when both columns hold strings.
+ */
+@Component
+public class ComparatorCompiler {
+
+    private static final int MAX_CACHED_PIPELINES = 1_000;
+
+    private final Cache<String, ComparatorPipeline> pipelines = Caffeine.newBuilder()
+        .maximumSize(MAX_CACHED_PIPELINES)
+        .build();
+    private final CounterpartyNormalizer counterpartyNormalizer;
+
+    public ComparatorCompiler(CounterpartyNormalizer counterpartyNormalizer) {
+        this.counterpartyNormalizer = counterpartyNormalizer;
+    }
+
+    public ComparatorPipeline compile(List<String> matchingFields, RecordBatch source, RecordBatch target) {
+        return compile(matchingFields, Set.of(), source, target);
+    }
+
+    public ComparatorPipeline compile(List<String> matchingFields, Collection<String> counterpartyFields,
+                                      RecordBatch source, RecordBatch target) {
+        Collection<String> counterparties = counterpartyFields == null ? Set.of() : counterpartyFields;
+        return pipelines.get(layoutKey(matchingFields, counterparties, source.schema(), target.schema()),
+            key -> doCompile(matchingFields, counterparties, source.schema(), target.schema()));
+    }
+
+    private ComparatorPipeline doCompile(List<String> matchingFields, Collection<String> counterpartyFields,
+                                         RecordSchema source, RecordSchema target) {
+        ComparatorPipeline.FieldComparator[] comparators = new ComparatorPipeline.FieldComparator[matchingFields.size()];
+        for (int f = 0; f < comparators.length; f++) {
+            String field = matchingFields.get(f);
+            int sourceColumn = source.columnIndex(field);
+            int targetColumn = target.columnIndex(field);
+            RecordSchema.ColumnType sourceType = sourceColumn < 0 ? null : source.type(sourceColumn);
+            RecordSchema.ColumnType targetType = targetColumn < 0 ? null : target.type(targetColumn);
+            if (sourceType != null && sourceType == targetType && sourceType == RecordSchema.ColumnType.STRING
+                    && counterpartyFields.contains(field)) {
+                comparators[f] = new ComparatorPipeline.CounterpartyComparator(sourceColumn, targetColumn,
+                    counterpartyNormalizer);
+            } else if (sourceType != null && sourceType == targetType && sourceType == RecordSchema.ColumnType.STRING) {
+                comparators[f] = new ComparatorPipeline.StringComparator(sourceColumn, targetColumn);
+            } else if (sourceType != null && sourceType == targetType && sourceType == RecordSchema.ColumnType.AMOUNT) {
+                comparators[f] = new ComparatorPipeline.AmountComparator(sourceColumn, targetColumn,
+                    Math.max(source.scale(sourceColumn), target.scale(targetColumn)));
+            } else if (sourceType != null && sourceType == targetType && sourceType == RecordSchema.ColumnType.DATE) {
+                comparators[f] = new ComparatorPipeline.DateComparator(sourceColumn, targetColumn);
+            } else {
+                comparators[f] = new ComparatorPipeline.ValueComparator(sourceColumn, targetColumn);
+            }
+        }
+        return new ComparatorPipeline(comparators);
+    }
+
+    private static String layoutKey(List<String> matchingFields, Collection<String> counterpartyFields,
+                                    RecordSchema source, RecordSchema target) {
+        StringBuilder key = new StringBuilder();
+        for (String field : matchingFields) {
+            key.append(field.length()).append(':').append(field);
+            if (counterpartyFields.contains(field)) {
+                key.append('~');
+            }
+            appendColumn(key, source, source.columnIndex(field));
+            appendColumn(key, target, target.columnIndex(field));
+        }
+        return key.toString();
+    }
+
+    private static void appendColumn(StringBuilder key, RecordSchema schema, int column) {
+        key.append('|').append(column);
+        if (column >= 0) {
+            key.append(schema.type(column).name().charAt(0)).append(schema.scale(column));
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.reconix;
+
+// ===== COUNTERPARTY NORMALIZER =====
+// Case-folded, suffix-stripped and phonetic keys for counterparty names, computed once per distinct string
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.apache.commons.codec.language.DoubleMetaphone;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Derives the comparison keys of a counterparty name: the name upper-cased
+ * with punctuation removed and trailing legal-form tokens ({@code LTD},
+ * {@code GMBH}, ...) stripped, and the Double Metaphone code of each
+ * remaining token. Keys are cached by raw string across jobs, and
+ * {@link #precompute} attaches them to a job's {@link StringDictionary} by
+ * code so that scoring a pair never recomputes or looks them up by string.
+ *
+ * <p>Cache size, hit ratio and evictions are published under the cache name
+ * {@code counterpartyNames}.
+ */
+@Component
+public class CounterpartyNormalizer {
+
+    private static final int MAX_CACHED_NAMES = 500_000;
+    private static final int PHONETIC_CODE_LENGTH = 6;
+
+    private static final Set<String> LEGAL_SUFFIXES = Set.of(
+        "LTD", "LIMITED", "INC", "INCORPORATED", "LLC", "LLP", "LP", "PLC", "CORP", "CORPORATION", "CO",
+        "COMPANY", "GMBH", "AG", "KG", "SA", "SAS", "SARL", "SPA", "SRL", "BV", "NV", "AB", "AS", "OY", "PTY");
+
+    private final DoubleMetaphone doubleMetaphone = new DoubleMetaphone();
+    private final Cache<String, NormalizedName> names;
+
+    public CounterpartyNormalizer(MeterRegistry meterRegistry) {
+        doubleMetaphone.setMaxCodeLen(PHONETIC_CODE_LENGTH);
+        this.names = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_NAMES)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, names, "counterpartyNames");
+    }
+
+    public NormalizedName normalize(String raw) {
+        return names.get(raw, this::compute);
+    }
+
+    /**
+     * Attaches keys for every distinct string in the given STRING columns to
+     * the batches' dictionary. Codes that already carry keys are skipped, so
+     * calling this again after the dictionary grows only normalizes new strings.
+     */
+    public void precompute(Collection<String> fields, RecordBatch... batches) {
+        if (fields == null || fields.isEmpty()) {
+            return;
+        }
+        for (RecordBatch batch : batches) {
+            StringDictionary dictionary = batch.dictionary();
+            for (String field : fields) {
+                int column = batch.schema().columnIndex(field);
+                if (column < 0 || batch.schema().type(column) != RecordSchema.ColumnType.STRING) {
+                    continue;
+                }
+                for (int ordinal = 0; ordinal < batch.size(); ordinal++) {
+                    int code = batch.stringCode(ordinal, column);
+                    if (code != StringDictionary.NO_CODE && dictionary.counterpartyName(code) == null) {
+                        dictionary.attachCounterpartyName(code, normalize(dictionary.decode(code)));
+                    }
+                }
+            }
+        }
+    }
+
+    private NormalizedName compute(String raw) {
+        String upper = raw.toUpperCase(Locale.ROOT);
+        StringBuilder cleaned = new StringBuilder(upper.length());
+        for (int i = 0; i < upper.length(); i++) {
+            char c = upper.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                cleaned.append(c);
+            } else if (c == '&') {
+                cleaned.append(" AND ");
+            } else if (c != '.' && c != '\'') {
+                // Dots and apostrophes join their neighbours (S.A. -> SA); other punctuation separates tokens
+                cleaned.append(' ');
+            }
+        }
+        String trimmed = cleaned.toString().trim();
+        if (trimmed.isEmpty()) {
+            return new NormalizedName("", "");
+        }
+        String[] tokens = trimmed.split("\\s+");
+        int end = tokens.length;
+        while (end > 1 && LEGAL_SUFFIXES.contains(tokens[end - 1])) {
+            end--;
+        }
+        List<String> phonetic = new ArrayList<>(end);
+        for (int t = 0; t < end; t++) {
+            String code = doubleMetaphone.doubleMetaphone(tokens[t]);
+            phonetic.add(code == null || code.isEmpty() ? tokens[t] : code);
+        }
+        return new NormalizedName(String.join(" ", List.of(tokens).subList(0, end)), String.join(" ", phonetic));
+    }
+
+    /** Comparison keys of one counterparty name. */
+    public static final class NormalizedName {
+        private final String normalized;
+        private final String phonetic;
+
+        NormalizedName(String normalized, String phonetic) {
+            this.normalized = normalized;
+            this.phonetic = phonetic;
+        }
+
+        public String normalized() {
+            return normalized;
+        }
+
+        /** Space-separated primary Double Metaphone codes of the normalized tokens. */
+        public String phonetic() {
+            return phonetic;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.reconix;
+
+// ===== DATASET INGESTOR =====
+// Resolves a job's dataset names to files and reads them into columnar batches
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a dataset from {@code reconix.ingestion.root}. The dataset name is a
+ * path relative to the tenant's own directory under the root, named by the
+ * tenant id; it must resolve, symbolic links included, to a file inside that
+ * directory. Its extension picks the reader:
+ * {@code .csv} and {@code .txt} are comma-separated, {@code .tsv} is
+ * tab-separated, and {@link CsvFormatDTO} overrides either. {@code .xml}
+ * is an ISO 20022 camt statement, and {@code .sta}, {@code .mt940},
+ * {@code .940}, {@code .mt942} and {@code .942} are SWIFT MT940/MT942 files
+ * in the {@link Mt940Dialect} the job names; both are streamed entry by
+ * entry into the {@link StatementEntry} columns. With no root configured,
+ * datasets are empty, as before file ingestion existed.
+ *
+ * <p>For delimited files, only the columns the job refers to are decoded:
+ * the amount and date fields as AMOUNT and DATE, and the matching,
+ * counterparty, blocking, similarity and grouping fields as strings,
+ * including per-pass overrides. A job that names no fields gets every
+ * column as a string.
+ *
+ * <p>Delimited files of at least two {@code chunkBytes} ranges, and camt
+ * files of at least {@link StatementFormatDTO#getParallelThresholdBytes()}
+ * when it is set, are parsed in parallel on the matching pool, within the
+ * tenant's matching parallelism; the duration and throughput of every range
+ * are published per job.
+ */
+@Component
+@Slf4j
+public class DatasetIngestor {
+
+    private static final int DEFAULT_AMOUNT_SCALE = 2;
+    private static final char DEFAULT_QUOTE = '"';
+    private static final long DEFAULT_CHUNK_BYTES = 64L * 1024 * 1024;
+
+    private final MeterRegistry meterRegistry;
+    private final ForkJoinPool reconciliationMatchingPool;
+    private final XMLInputFactory secureXmlInputFactory;
+    private final Path root;
+
+    public DatasetIngestor(MeterRegistry meterRegistry, ForkJoinPool reconciliationMatchingPool,
+                           XMLInputFactory secureXmlInputFactory,
+                           @Value("${reconix.ingestion.root:}") String root) {
+        this.meterRegistry = meterRegistry;
+        this.reconciliationMatchingPool = reconciliationMatchingPool;
+        this.secureXmlInputFactory = secureXmlInputFactory;
+        this.root = root == null || root.isBlank() ? null : Path.of(root).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Reads one side of a job into a batch on the job's shared dictionary.
+     * Validation messages are appended to {@code validationErrors}, prefixed
+     * with the dataset name.
+     */
+    public RecordBatch ingest(ReconciliationRequest request, String dataset, StringDictionary dictionary,
+                              List<String> validationErrors) {
+        if (root == null) {
+            return RecordBatch.from(List.of(), dictionary);
+        }
+        Path file = resolve(request.getTenantId(), dataset);
+        ReconciliationConfigurationDTO configuration = request.getConfiguration() != null
+            ? request.getConfiguration() : ReconciliationConfigurationDTO.builder().build();
+        String format = format(file);
+        int scale = configuration.getAmountScale() != null ? configuration.getAmountScale() : DEFAULT_AMOUNT_SCALE;
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            IngestionResult result;
+            if (format.equals("camt")) {
+                CamtFileReader camt = new CamtFileReader(secureXmlInputFactory, file, scale);
+                StatementFormatDTO statements = configuration.getStatementFormat();
+                result = statements != null && statements.getParallelThresholdBytes() != null
+                    && Files.size(file) >= statements.getParallelThresholdBytes()
+                    ? camt.read(dictionary, reconciliationMatchingPool,
+                        parseParallelism(request, statements.getParallelism()))
+                    : camt.read(dictionary);
+            } else if (format.equals("mt940")) {
+                StatementFormatDTO statements = configuration.getStatementFormat();
+                result = new Mt940StatementReader(file,
+                    Mt940Dialect.named(statements != null ? statements.getMt940Dialect() : null), scale).read(dictionary);
+            } else {
+                CsvFormatDTO csv = configuration.getCsvFormat() != null
+                    ? configuration.getCsvFormat() : CsvFormatDTO.builder().build();
+                result = csvReader(file, format, csv, configuration, scale).read(dictionary,
+                    reconciliationMatchingPool, parseParallelism(request, csv.getParallelism()),
+                    csv.getChunkBytes() != null ? csv.getChunkBytes() : DEFAULT_CHUNK_BYTES);
+            }
+            recordChunks(request, format, result.chunks());
+            List<String> errors = result.errors();
+            long errorCount = result.errorCount();
+            RecordBatch batch = result.batch();
+            for (String error : errors) {
+                validationErrors.add(dataset + ": " + error);
+            }
+            if (errorCount > errors.size()) {
+                validationErrors.add(dataset + ": " + (errorCount - errors.size()) + " more errors");
+            }
+            long nanos = sample.stop(Timer.builder("reconciliation.ingestion.duration")
+                .tag("environment", request.getEnvironment())
+                .tag("format", format)
+                .register(meterRegistry));
+            meterRegistry.counter("reconciliation.ingestion.bytes", "environment", request.getEnvironment(),
+                "format", format).increment(result.bytes());
+            meterRegistry.counter("reconciliation.ingestion.records", "environment", request.getEnvironment(),
+                "format", format).increment(batch.size());
+            log.info("Ingested {} records ({} bytes, {} errors) from {} in {} ms", batch.size(),
+                result.bytes(), errorCount, dataset, nanos / 1_000_000);
+            return batch;
+        } catch (IOException | XMLStreamException e) {
+            throw new ReconciliationException("Failed to ingest dataset " + dataset, e);
+        }
+    }
+
+    /** The dataset's real path inside the tenant's directory. */
+    private Path resolve(String tenantId, String dataset) {
+        Path tenantRoot = tenantId == null ? null : root.resolve(tenantId).normalize();
+        if (tenantRoot == null || !root.equals(tenantRoot.getParent())) {
+            throw new ValidationException("Tenant id " + tenantId + " does not name an ingestion directory");
+        }
+        Path file = tenantRoot.resolve(dataset).normalize();
+        if (!file.startsWith(tenantRoot)) {
+            throw new ValidationException("Dataset " + dataset + " is outside the tenant's ingestion directory");
+        }
+        if (!Files.isRegularFile(file)) {
+            throw new ValidationException("Dataset " + dataset + " not found");
+        }
+        try {
+            // Symbolic links are followed, so the check is repeated on the real paths
+            Path realFile = file.toRealPath();
+            if (!realFile.startsWith(tenantRoot.toRealPath())) {
+                throw new ValidationException("Dataset " + dataset + " is outside the tenant's ingestion directory");
+            }
+            return realFile;
+        } catch (IOException e) {
+            throw new ValidationException("Dataset " + dataset + " not found");
+        }
+    }
+
+    private static String format(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv") || name.endsWith(".txt")) {
+            return "csv";
+        }
+        if (name.endsWith(".tsv")) {
+            return "tsv";
+        }
+        if (name.endsWith(".xml")) {
+            return "camt";
+        }
+        if (name.endsWith(".sta") || name.endsWith(".mt940") || name.endsWith(".940")
+            || name.endsWith(".mt942") || name.endsWith(".942")) {
+            return "mt940";
+        }
+        throw new ValidationException("Unsupported dataset format: " + file.getFileName());
+    }
+
+    private MappedCsvReader csvReader(Path file, String format, CsvFormatDTO csv,
+                                     ReconciliationConfigurationDTO configuration, int scale) {
+        char delimiter = csv.getDelimiter() != null ? csv.getDelimiter() : format.equals("tsv") ? '\t' : ',';
+        return new MappedCsvReader(file, delimiter,
+            csv.getQuote() != null ? csv.getQuote() : DEFAULT_QUOTE,
+            csv.getHeader() == null || csv.getHeader(),
+            csv.getColumns(),
+            requiredFields(configuration),
+            scale);
+    }
+
+    private int parseParallelism(ReconciliationRequest request, Integer requested) {
+        int parallelism = reconciliationMatchingPool.getParallelism();
+        SecureTenantContext.ResourceLimits limits = request.getResourceLimits();
+        if (limits != null && limits.getMatchingParallelism() > 0) {
+            parallelism = Math.min(parallelism, limits.getMatchingParallelism());
+        }
+        return requested != null ? Math.min(parallelism, requested) : parallelism;
+    }
+
+    /** Publishes each parsed range's duration and throughput, so skewed or slow ranges show up per job. */
+    private void recordChunks(ReconciliationRequest request, String format, List<IngestionResult.ChunkStatistics> chunks) {
+        Timer duration = Timer.builder("reconciliation.ingestion.chunk.duration")
+            .tag("environment", request.getEnvironment())
+            .tag("format", format)
+            .register(meterRegistry);
+        DistributionSummary throughput = DistributionSummary.builder("reconciliation.ingestion.chunk.throughput")
+            .baseUnit("bytes/s")
+            .tag("environment", request.getEnvironment())
+            .tag("format", format)
+            .register(meterRegistry);
+        for (IngestionResult.ChunkStatistics chunk : chunks) {
+            duration.record(chunk.nanos(), TimeUnit.NANOSECONDS);
+            throughput.record(chunk.bytesPerSecond());
+            log.debug("Chunk {} of {}: {} bytes, {} records in {} ms", chunk.index(), request.getRequestId(),
+                chunk.bytes(), chunk.records(), chunk.nanos() / 1_000_000);
+        }
+    }
+
+    /** Fields the job reads, typed by how the matchers use them; empty when the job names none. */
+    static Map<String, RecordSchema.ColumnType> requiredFields(ReconciliationConfigurationDTO configuration) {
+        Map<String, RecordSchema.ColumnType> fields = new LinkedHashMap<>();
+        addStrings(fields, configuration.getMatchingFields());
+        addStrings(fields, configuration.getCounterpartyFields());
+        addBlockingKeys(fields, configuration.getBlockingKeys());
+        addSimilarityIndex(fields, configuration.getSimilarityIndex());
+        addAggregate(fields, configuration.getAggregateMatching());
+        addTyped(fields, configuration.getAmountField(), RecordSchema.ColumnType.AMOUNT);
+        addTyped(fields, configuration.getDateField(), RecordSchema.ColumnType.DATE);
+        if (configuration.getPasses() != null) {
+            for (ReconciliationPassDTO pass : configuration.getPasses()) {
+                addStrings(fields, pass.getMatchingFields());
+                addStrings(fields, pass.getCounterpartyFields());
+                addBlockingKeys(fields, pass.getBlockingKeys());
+                addSimilarityIndex(fields, pass.getSimilarityIndex());
+                addAggregate(fields, pass.getAggregateMatching());
+                addTyped(fields, pass.getAmountField(), RecordSchema.ColumnType.AMOUNT);
+                addTyped(fields, pass.getDateField(), RecordSchema.ColumnType.DATE);
+            }
+        }
+        return fields;
+    }
+
+    private static void addStrings(Map<String, RecordSchema.ColumnType> fields, Collection<String> names) {
+        if (names != null) {
+            for (String name : names) {
+                fields.putIfAbsent(name, RecordSchema.ColumnType.STRING);
+            }
+        }
+    }
+
+    private static void addTyped(Map<String, RecordSchema.ColumnType> fields, String name, RecordSchema.ColumnType type) {
+        if (name != null) {
+            fields.put(name, type);
+        }
+    }
+
+    private static void addBlockingKeys(Map<String, RecordSchema.ColumnType> fields, List<BlockingKeyDTO> keys) {
+        if (keys != null) {
+            for (BlockingKeyDTO key : keys) {
+                addStrings(fields, key.getFields());
+                addTyped(fields, key.getAmountField(), RecordSchema.ColumnType.AMOUNT);
+                addTyped(fields, key.getDateField(), RecordSchema.ColumnType.DATE);
+            }
+        }
+    }
+
+    private static void addSimilarityIndex(Map<String, RecordSchema.ColumnType> fields, SimilarityIndexDTO index) {
+        if (index != null) {
+            addStrings(fields, index.getFields());
+        }
+    }
+
+    private static void addAggregate(Map<String, RecordSchema.ColumnType> fields, AggregateMatchingDTO aggregate) {
+        if (aggregate != null) {
+            addStrings(fields, aggregate.getGroupByFields());
+        }
+    }
+}
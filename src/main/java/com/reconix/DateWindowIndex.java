@@ -0,0 +1,125 @@
+package com.reconix;
+
+// ===== DATE WINDOW INDEX =====
+// Epoch-day buckets of target records for value-date window lookups
+
+import java.util.Arrays;
+
+/**
+ * Buckets target records by (key group, epoch day). Each bucket is a
+ * contiguous, ordinal-ordered slice of the position arrays, and an open-addressed primitive table maps each
+ * packed (group, day) to its bucket's position range, so a window lookup
+ * touches only the buckets for the days inside the window.
+ */
+public final class DateWindowIndex {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final KeyGroups groups;
+    private final int[] ordinals;
+    private final int[] days;
+    private final long[] bucketKeys;
+    private final int[] bucketStart;
+    private final int[] bucketEnd;
+    private final int mask;
+
+    private DateWindowIndex(KeyGroups groups, int[] ordinals, int[] days) {
+        this.groups = groups;
+        this.ordinals = ordinals;
+        this.days = days;
+        int capacity = Integer.highestOneBit(Math.max(4, ordinals.length * 2 - 1)) << 1;
+        this.mask = capacity - 1;
+        this.bucketKeys = new long[capacity];
+        this.bucketStart = new int[capacity];
+        this.bucketEnd = new int[capacity];
+        Arrays.fill(bucketKeys, EMPTY);
+    }
+
+    public static DateWindowIndex build(RecordSet target, int[] targetOrdinals, KeyGroups groups, String dateField) {
+        int count = 0;
+        long[] sortKeys = new long[targetOrdinals.length];
+        int[] sortOrdinals = new int[targetOrdinals.length];
+        for (int ordinal : targetOrdinals) {
+            int day = target.epochDay(ordinal, dateField);
+            if (day == FieldValues.NO_DATE) {
+                continue;
+            }
+            int group = groups.assign(target, ordinal);
+            if (group == KeyGroups.NO_GROUP) {
+                continue;
+            }
+            sortKeys[count] = pack(group, day);
+            sortOrdinals[count] = ordinal;
+            count++;
+        }
+        PrimitiveSort.sort(sortKeys, sortOrdinals, 0, count - 1);
+
+        int[] ordinals = Arrays.copyOf(sortOrdinals, count);
+        int[] days = new int[count];
+        DateWindowIndex index = new DateWindowIndex(groups, ordinals, days);
+        for (int start = 0; start < count; ) {
+            int end = start + 1;
+            while (end < count && sortKeys[end] == sortKeys[start]) {
+                end++;
+            }
+            for (int p = start; p < end; p++) {
+                days[p] = (int) sortKeys[p];
+            }
+            index.putBucket(sortKeys[start], start, end);
+            start = end;
+        }
+        return index;
+    }
+
+    public KeyGroups groups() {
+        return groups;
+    }
+
+    /** Start of the day's bucket in the group, or -1 if the bucket is empty; see {@link #bucketEnd(int, int)}. */
+    public int bucketStart(int group, int day) {
+        int slot = find(pack(group, day));
+        return slot < 0 ? -1 : bucketStart[slot];
+    }
+
+    public int bucketEnd(int group, int day) {
+        int slot = find(pack(group, day));
+        return slot < 0 ? -1 : bucketEnd[slot];
+    }
+
+    public int ordinalAt(int position) {
+        return ordinals[position];
+    }
+
+    public int dayAt(int position) {
+        return days[position];
+    }
+
+    private void putBucket(long key, int start, int end) {
+        int slot = slotFor(key);
+        while (bucketKeys[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        bucketKeys[slot] = key;
+        bucketStart[slot] = start;
+        bucketEnd[slot] = end;
+    }
+
+    private int find(long key) {
+        for (int slot = slotFor(key); bucketKeys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (bucketKeys[slot] == key) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private int slotFor(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /** Group in the high word, day in the low word. */
+    private static long pack(int group, int day) {
+        return ((long) group << 32) | (day & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,268 @@
+package com.reconix;
+
+// ===== EDIT DISTANCE KERNEL =====
+// Bit-parallel Levenshtein / Damerau (OSA) distance with threshold early exit
+
+import java.util.Arrays;
+
+/**
+ * Bounded edit distance for the fuzzy phase. When the shorter string fits in
+ * one machine word (up to 64 chars) the Myers/Hyyrö bit-parallel recurrence
+ * processes a whole DP column per character; longer strings fall back to a
+ * DP restricted to the diagonal band {@code |i - j| <= maxDistance}.
+ *
+ * <p>Both paths stop as soon as the distance provably exceeds
+ * {@code maxDistance} and then report {@code maxDistance + 1}. All working
+ * memory lives in per-thread scratch buffers, so a comparison does not
+ * allocate once the buffers have grown to the longest input seen.
+ */
+public final class EditDistanceKernel {
+
+    private static final int WORD_SIZE = 64;
+    private static final int DIRECT_MASK_RANGE = 256;
+    private static final int EXTENDED_SLOTS = 128;
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private EditDistanceKernel() {
+    }
+
+    /** Levenshtein distance, or {@code maxDistance + 1} if it exceeds {@code maxDistance}. */
+    public static int levenshtein(CharSequence a, CharSequence b, int maxDistance) {
+        return distance(a, b, maxDistance, false);
+    }
+
+    /**
+     * Optimal string alignment distance (Levenshtein plus adjacent
+     * transpositions), or {@code maxDistance + 1} if it exceeds {@code maxDistance}.
+     */
+    public static int damerau(CharSequence a, CharSequence b, int maxDistance) {
+        return distance(a, b, maxDistance, true);
+    }
+
+    private static int distance(CharSequence a, CharSequence b, int maxDistance, boolean transpositions) {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("maxDistance must not be negative");
+        }
+        // The distance is symmetric; use the shorter string as the pattern
+        CharSequence pattern = a.length() <= b.length() ? a : b;
+        CharSequence text = pattern == a ? b : a;
+        int m = pattern.length();
+        int n = text.length();
+        if (n - m > maxDistance) {
+            return maxDistance + 1;
+        }
+        if (m == 0) {
+            return n;
+        }
+        if (maxDistance == 0) {
+            return contentEquals(pattern, text) ? 0 : 1;
+        }
+        Scratch scratch = SCRATCH.get();
+        if (m <= WORD_SIZE) {
+            scratch.loadPattern(pattern);
+            try {
+                return transpositions
+                    ? bitParallelOsa(scratch, m, text, maxDistance)
+                    : bitParallelLevenshtein(scratch, m, text, maxDistance);
+            } finally {
+                scratch.clearPattern(pattern);
+            }
+        }
+        return bandedDistance(scratch, pattern, text, maxDistance, transpositions);
+    }
+
+    private static int bitParallelLevenshtein(Scratch scratch, int m, CharSequence text, int maxDistance) {
+        int n = text.length();
+        long vp = m == WORD_SIZE ? -1L : (1L << m) - 1;
+        long vn = 0;
+        long last = 1L << (m - 1);
+        int distance = m;
+        for (int j = 0; j < n; j++) {
+            long pm = scratch.mask(text.charAt(j));
+            long x = pm | vn;
+            long d0 = (((x & vp) + vp) ^ vp) | x;
+            long hp = vn | ~(d0 | vp);
+            long hn = vp & d0;
+            if ((hp & last) != 0) {
+                distance++;
+            } else if ((hn & last) != 0) {
+                distance--;
+            }
+            // Each remaining text char can lower the final distance by at most one
+            if (distance - (n - j - 1) > maxDistance) {
+                return maxDistance + 1;
+            }
+            hp = (hp << 1) | 1;
+            hn = hn << 1;
+            vp = hn | ~(d0 | hp);
+            vn = hp & d0;
+        }
+        return distance > maxDistance ? maxDistance + 1 : distance;
+    }
+
+    private static int bitParallelOsa(Scratch scratch, int m, CharSequence text, int maxDistance) {
+        int n = text.length();
+        long vp = m == WORD_SIZE ? -1L : (1L << m) - 1;
+        long vn = 0;
+        long d0 = 0;
+        long previousPm = 0;
+        long last = 1L << (m - 1);
+        int distance = m;
+        for (int j = 0; j < n; j++) {
+            long pm = scratch.mask(text.charAt(j));
+            long transposed = (((~d0) & pm) << 1) & previousPm;
+            d0 = ((((pm & vp) + vp) ^ vp) | pm | vn) | transposed;
+            long hp = vn | ~(d0 | vp);
+            long hn = d0 & vp;
+            if ((hp & last) != 0) {
+                distance++;
+            } else if ((hn & last) != 0) {
+                distance--;
+            }
+            if (distance - (n - j - 1) > maxDistance) {
+                return maxDistance + 1;
+            }
+            hp = (hp << 1) | 1;
+            hn = hn << 1;
+            vp = hn | ~(d0 | hp);
+            vn = hp & d0;
+            previousPm = pm;
+        }
+        return distance > maxDistance ? maxDistance + 1 : distance;
+    }
+
+    /**
+     * Ukkonen-banded DP: only cells within {@code maxDistance} of the diagonal
+     * can hold a value {@code <= maxDistance}, so each row costs O(maxDistance).
+     */
+    private static int bandedDistance(Scratch scratch, CharSequence a, CharSequence b,
+                                      int maxDistance, boolean transpositions) {
+        int m = a.length();
+        int n = b.length();
+        int limit = maxDistance + 1;
+        int[][] rows = scratch.rows(n + 2);
+        int[] beforePrevious = rows[0];
+        int[] previous = rows[1];
+        int[] current = rows[2];
+
+        int firstHi = Math.min(n, maxDistance);
+        for (int j = 0; j <= firstHi; j++) {
+            previous[j] = j;
+        }
+        previous[firstHi + 1] = limit;
+
+        for (int i = 1; i <= m; i++) {
+            int lo = Math.max(1, i - maxDistance);
+            int hi = Math.min(n, i + maxDistance);
+            current[lo - 1] = lo == 1 && i <= maxDistance ? i : limit;
+            int rowMin = current[lo - 1];
+            char ac = a.charAt(i - 1);
+            for (int j = lo; j <= hi; j++) {
+                char bc = b.charAt(j - 1);
+                int value = previous[j - 1] + (ac == bc ? 0 : 1);
+                value = Math.min(value, previous[j] + 1);
+                value = Math.min(value, current[j - 1] + 1);
+                if (transpositions && i > 1 && j > 1 && ac == b.charAt(j - 2) && a.charAt(i - 2) == bc) {
+                    value = Math.min(value, beforePrevious[j - 2] + 1);
+                }
+                value = Math.min(value, limit);
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (hi < n) {
+                current[hi + 1] = limit;
+            }
+            if (rowMin >= limit) {
+                return limit;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[n], limit);
+    }
+
+    private static boolean contentEquals(CharSequence a, CharSequence b) {
+        if (a.length() != b.length()) {
+            return false;
+        }
+        for (int i = 0; i < a.length(); i++) {
+            if (a.charAt(i) != b.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Per-thread match-mask table and DP rows. Latin-1 chars index a direct
+     * table; anything else goes to a small open-addressed table, which can
+     * never fill since a pattern has at most 64 distinct chars.
+     */
+    private static final class Scratch {
+        private final long[] directMasks = new long[DIRECT_MASK_RANGE];
+        private final char[] extendedKeys = new char[EXTENDED_SLOTS];
+        private final long[] extendedMasks = new long[EXTENDED_SLOTS];
+        private final int[][] rows = new int[3][0];
+
+        private boolean extendedInUse;
+
+        private void loadPattern(CharSequence pattern) {
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if (c < DIRECT_MASK_RANGE) {
+                    directMasks[c] |= 1L << i;
+                } else {
+                    int slot = slot(c);
+                    extendedKeys[slot] = c;
+                    extendedMasks[slot] |= 1L << i;
+                    extendedInUse = true;
+                }
+            }
+        }
+
+        private void clearPattern(CharSequence pattern) {
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if (c < DIRECT_MASK_RANGE) {
+                    directMasks[c] = 0;
+                }
+            }
+            // Clearing probed slots one by one could break other probe chains
+            if (extendedInUse) {
+                Arrays.fill(extendedKeys, (char) 0);
+                Arrays.fill(extendedMasks, 0L);
+                extendedInUse = false;
+            }
+        }
+
+        private long mask(char c) {
+            if (c < DIRECT_MASK_RANGE) {
+                return directMasks[c];
+            }
+            int slot = slot(c);
+            return extendedKeys[slot] == c ? extendedMasks[slot] : 0L;
+        }
+
+        /** Linear probing; key 0 (NUL) is below the extended range, so it marks an empty slot. */
+        private int slot(char c) {
+            int slot = (c * 0x9E37) & (EXTENDED_SLOTS - 1);
+            while (extendedKeys[slot] != 0 && extendedKeys[slot] != c) {
+                slot = (slot + 1) & (EXTENDED_SLOTS - 1);
+            }
+            return slot;
+        }
+
+        private int[][] rows(int length) {
+            if (rows[0].length < length) {
+                int capacity = Math.max(length, rows[0].length * 2);
+                for (int r = 0; r < rows.length; r++) {
+                    rows[r] = new int[capacity];
+                }
+            }
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.reconix;
+
+// ===== EXTERNAL SORT-MERGE MATCHER =====
+// Exact matching with a bounded key buffer, for key tables that do not fit in the heap
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+/**
+ * Sorts both sides by encoded match key with an external merge sort and
+ * merge-joins the two sorted streams. Only one run buffer of sort keys is
+ * ever held in memory; sorted runs are spilled to a private temp directory
+ * that is removed when matching completes. Within a key, entries are ordered
+ * by ordinal, so pairing is identical to {@link HashJoinMatcher}.
+ *
+ * <p>Only the keys are bounded: the two batches being matched and the
+ * resulting pairs stay on the heap, so this replaces the hash join's key
+ * table, not the need for the records themselves to fit.
+ *
+ * <p>The target side is sorted first while filling a {@link BlockedBloomFilter}
+ * over its keys; source records whose key misses the filter have no exact
+ * counterpart and are dropped before they are buffered, spilled or merged.
+ */
+@Slf4j
+public final class ExternalSortMergeMatcher {
+
+    /** Approximate fixed heap cost of one buffered entry beyond its key chars. */
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+
+    private static final Comparator<SortEntry> ENTRY_ORDER = Comparator
+        .comparing((SortEntry entry) -> entry.key)
+        .thenComparingInt(entry -> entry.ordinal);
+
+    private final Path tempRoot;
+    private final long runBufferBytes;
+    private final int mergeFanIn;
+    private long prefilterRejections;
+
+    public ExternalSortMergeMatcher(Path tempRoot, long runBufferBytes, int mergeFanIn) {
+        if (runBufferBytes <= 0) {
+            throw new IllegalArgumentException("runBufferBytes must be positive");
+        }
+        if (mergeFanIn < 2) {
+            throw new IllegalArgumentException("mergeFanIn must be at least 2");
+        }
+        this.tempRoot = tempRoot;
+        this.runBufferBytes = runBufferBytes;
+        this.mergeFanIn = mergeFanIn;
+    }
+
+    public MatchPairs match(RecordSet source, RecordSet target, List<String> matchingFields) {
+        return match(source, HashJoinMatcher.allOrdinals(source.size()), target,
+            HashJoinMatcher.allOrdinals(target.size()), matchingFields);
+    }
+
+    /** Joins only the given ordinals. */
+    public MatchPairs match(RecordSet source, int[] sourceOrdinals, RecordSet target, int[] targetOrdinals,
+                            List<String> matchingFields) {
+        Path workDir = null;
+        prefilterRejections = 0;
+        try {
+            workDir = Files.createTempDirectory(tempRoot, "reconix-sortmerge-");
+            BlockedBloomFilter targetKeys = BlockedBloomFilter.withExpectedKeys(targetOrdinals.length);
+            Path sortedTarget = sort(target, targetOrdinals, matchingFields, workDir, "target", targetKeys, null);
+            Path sortedSource = sort(source, sourceOrdinals, matchingFields, workDir, "source", null, targetKeys);
+            return mergeJoin(sortedSource, sortedTarget);
+        } catch (IOException e) {
+            throw new ReconciliationException("External sort-merge matching failed", e);
+        } finally {
+            deleteQuietly(workDir);
+        }
+    }
+
+    /** Source records skipped by the target-key prefilter in the last {@link #match}. */
+    public long prefilterRejections() {
+        return prefilterRejections;
+    }
+
+    /**
+     * @param collect filter to add every key to, or {@code null}
+     * @param require filter a key must hit to be sorted, or {@code null}
+     */
+    private Path sort(RecordSet records, int[] ordinals, List<String> matchingFields, Path workDir, String side,
+                      BlockedBloomFilter collect, BlockedBloomFilter require) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        List<SortEntry> buffer = new ArrayList<>();
+        long bufferedBytes = 0;
+
+        for (int ordinal : ordinals) {
+            MatchKey key = MatchKey.of(records, ordinal, matchingFields);
+            if (key == null) {
+                continue;
+            }
+            if (collect != null) {
+                collect.put(key.fingerprint());
+            }
+            if (require != null && !require.mightContain(key.fingerprint())) {
+                prefilterRejections++;
+                continue;
+            }
+            SortEntry entry = new SortEntry(key.encode(), ordinal);
+            buffer.add(entry);
+            bufferedBytes += ENTRY_OVERHEAD_BYTES + 2L * entry.key.length();
+            if (bufferedBytes >= runBufferBytes) {
+                runs.add(spillRun(buffer, workDir, side, runs.size()));
+                buffer.clear();
+                bufferedBytes = 0;
+            }
+        }
+        if (!buffer.isEmpty() || runs.isEmpty()) {
+            runs.add(spillRun(buffer, workDir, side, runs.size()));
+        }
+
+        int generation = 0;
+        while (runs.size() > 1) {
+            List<Path> merged = new ArrayList<>();
+            for (int from = 0; from < runs.size(); from += mergeFanIn) {
+                List<Path> group = runs.subList(from, Math.min(from + mergeFanIn, runs.size()));
+                merged.add(mergeRuns(group, workDir.resolve(side + "-g" + generation + "-" + merged.size() + ".run")));
+            }
+            runs = merged;
+            generation++;
+        }
+        log.debug("Sorted {} {} records by match key in {} merge generation(s)", ordinals.length, side, generation);
+        return runs.get(0);
+    }
+
+    private Path spillRun(List<SortEntry> buffer, Path workDir, String side, int index) throws IOException {
+        buffer.sort(ENTRY_ORDER);
+        Path run = workDir.resolve(side + "-r" + index + ".run");
+        try (DataOutputStream out = openOutput(run)) {
+            for (SortEntry entry : buffer) {
+                write(out, entry);
+            }
+        }
+        return run;
+    }
+
+    private Path mergeRuns(List<Path> runs, Path output) throws IOException {
+        if (runs.size() == 1) {
+            return runs.get(0);
+        }
+        PriorityQueue<RunReader> heap = new PriorityQueue<>(runs.size(),
+            (a, b) -> ENTRY_ORDER.compare(a.current, b.current));
+        try (DataOutputStream out = openOutput(output)) {
+            for (Path run : runs) {
+                RunReader reader = new RunReader(run);
+                if (reader.advance()) {
+                    heap.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+            while (!heap.isEmpty()) {
+                RunReader reader = heap.poll();
+                write(out, reader.current);
+                if (reader.advance()) {
+                    heap.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+        } finally {
+            for (RunReader reader : heap) {
+                reader.close();
+            }
+        }
+        for (Path run : runs) {
+            Files.deleteIfExists(run);
+        }
+        return output;
+    }
+
+    private MatchPairs mergeJoin(Path sortedSource, Path sortedTarget) throws IOException {
+        MatchPairs pairs = new MatchPairs();
+        try (RunReader source = new RunReader(sortedSource); RunReader target = new RunReader(sortedTarget)) {
+            boolean hasSource = source.advance();
+            boolean hasTarget = target.advance();
+            while (hasSource && hasTarget) {
+                int cmp = source.current.key.compareTo(target.current.key);
+                if (cmp < 0) {
+                    hasSource = source.advance();
+                } else if (cmp > 0) {
+                    hasTarget = target.advance();
+                } else {
+                    pairs.add(source.current.ordinal, target.current.ordinal);
+                    hasSource = source.advance();
+                    hasTarget = target.advance();
+                }
+            }
+        }
+        return pairs;
+    }
+
+    private static DataOutputStream openOutput(Path path) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+    }
+
+    private static void write(DataOutputStream out, SortEntry entry) throws IOException {
+        byte[] key = entry.key.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(key.length);
+        out.write(key);
+        out.writeInt(entry.ordinal);
+    }
+
+    private static void deleteQuietly(Path workDir) {
+        if (workDir == null) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(workDir)) {
+            files.forEach(file -> file.toFile().delete());
+            Files.deleteIfExists(workDir);
+        } catch (IOException e) {
+            log.warn("Failed to clean up sort-merge work directory {}", workDir, e);
+        }
+    }
+
+    private static final class SortEntry {
+        private final String key;
+        private final int ordinal;
+
+        private SortEntry(String key, int ordinal) {
+            this.key = key;
+            this.ordinal = ordinal;
+        }
+    }
+
+    private static final class RunReader implements AutoCloseable {
+        private final DataInputStream in;
+        private SortEntry current;
+
+        private RunReader(Path run) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), 1 << 16));
+        }
+
+        private boolean advance() throws IOException {
+            int length;
+            try {
+                length = in.readInt();
+            } catch (EOFException e) {
+                current = null;
+                return false;
+            }
+            byte[] key = new byte[length];
+            in.readFully(key);
+            current = new SortEntry(new String(key, StandardCharsets.UTF_8), in.readInt());
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
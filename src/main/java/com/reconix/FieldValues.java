@@ -0,0 +1,118 @@
+package com.reconix;
+
+// ===== FIELD VALUE COERCION =====
+// Lenient conversion of raw record values into typed matching inputs
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * Converts record values as ingested (strings, numbers, java.time types) into
+ * the typed forms the matching passes compare on. Unparseable values are
+ * treated as missing rather than failing the whole job.
+ */
+public final class FieldValues {
+
+    public static final int NO_DATE = Integer.MIN_VALUE;
+    public static final long NO_AMOUNT = Long.MIN_VALUE;
+
+    private FieldValues() {
+    }
+
+    /** @return the value as a decimal, or {@code null} when absent, unparseable, NaN or infinite */
+    public static BigDecimal toDecimal(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        if ((value instanceof Double || value instanceof Float) && !Double.isFinite(((Number) value).doubleValue())) {
+            return null;
+        }
+        if (value instanceof Number) {
+            return new BigDecimal(value.toString());
+        }
+        String text = value.toString().trim();
+        if (text.isEmpty()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the amount in minor units at the given scale (e.g. cents for
+     *         scale 2), or {@link #NO_AMOUNT} when absent or out of range
+     */
+    public static long toMinorUnits(Object value, int scale) {
+        BigDecimal amount = toDecimal(value);
+        if (amount == null) {
+            return NO_AMOUNT;
+        }
+        try {
+            long minorUnits = amount.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            return minorUnits == NO_AMOUNT ? NO_AMOUNT : minorUnits;
+        } catch (ArithmeticException e) {
+            return NO_AMOUNT;
+        }
+    }
+
+    /**
+     * @return the value as an epoch day, or {@link #NO_DATE} when absent or unparseable
+     */
+    public static int toEpochDay(Object value) {
+        if (value == null) {
+            return NO_DATE;
+        }
+        if (value instanceof LocalDate) {
+            return (int) ((LocalDate) value).toEpochDay();
+        }
+        if (value instanceof LocalDateTime) {
+            return (int) ((LocalDateTime) value).toLocalDate().toEpochDay();
+        }
+        if (value instanceof OffsetDateTime) {
+            return (int) ((OffsetDateTime) value).toLocalDate().toEpochDay();
+        }
+        if (value instanceof ZonedDateTime) {
+            return (int) ((ZonedDateTime) value).toLocalDate().toEpochDay();
+        }
+        String text = value.toString().trim();
+        if (text.length() < 10) {
+            return NO_DATE;
+        }
+        try {
+            return (int) LocalDate.parse(text.substring(0, 10)).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return NO_DATE;
+        }
+    }
+
+    /**
+     * Upper-cases and strips everything but letters and digits, so references
+     * like {@code "inv-0042 "} and {@code "INV0042"} normalize identically.
+     */
+    public static String normalizeReference(Object value) {
+        if (value == null) {
+            return null;
+        }
+        String text = value.toString();
+        StringBuilder normalized = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(c);
+            }
+        }
+        return normalized.length() == 0 ? null : normalized.toString().toUpperCase(Locale.ROOT);
+    }
+}
@@ -1,3 +1,4 @@
+package com.reconix;
 
 // ===== ENHANCED ENTERPRISE FINANCIAL DATA INGESTION PLATFORM =====
 // Production-Hardened Implementation with Advanced Security, Caching, and Validation
@@ -98,6 +99,7 @@ public class SecureTenantContext implements AutoCloseable {
         private long maxDataSizePerRequest;
         private long maxMemoryUsage;
         private Duration maxProcessingTime;
+        private int matchingParallelism; // 0 = matching pool parallelism
     }
     
     @Override
@@ -0,0 +1,187 @@
+package com.reconix;
+
+// ===== FUZZY MATCH SCORING =====
+// Field-level similarity scoring and greedy acceptance of blocked candidates
+
+import java.math.BigDecimal;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Scores candidate pairs as the mean per-field similarity over the job's
+ * matching fields. Strings are compared by normalized Damerau (OSA) edit
+ * distance; other values must be equal. Each source takes its best-scoring candidate at or
+ * above the threshold that no earlier source has claimed.
+ */
+public final class FuzzyMatchScorer {
+
+    private static final double DEFICIT_EPSILON = 1e-9;
+
+    private final List<String> matchingFields;
+    private final double threshold;
+    private final ScoringCascade cascade;
+
+    public FuzzyMatchScorer(List<String> matchingFields, double threshold) {
+        this(matchingFields, threshold, null);
+    }
+
+    /**
+     * @param cascade optional compiled, cost-ordered form of {@code matchingFields};
+     *                it must have been compiled for the batches this scorer is given
+     */
+    public FuzzyMatchScorer(List<String> matchingFields, double threshold, ScoringCascade cascade) {
+        this.matchingFields = matchingFields;
+        this.threshold = threshold;
+        this.cascade = cascade;
+    }
+
+    public MatchPairs match(RecordSet source, RecordSet target, CandidatePairs candidates) {
+        MatchPairs pairs = new MatchPairs();
+        BitSet claimedTargets = new BitSet(target.size());
+        for (int i = 0; i < candidates.sourceCount(); i++) {
+            int sourceOrdinal = candidates.sourceOrdinal(i);
+            int bestTarget = -1;
+            double bestScore = threshold;
+            for (int p = candidates.candidatesStart(i); p < candidates.candidatesEnd(i); p++) {
+                int targetOrdinal = candidates.targetOrdinal(p);
+                if (claimedTargets.get(targetOrdinal)) {
+                    continue;
+                }
+                // Once a candidate is held, later ones only matter if they beat it
+                double score = score(source, sourceOrdinal, target, targetOrdinal, bestScore);
+                if (score >= 0 && (bestTarget < 0 || score > bestScore)) {
+                    bestScore = score;
+                    bestTarget = targetOrdinal;
+                }
+            }
+            if (bestTarget >= 0) {
+                claimedTargets.set(bestTarget);
+                pairs.add(sourceOrdinal, bestTarget, bestScore);
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * Scores every candidate pair against the threshold without claiming
+     * targets, leaving the choice between contested pairs to {@link AssignmentSolver}.
+     */
+    public MatchPairs scoreAll(RecordSet source, RecordSet target, CandidatePairs candidates) {
+        MatchPairs scored = new MatchPairs();
+        for (int i = 0; i < candidates.sourceCount(); i++) {
+            int sourceOrdinal = candidates.sourceOrdinal(i);
+            for (int p = candidates.candidatesStart(i); p < candidates.candidatesEnd(i); p++) {
+                int targetOrdinal = candidates.targetOrdinal(p);
+                double score = score(source, sourceOrdinal, target, targetOrdinal, threshold);
+                if (score >= 0) {
+                    scored.add(sourceOrdinal, targetOrdinal, score);
+                }
+            }
+        }
+        return scored;
+    }
+
+    /**
+     * Like {@link #scoreAll}, but keeps only each source's {@code k} best
+     * candidates. Once a source's heap is full its weakest retained score
+     * becomes the bar for that source's remaining candidates, so the cascade
+     * rejects them earlier.
+     */
+    public MatchPairs scoreTopK(RecordSet source, RecordSet target, CandidatePairs candidates, int k) {
+        TopKCandidateHeaps heaps = new TopKCandidateHeaps(candidates, k);
+        for (int i = 0; i < candidates.sourceCount(); i++) {
+            int sourceOrdinal = candidates.sourceOrdinal(i);
+            for (int p = candidates.candidatesStart(i); p < candidates.candidatesEnd(i); p++) {
+                double bar = heaps.isFull(i) ? Math.max(threshold, heaps.minScore(i)) : threshold;
+                double score = score(source, sourceOrdinal, target, candidates.targetOrdinal(p), bar);
+                if (score >= 0) {
+                    heaps.offer(i, candidates.targetOrdinal(p), score);
+                }
+            }
+        }
+        return heaps.toMatchPairs();
+    }
+
+    public double score(RecordSet source, int sourceOrdinal, RecordSet target, int targetOrdinal) {
+        return score(source, sourceOrdinal, target, targetOrdinal, 0.0);
+    }
+
+    /**
+     * @return the pair's mean field similarity, or {@code -1} as soon as it
+     *         provably cannot reach {@code minScore}; the remaining similarity
+     *         deficit is handed to the edit-distance kernel as its exit bound
+     */
+    public double score(RecordSet source, int sourceOrdinal, RecordSet target, int targetOrdinal, double minScore) {
+        if (cascade != null) {
+            return cascade.score((RecordBatch) source, sourceOrdinal, (RecordBatch) target, targetOrdinal, minScore);
+        }
+        if (matchingFields.isEmpty()) {
+            return minScore <= 0.0 ? 0.0 : -1;
+        }
+        double deficitBudget = matchingFields.size() * (1.0 - minScore) + DEFICIT_EPSILON;
+        double deficit = 0.0;
+        for (String field : matchingFields) {
+            double similarity = fieldSimilarity(source.value(sourceOrdinal, field),
+                target.value(targetOrdinal, field), deficitBudget - deficit);
+            if (similarity < 0) {
+                return -1;
+            }
+            deficit += 1.0 - similarity;
+            if (deficit > deficitBudget) {
+                return -1;
+            }
+        }
+        return 1.0 - deficit / matchingFields.size();
+    }
+
+    /**
+     * Splits the matching fields into those that agree exactly and those that
+     * differ, rendering each difference for review.
+     */
+    public void describe(RecordSet source, int sourceOrdinal, RecordSet target, int targetOrdinal,
+                         List<String> matchedFields, List<String> differences) {
+        for (String field : matchingFields) {
+            Object sourceValue = source.value(sourceOrdinal, field);
+            Object targetValue = target.value(targetOrdinal, field);
+            if (fieldSimilarity(sourceValue, targetValue, 1.0) >= 1.0) {
+                matchedFields.add(field);
+            } else {
+                differences.add(field + ": '" + sourceValue + "' vs '" + targetValue + "'");
+            }
+        }
+    }
+
+    /**
+     * @return similarity in [0, 1], or {@code -1} if it is provably below
+     *         {@code 1 - maxDeficit}
+     */
+    static double fieldSimilarity(Object sourceValue, Object targetValue, double maxDeficit) {
+        if (sourceValue == null || targetValue == null) {
+            return sourceValue == targetValue ? 1.0 : 0.0;
+        }
+        if (sourceValue instanceof String || targetValue instanceof String) {
+            return stringSimilarity(normalize(sourceValue.toString()), normalize(targetValue.toString()), maxDeficit);
+        }
+        if (sourceValue instanceof Number && targetValue instanceof Number) {
+            BigDecimal a = FieldValues.toDecimal(sourceValue);
+            BigDecimal b = FieldValues.toDecimal(targetValue);
+            return a.compareTo(b) == 0 ? 1.0 : 0.0;
+        }
+        return sourceValue.equals(targetValue) ? 1.0 : 0.0;
+    }
+
+    static String normalize(String value) {
+        return value.trim().toUpperCase(Locale.ROOT);
+    }
+
+    static double stringSimilarity(String a, String b, double maxDeficit) {
+        int maxLength = Math.max(a.length(), b.length());
+        if (maxLength == 0) {
+            return 1.0;
+        }
+        int maxDistance = (int) Math.min(maxLength, Math.floor(Math.max(0.0, maxDeficit) * maxLength));
+        int distance = EditDistanceKernel.damerau(a, b, maxDistance);
+        return distance > maxDistance ? -1 : 1.0 - (double) distance / maxLength;
+    }
+}
@@ -0,0 +1,69 @@
+package com.reconix;
+
+// ===== HASH-JOIN EXACT MATCHER =====
+// First-pass O(n + m) exact matching on the configured composite key
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds a hash index over the target records keyed on the job's matching
+ * fields and probes it with the source records. Duplicate keys are paired
+ * 1:1 in ordinal order, so the first source with a key takes the first
+ * target with that key, which keeps results deterministic.
+ */
+public final class HashJoinMatcher {
+
+    private HashJoinMatcher() {
+    }
+
+    public static MatchPairs match(RecordSet source, RecordSet target, List<String> matchingFields) {
+        return match(source, allOrdinals(source.size()), target, allOrdinals(target.size()), matchingFields);
+    }
+
+    /** Joins only the given ordinals, which must be in ascending order. */
+    public static MatchPairs match(RecordSet source, int[] sourceOrdinals, RecordSet target, int[] targetOrdinals,
+                                   List<String> matchingFields) {
+        Map<MatchKey, Integer> chainHeads = new HashMap<>(Math.max(16, (int) (targetOrdinals.length / 0.75f) + 1));
+        int[] nextInChain = new int[targetOrdinals.length];
+
+        // Insert in reverse so every chain yields its targets in ordinal order
+        for (int position = targetOrdinals.length - 1; position >= 0; position--) {
+            MatchKey key = MatchKey.of(target, targetOrdinals[position], matchingFields);
+            if (key == null) {
+                continue;
+            }
+            Integer head = chainHeads.put(key, position);
+            nextInChain[position] = head == null ? -1 : head;
+        }
+
+        MatchPairs pairs = new MatchPairs(Math.min(sourceOrdinals.length, targetOrdinals.length));
+        for (int i = 0; i < sourceOrdinals.length && !chainHeads.isEmpty(); i++) {
+            MatchKey key = MatchKey.of(source, sourceOrdinals[i], matchingFields);
+            if (key == null) {
+                continue;
+            }
+            Integer head = chainHeads.get(key);
+            if (head == null) {
+                continue;
+            }
+            pairs.add(sourceOrdinals[i], targetOrdinals[head]);
+            int next = nextInChain[head];
+            if (next < 0) {
+                chainHeads.remove(key);
+            } else {
+                chainHeads.put(key, next);
+            }
+        }
+        return pairs;
+    }
+
+    static int[] allOrdinals(int size) {
+        int[] ordinals = new int[size];
+        for (int i = 0; i < size; i++) {
+            ordinals[i] = i;
+        }
+        return ordinals;
+    }
+}
@@ -0,0 +1,45 @@
+package com.reconix;
+
+// ===== IN-PROCESS RECORD SOURCE =====
+// Queue-backed record source for local runs and tests of the streaming engine
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unbounded in-memory queue that producers {@link #emit} into from any
+ * thread. {@link #close()} ends the stream; the engine drains what is queued
+ * and then flushes its remaining state as breaks.
+ */
+public final class InProcessRecordSource implements RecordSource, AutoCloseable {
+
+    private final BlockingQueue<StreamingRecord> queue = new LinkedBlockingQueue<>();
+    private volatile boolean closed;
+
+    public void emit(StreamingRecord.Side side, Object record, long eventTimeMillis) {
+        emit(new StreamingRecord(side, record, eventTimeMillis));
+    }
+
+    public void emit(StreamingRecord record) {
+        if (closed) {
+            throw new IllegalStateException("Record source is closed");
+        }
+        queue.add(record);
+    }
+
+    @Override
+    public StreamingRecord poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.poll(timeout, unit);
+    }
+
+    @Override
+    public boolean isExhausted() {
+        return closed && queue.isEmpty();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+}
@@ -0,0 +1,56 @@
+package com.reconix;
+
+// ===== INGESTION ERRORS =====
+// Bounded, record-ordered error log shared by the file readers
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the first {@value #MAX_REPORTED_ERRORS} problems of a read and
+ * counts the rest. Details carry the batch ordinal of their record, so a
+ * range or statement parsed on its own can be merged with its ordinals
+ * shifted to their place in the whole file.
+ */
+final class IngestionErrors {
+
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    private final List<String> details = new ArrayList<>();
+    private final List<Integer> ordinals = new ArrayList<>();
+    private long count;
+
+    /** A problem not tied to a record, such as a missing column. */
+    void add(String message) {
+        add(-1, message);
+    }
+
+    void add(int ordinal, String detail) {
+        if (count++ < MAX_REPORTED_ERRORS) {
+            details.add(detail);
+            ordinals.add(ordinal);
+        }
+    }
+
+    /** Appends another log's errors, shifting its record ordinals by {@code ordinalOffset}. */
+    void addAll(IngestionErrors other, int ordinalOffset) {
+        for (int i = 0; i < other.details.size(); i++) {
+            int ordinal = other.ordinals.get(i);
+            add(ordinal < 0 ? ordinal : ordinal + ordinalOffset, other.details.get(i));
+        }
+        count += other.count - other.details.size();
+    }
+
+    long count() {
+        return count;
+    }
+
+    List<String> messages() {
+        List<String> messages = new ArrayList<>(details.size());
+        for (int i = 0; i < details.size(); i++) {
+            int ordinal = ordinals.get(i);
+            messages.add(ordinal < 0 ? details.get(i) : "Record " + ordinal + ": " + details.get(i));
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,92 @@
+package com.reconix;
+
+// ===== INGESTION RESULT =====
+// Batch, validation messages and per-range statistics of one file read
+
+import java.util.List;
+
+/**
+ * Outcome of reading one dataset file, whatever its format: the batch, the
+ * first validation messages and the statistics of every range parsed. A
+ * range is a byte range of a delimited file or a group of statements of a
+ * camt or MT940 file; a sequential read is a single range.
+ */
+public final class IngestionResult {
+
+    private final RecordBatch batch;
+    private final List<String> errors;
+    private final long errorCount;
+    private final long bytes;
+    private final List<ChunkStatistics> chunks;
+
+    IngestionResult(RecordBatch batch, IngestionErrors errors, long bytes, List<ChunkStatistics> chunks) {
+        this.batch = batch;
+        this.errors = errors.messages();
+        this.errorCount = errors.count();
+        this.bytes = bytes;
+        this.chunks = chunks;
+    }
+
+    public RecordBatch batch() {
+        return batch;
+    }
+
+    /** At most {@value IngestionErrors#MAX_REPORTED_ERRORS} messages; see {@link #errorCount()} for the total. */
+    public List<String> errors() {
+        return errors;
+    }
+
+    public long errorCount() {
+        return errorCount;
+    }
+
+    public long bytes() {
+        return bytes;
+    }
+
+    /** One entry per parsed range, in file order. */
+    public List<ChunkStatistics> chunks() {
+        return chunks;
+    }
+
+    /** Size and parse time of one range. */
+    public static final class ChunkStatistics {
+        private final int index;
+        private final long offset;
+        private final long bytes;
+        private final int records;
+        private final long nanos;
+
+        ChunkStatistics(int index, long offset, long bytes, int records, long nanos) {
+            this.index = index;
+            this.offset = offset;
+            this.bytes = bytes;
+            this.records = records;
+            this.nanos = nanos;
+        }
+
+        public int index() {
+            return index;
+        }
+
+        public long offset() {
+            return offset;
+        }
+
+        public long bytes() {
+            return bytes;
+        }
+
+        public int records() {
+            return records;
+        }
+
+        public long nanos() {
+            return nanos;
+        }
+
+        public double bytesPerSecond() {
+            return nanos == 0 ? 0.0 : bytes * 1e9 / nanos;
+        }
+    }
+}
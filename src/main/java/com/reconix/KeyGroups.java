@@ -0,0 +1,55 @@
+package com.reconix;
+
+// ===== KEY GROUP ASSIGNMENT =====
+// Dense integer ids for the distinct match keys of an index
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns dense group ids to the distinct values of a (possibly empty) list
+ * of key fields, so range indexes can partition their primitive arrays by
+ * group. With no key fields every record falls into group 0.
+ */
+public final class KeyGroups {
+
+    static final int NO_GROUP = -1;
+
+    private final List<String> keyFields;
+    private final Map<MatchKey, Integer> groupIds = new HashMap<>();
+
+    KeyGroups(List<String> keyFields) {
+        this.keyFields = keyFields;
+    }
+
+    /** Returns the record's group, registering a new one for an unseen key. */
+    int assign(RecordSet records, int ordinal) {
+        if (keyFields.isEmpty()) {
+            groupIds.putIfAbsent(null, 0);
+            return 0;
+        }
+        MatchKey key = MatchKey.of(records, ordinal, keyFields);
+        if (key == null) {
+            return NO_GROUP;
+        }
+        return groupIds.computeIfAbsent(key, k -> groupIds.size());
+    }
+
+    /** Returns the record's group, or {@link #NO_GROUP} if no indexed record shares its key. */
+    int lookup(RecordSet records, int ordinal) {
+        if (keyFields.isEmpty()) {
+            return groupIds.isEmpty() ? NO_GROUP : 0;
+        }
+        MatchKey key = MatchKey.of(records, ordinal, keyFields);
+        if (key == null) {
+            return NO_GROUP;
+        }
+        Integer group = groupIds.get(key);
+        return group == null ? NO_GROUP : group;
+    }
+
+    int size() {
+        return groupIds.size();
+    }
+}
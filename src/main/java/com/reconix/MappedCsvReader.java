@@ -0,0 +1,591 @@
+package com.reconix;
+
+// ===== MEMORY-MAPPED CSV READER =====
+// Zero-copy delimited-file ingestion straight into columnar record batches
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Reads an RFC 4180 style delimited file through {@link FileChannel#map}
+ * windows of up to 1 GiB. A record is scanned once to find the byte offsets
+ * of the fields the job needs; other fields are skipped without decoding.
+ * Amounts and dates are parsed from the mapped bytes into minor units and
+ * epoch days, and strings are interned by their bytes, so no String is
+ * created per line and only one per distinct value.
+ *
+ * <p>Quoted fields may contain delimiters, doubled quotes and newlines. A
+ * record that runs past the end of a window is rescanned from its first
+ * byte in the next window, so windows never split a record. Values that do
+ * not parse are left null and reported, up to
+ * {@value IngestionErrors#MAX_REPORTED_ERRORS} messages per file.
+ */
+@Slf4j
+public final class MappedCsvReader {
+
+    static final long DEFAULT_WINDOW_BYTES = 1L << 30;
+    static final int MAX_CHUNKS = 4096;
+
+    private static final int INCOMPLETE = -1;
+    private static final byte DECIMAL_POINT = '.';
+    private static final long LOW_BITS = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long NEWLINE_PATTERN = broadcast((byte) '\n');
+
+    private final Path file;
+    private final byte delimiter;
+    private final byte quote;
+    private final boolean header;
+    private final List<String> columnNames;
+    private final Map<String, RecordSchema.ColumnType> fields;
+    private final int scale;
+    private final long windowBytes;
+    private final long delimiterPattern;
+    private final long quotePattern;
+
+    /**
+     * @param columnNames names of the file's columns when it has no header row
+     * @param fields      columns to decode and their types, in batch order;
+     *                    empty to decode every column as a string
+     * @param scale       minor-unit scale of AMOUNT columns
+     */
+    public MappedCsvReader(Path file, char delimiter, char quote, boolean header, List<String> columnNames,
+                           Map<String, RecordSchema.ColumnType> fields, int scale) {
+        this(file, delimiter, quote, header, columnNames, fields, scale, DEFAULT_WINDOW_BYTES);
+    }
+
+    MappedCsvReader(Path file, char delimiter, char quote, boolean header, List<String> columnNames,
+                    Map<String, RecordSchema.ColumnType> fields, int scale, long windowBytes) {
+        if (delimiter > 0x7F || quote > 0x7F) {
+            throw new IllegalArgumentException("Delimiter and quote must be ASCII characters");
+        }
+        this.file = file;
+        this.delimiter = (byte) delimiter;
+        this.quote = (byte) quote;
+        this.header = header;
+        this.columnNames = columnNames == null ? List.of() : columnNames;
+        this.fields = fields;
+        this.scale = scale;
+        this.windowBytes = windowBytes;
+        this.delimiterPattern = broadcast(this.delimiter);
+        this.quotePattern = broadcast(this.quote);
+    }
+
+    public IngestionResult read(StringDictionary dictionary) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            IngestionErrors errors = new IngestionErrors();
+            Layout layout = layout(channel, size, errors);
+            return readSequential(channel, size, layout, dictionary, errors);
+        }
+    }
+
+    /**
+     * Parses the file as byte ranges on up to {@code parallelism} workers of
+     * {@code pool}, each range about {@code chunkBytes} long and aligned to a
+     * record boundary. Ranges parse into chunk-local dictionaries and are
+     * concatenated in file order, so ordinals match a sequential read.
+     * Files of fewer than two chunks are read sequentially.
+     *
+     * <p>Boundaries come from a parallel quote-parity pre-pass: the parity of
+     * the quote bytes before a nominal split point tells whether it lies
+     * inside a quoted field, and the range then starts after the next
+     * newline outside quotes. Every range must end exactly where the next
+     * begins; if stray quotes in unquoted fields break that, the file is
+     * re-read sequentially.
+     */
+    public IngestionResult read(StringDictionary dictionary, ForkJoinPool pool, int parallelism, long chunkBytes)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            IngestionErrors errors = new IngestionErrors();
+            Layout layout = layout(channel, size, errors);
+            long dataBytes = size - layout.dataStart;
+            int chunkCount = (int) Math.min(dataBytes / Math.max(1, chunkBytes), MAX_CHUNKS);
+            if (parallelism <= 1 || chunkCount < 2) {
+                return readSequential(channel, size, layout, dictionary, errors);
+            }
+            long[] bounds = chunkBounds(channel, size, layout.dataStart, chunkCount, pool, parallelism);
+            Chunk[] chunks = new Chunk[chunkCount];
+            ParallelTasks.run("Parallel CSV parsing", pool, parallelism, chunkCount, c -> {
+                chunks[c] = new Chunk(c, layout.schema);
+                try {
+                    chunks[c].parse(channel, size, layout, bounds[c], bounds[c + 1]);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            for (int c = 0; c < chunkCount; c++) {
+                if (chunks[c].end != bounds[c + 1]) {
+                    log.warn("Chunk boundaries of {} disagree with its quoting at byte {}; reading sequentially",
+                        file.getFileName(), bounds[c + 1]);
+                    return readSequential(channel, size, layout, dictionary, errors);
+                }
+            }
+            RecordBatchBuilder builder = new RecordBatchBuilder(layout.schema, dictionary);
+            List<IngestionResult.ChunkStatistics> statistics = new ArrayList<>(chunkCount);
+            for (Chunk chunk : chunks) {
+                StringDictionary local = chunk.builder.dictionary();
+                int[] codes = new int[local.size()];
+                for (int code = 0; code < codes.length; code++) {
+                    codes[code] = dictionary.encode(local.decode(code));
+                }
+                errors.addAll(chunk.errors, builder.size());
+                builder.append(chunk.builder, codes);
+                statistics.add(chunk.statistics);
+            }
+            return new IngestionResult(builder.build(), errors, size, statistics);
+        }
+    }
+
+    private IngestionResult readSequential(FileChannel channel, long size, Layout layout, StringDictionary dictionary,
+                                  IngestionErrors errors) throws IOException {
+        long started = System.nanoTime();
+        RecordBatchBuilder builder = new RecordBatchBuilder(layout.schema, dictionary);
+        new RangeParser(channel, size, layout, builder, new ByteStringInterner(dictionary, quote), errors)
+            .parse(layout.dataStart, size);
+        IngestionResult.ChunkStatistics statistics = new IngestionResult.ChunkStatistics(0, layout.dataStart,
+            size - layout.dataStart, builder.size(), System.nanoTime() - started);
+        return new IngestionResult(builder.build(), errors, size, List.of(statistics));
+    }
+
+    /**
+     * Record-aligned range bounds: {@code bounds[0]} is the first data byte,
+     * {@code bounds[chunkCount]} the file size, and each inner bound the byte
+     * after the first newline outside quotes at or after its nominal split.
+     */
+    private long[] chunkBounds(FileChannel channel, long size, long dataStart, int chunkCount,
+                               ForkJoinPool pool, int parallelism) {
+        long dataBytes = size - dataStart;
+        long[] nominal = new long[chunkCount + 1];
+        for (int c = 0; c <= chunkCount; c++) {
+            nominal[c] = dataStart + dataBytes * c / chunkCount;
+        }
+        boolean[] oddQuotes = new boolean[chunkCount];
+        ParallelTasks.run("CSV range splitting", pool, parallelism, chunkCount, c -> {
+            try {
+                oddQuotes[c] = (countQuotes(channel, nominal[c], nominal[c + 1]) & 1) != 0;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        boolean[] inQuotes = new boolean[chunkCount];
+        for (int c = 1; c < chunkCount; c++) {
+            inQuotes[c] = inQuotes[c - 1] ^ oddQuotes[c - 1];
+        }
+        long[] bounds = new long[chunkCount + 1];
+        bounds[0] = dataStart;
+        bounds[chunkCount] = size;
+        ParallelTasks.run("CSV range splitting", pool, parallelism, chunkCount - 1, i -> {
+            int c = i + 1;
+            try {
+                bounds[c] = nextRecordStart(channel, size, nominal[c], inQuotes[c]);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        for (int c = 1; c < chunkCount; c++) {
+            bounds[c] = Math.max(bounds[c], bounds[c - 1]);
+        }
+        return bounds;
+    }
+
+    private long countQuotes(FileChannel channel, long from, long to) throws IOException {
+        long quotes = 0;
+        for (long position = from; position < to; position += windowBytes) {
+            int length = (int) Math.min(windowBytes, to - position);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            window.order(ByteOrder.LITTLE_ENDIAN);
+            int p = 0;
+            for (; p + Long.BYTES <= length; p += Long.BYTES) {
+                quotes += Long.bitCount(exactZeroBytes(window.getLong(p) ^ quotePattern));
+            }
+            for (; p < length; p++) {
+                if (window.get(p) == quote) {
+                    quotes++;
+                }
+            }
+        }
+        return quotes;
+    }
+
+    private long nextRecordStart(FileChannel channel, long size, long from, boolean inQuotes) throws IOException {
+        boolean quoted = inQuotes;
+        for (long position = from; position < size; position += windowBytes) {
+            int length = (int) Math.min(windowBytes, size - position);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            for (int p = 0; p < length; p++) {
+                byte b = window.get(p);
+                if (b == quote) {
+                    quoted = !quoted;
+                } else if (b == '\n' && !quoted) {
+                    return position + p + 1;
+                }
+            }
+        }
+        return size;
+    }
+
+    /** Column names, the byte offset of the first data record and the batch schema. */
+    private Layout layout(FileChannel channel, long size, IngestionErrors errors) throws IOException {
+        List<String> names = columnNames;
+        long dataStart = 0;
+        if (size >= 3) {
+            MappedByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, 3);
+            if ((head.get(0) & 0xFF) == 0xEF && (head.get(1) & 0xFF) == 0xBB && (head.get(2) & 0xFF) == 0xBF) {
+                dataStart = 3;
+            }
+        }
+        if (header && dataStart < size) {
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, dataStart,
+                Math.min(windowBytes, size - dataStart));
+            int end = 0;
+            boolean quoted = false;
+            while (end < window.limit() && (quoted || window.get(end) != '\n')) {
+                if (window.get(end) == quote) {
+                    quoted = !quoted;
+                }
+                end++;
+            }
+            byte[] line = new byte[end];
+            window.get(line);
+            names = splitHeader(new String(line, StandardCharsets.UTF_8));
+            dataStart += Math.min(end + 1, window.limit());
+        } else if (!header && names.isEmpty()) {
+            throw new ValidationException("Column names are required for " + file.getFileName() + " without a header row");
+        }
+
+        String[] columns;
+        RecordSchema.ColumnType[] types;
+        if (fields == null || fields.isEmpty()) {
+            columns = names.toArray(new String[0]);
+            types = new RecordSchema.ColumnType[columns.length];
+            Arrays.fill(types, RecordSchema.ColumnType.STRING);
+        } else {
+            columns = fields.keySet().toArray(new String[0]);
+            types = fields.values().toArray(new RecordSchema.ColumnType[0]);
+        }
+        int[] scales = new int[columns.length];
+        for (int c = 0; c < columns.length; c++) {
+            scales[c] = types[c] == RecordSchema.ColumnType.AMOUNT ? scale : 0;
+        }
+        int[] fieldToColumn = new int[names.size()];
+        Arrays.fill(fieldToColumn, -1);
+        for (int c = 0; c < columns.length; c++) {
+            int field = names.indexOf(columns[c]);
+            if (field < 0) {
+                errors.add("Column '" + columns[c] + "' not found in " + file.getFileName());
+            } else {
+                fieldToColumn[field] = c;
+            }
+        }
+        return new Layout(RecordSchema.of(columns, types, scales), fieldToColumn, dataStart);
+    }
+
+    private static long broadcast(byte b) {
+        return (b & 0xFFL) * LOW_BITS;
+    }
+
+    /** High bit set in every zero byte of {@code x} (and possibly above the lowest one). */
+    private static long zeroBytes(long x) {
+        return (x - LOW_BITS) & ~x & HIGH_BITS;
+    }
+
+    /** High bit set in exactly the zero bytes of {@code x}. */
+    private static long exactZeroBytes(long x) {
+        return ~(((x & ~HIGH_BITS) + ~HIGH_BITS) | x | ~HIGH_BITS);
+    }
+
+    private List<String> splitHeader(String line) {
+        List<String> names = new ArrayList<>();
+        StringBuilder name = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (ch == quote) {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == quote) {
+                    name.append(ch);
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (ch == delimiter && !quoted) {
+                names.add(name.toString().trim());
+                name.setLength(0);
+            } else if (ch != '\r' || quoted) {
+                name.append(ch);
+            }
+        }
+        names.add(name.toString().trim());
+        return names;
+    }
+
+    /** One range parsed on a worker into its own builder, dictionary and error list. */
+    private final class Chunk {
+        final int index;
+        final RecordBatchBuilder builder;
+        final IngestionErrors errors = new IngestionErrors();
+        long end;
+        IngestionResult.ChunkStatistics statistics;
+
+        Chunk(int index, RecordSchema schema) {
+            this.index = index;
+            this.builder = new RecordBatchBuilder(schema, new StringDictionary());
+        }
+
+        void parse(FileChannel channel, long size, Layout layout, long from, long to) throws IOException {
+            long started = System.nanoTime();
+            end = new RangeParser(channel, size, layout, builder, new ByteStringInterner(builder.dictionary(), quote),
+                errors).parse(from, to);
+            statistics = new IngestionResult.ChunkStatistics(index, from, end - from, builder.size(),
+                System.nanoTime() - started);
+        }
+    }
+
+    private static final class Layout {
+        final RecordSchema schema;
+        final int[] fieldToColumn;
+        final long dataStart;
+
+        Layout(RecordSchema schema, int[] fieldToColumn, long dataStart) {
+            this.schema = schema;
+            this.fieldToColumn = fieldToColumn;
+            this.dataStart = dataStart;
+        }
+    }
+
+    /** Scans the records that start in a byte range and appends them to a builder. */
+    private final class RangeParser {
+        private final FileChannel channel;
+        private final long fileSize;
+        private final int[] fieldToColumn;
+        private final RecordSchema schema;
+        private final RecordBatchBuilder builder;
+        private final ByteStringInterner interner;
+        private final IngestionErrors errors;
+        private final int[] sliceStart;
+        private final int[] sliceEnd;
+        private final boolean[] sliceQuoted;
+        private final boolean[] sliceEscaped;
+        private MappedByteBuffer window;
+        private long windowStart;
+        private int windowLength;
+        private boolean windowAtEof;
+        private boolean emptyRecord;
+
+        RangeParser(FileChannel channel, long fileSize, Layout layout, RecordBatchBuilder builder,
+                    ByteStringInterner interner, IngestionErrors errors) {
+            this.channel = channel;
+            this.fileSize = fileSize;
+            this.fieldToColumn = layout.fieldToColumn;
+            this.schema = layout.schema;
+            this.builder = builder;
+            this.interner = interner;
+            this.errors = errors;
+            int columns = schema.columnCount();
+            this.sliceStart = new int[columns];
+            this.sliceEnd = new int[columns];
+            this.sliceQuoted = new boolean[columns];
+            this.sliceEscaped = new boolean[columns];
+        }
+
+        /**
+         * Parses every record whose first byte lies in {@code [from, to)};
+         * {@code from} must start a record.
+         *
+         * @return the offset of the first record starting at or after {@code to}
+         */
+        long parse(long from, long to) throws IOException {
+            long position = from;
+            while (position < to) {
+                map(position);
+                int p = 0;
+                while (windowStart + p < to) {
+                    int next = scanRecord(p);
+                    if (next == INCOMPLETE) {
+                        if (p == 0) {
+                            throw new IOException("Record at byte " + windowStart + " of " + file.getFileName()
+                                + " is longer than the " + windowBytes + "-byte mapping window");
+                        }
+                        break;
+                    }
+                    if (!emptyRecord) {
+                        commit();
+                    }
+                    p = next;
+                }
+                position = windowStart + p;
+            }
+            return position;
+        }
+
+        private void map(long position) throws IOException {
+            windowStart = position;
+            windowLength = (int) Math.min(windowBytes, fileSize - position);
+            windowAtEof = position + windowLength == fileSize;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, windowLength);
+            window.order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        /**
+         * Records the slices of the mapped fields of the record starting at
+         * {@code p}.
+         *
+         * @return the offset after the record's terminator, or {@link #INCOMPLETE}
+         *         if the record runs past the end of a window that is not the last
+         */
+        private int scanRecord(int p) {
+            MappedByteBuffer w = window;
+            int n = windowLength;
+            Arrays.fill(sliceStart, -1);
+            emptyRecord = false;
+            int field = 0;
+            while (true) {
+                int start;
+                int end;
+                boolean quoted = false;
+                boolean escaped = false;
+                if (p < n && w.get(p) == quote) {
+                    quoted = true;
+                    start = ++p;
+                    while (true) {
+                        p = nextMatch(p, n, quotePattern, quotePattern);
+                        if (p >= n) {
+                            if (!windowAtEof) {
+                                return INCOMPLETE;
+                            }
+                            end = p;
+                            break;
+                        }
+                        if (w.get(p) == quote) {
+                            if (p + 1 >= n && !windowAtEof) {
+                                return INCOMPLETE;
+                            }
+                            if (p + 1 < n && w.get(p + 1) == quote) {
+                                escaped = true;
+                                p += 2;
+                                continue;
+                            }
+                            end = p++;
+                            break;
+                        }
+                        p++;
+                    }
+                    // Tolerate stray bytes between the closing quote and the separator
+                    while (p < n && w.get(p) != delimiter && w.get(p) != '\n') {
+                        p++;
+                    }
+                } else {
+                    start = p;
+                    p = nextMatch(p, n, delimiterPattern, NEWLINE_PATTERN);
+                    end = p;
+                }
+                if (p >= n && !windowAtEof) {
+                    return INCOMPLETE;
+                }
+                boolean lastField = p >= n || w.get(p) == '\n';
+                if (!quoted && lastField && end > start && w.get(end - 1) == '\r') {
+                    end--;
+                }
+                if (field < fieldToColumn.length && fieldToColumn[field] >= 0) {
+                    int column = fieldToColumn[field];
+                    sliceStart[column] = start;
+                    sliceEnd[column] = end;
+                    sliceQuoted[column] = quoted;
+                    sliceEscaped[column] = escaped;
+                }
+                if (lastField) {
+                    emptyRecord = field == 0 && !quoted && start == end;
+                    return p >= n ? p : p + 1;
+                }
+                p++;
+                field++;
+            }
+        }
+
+        /**
+         * First offset in {@code [p, n)} holding either byte of the two
+         * broadcast patterns, or {@code n}. Tests eight bytes per step with
+         * the SWAR zero-byte trick; the lowest flagged byte is always exact.
+         */
+        private int nextMatch(int p, int n, long first, long second) {
+            MappedByteBuffer w = window;
+            while (p + Long.BYTES <= n) {
+                long word = w.getLong(p);
+                long found = zeroBytes(word ^ first) | zeroBytes(word ^ second);
+                if (found != 0) {
+                    return p + (Long.numberOfTrailingZeros(found) >>> 3);
+                }
+                p += Long.BYTES;
+            }
+            while (p < n) {
+                long b = w.get(p) & 0xFFL;
+                if (b == (first & 0xFF) || b == (second & 0xFF)) {
+                    return p;
+                }
+                p++;
+            }
+            return n;
+        }
+
+        private void commit() {
+            int ordinal = builder.addRow();
+            for (int column = 0; column < sliceStart.length; column++) {
+                int start = sliceStart[column];
+                if (start < 0) {
+                    continue;
+                }
+                int end = sliceEnd[column];
+                switch (schema.type(column)) {
+                    case AMOUNT:
+                        if (start < end) {
+                            long minorUnits = ByteFieldDecoder.minorUnits(window, start, end, scale, DECIMAL_POINT);
+                            if (minorUnits == FieldValues.NO_AMOUNT) {
+                                reject(ordinal, column, "amount");
+                            } else {
+                                builder.setMinorUnits(ordinal, column, minorUnits);
+                            }
+                        }
+                        break;
+                    case DATE:
+                        if (start < end) {
+                            int epochDay = ByteFieldDecoder.isoEpochDay(window, start, end);
+                            if (epochDay == FieldValues.NO_DATE) {
+                                reject(ordinal, column, "date");
+                            } else {
+                                builder.setEpochDay(ordinal, column, epochDay);
+                            }
+                        }
+                        break;
+                    default:
+                        if (start < end || sliceQuoted[column]) {
+                            builder.setStringCode(ordinal, column,
+                                interner.intern(window, start, end, sliceEscaped[column]));
+                        }
+                }
+            }
+        }
+
+        private void reject(int ordinal, int column, String kind) {
+            byte[] value = new byte[Math.min(sliceEnd[column] - sliceStart[column], 64)];
+            for (int i = 0; i < value.length; i++) {
+                value[i] = window.get(sliceStart[column] + i);
+            }
+            errors.add(ordinal, "invalid " + kind + " '" + new String(value, StandardCharsets.UTF_8)
+                + "' in column " + schema.name(column));
+        }
+    }
+}
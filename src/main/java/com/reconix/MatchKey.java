@@ -0,0 +1,133 @@
+package com.reconix;
+
+// ===== COMPOSITE MATCH KEY =====
+// Normalized, hash-cached key over a job's configured matching fields
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Composite key built from a record's matching fields. Values are normalized
+ * so that representations of the same business value compare equal
+ * (e.g. {@code 10}, {@code 10.0} and {@code 10.00} amounts, padded references).
+ */
+public final class MatchKey {
+
+    private final Object[] components;
+    private final int hash;
+
+    private MatchKey(Object[] components) {
+        this.components = components;
+        this.hash = Arrays.hashCode(components);
+    }
+
+    /**
+     * @return the key for the given record, or {@code null} when any matching
+     *         field is missing, since such a record can never match exactly
+     */
+    public static MatchKey of(RecordSet records, int ordinal, List<String> fields) {
+        Object[] components = new Object[fields.size()];
+        for (int i = 0; i < components.length; i++) {
+            Object value = normalize(records.value(ordinal, fields.get(i)));
+            if (value == null) {
+                return null;
+            }
+            components[i] = value;
+        }
+        return new MatchKey(components);
+    }
+
+    static Object normalize(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof String) {
+            String trimmed = ((String) value).trim();
+            return trimmed.isEmpty() ? null : trimmed;
+        }
+        if (value instanceof Number) {
+            // NaN and infinities have no decimal form; like a missing value they never match exactly
+            BigDecimal decimal = FieldValues.toDecimal(value);
+            return decimal == null ? null : decimal.stripTrailingZeros();
+        }
+        return value;
+    }
+
+    /**
+     * Encodes the key as a string that is equal for two keys exactly when the
+     * keys are equal. Components are type-tagged and length-prefixed, so the
+     * encoding gives a total order usable for external sorting.
+     */
+    public String encode() {
+        StringBuilder encoded = new StringBuilder();
+        for (Object component : components) {
+            String text = component instanceof BigDecimal
+                ? ((BigDecimal) component).toPlainString()
+                : component.toString();
+            char tag = component instanceof String ? 'S' : component instanceof BigDecimal ? 'N' : 'O';
+            encoded.append(tag).append(text.length()).append(':').append(text);
+        }
+        return encoded.toString();
+    }
+
+    /**
+     * 64-bit hash of the key for {@link BlockedBloomFilter}s. Equal keys have
+     * equal fingerprints. String, numeric and date components hash the same
+     * in every JVM, so filters over such keys can be serialized and shipped.
+     */
+    public long fingerprint() {
+        long hash = components.length;
+        for (Object component : components) {
+            hash = mix64(hash * 31 + componentHash(component));
+        }
+        return hash;
+    }
+
+    private static long componentHash(Object component) {
+        if (component instanceof String) {
+            String text = (String) component;
+            long hash = 0xCBF29CE484222325L;
+            for (int i = 0; i < text.length(); i++) {
+                hash = (hash ^ text.charAt(i)) * 0x100000001B3L;
+            }
+            return hash;
+        }
+        if (component instanceof BigDecimal) {
+            BigDecimal decimal = (BigDecimal) component;
+            long unscaled = decimal.unscaledValue().bitLength() < 64
+                ? decimal.unscaledValue().longValue()
+                : decimal.unscaledValue().hashCode();
+            return mix64(unscaled) ^ decimal.scale();
+        }
+        return component.hashCode();
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof MatchKey)) {
+            return false;
+        }
+        MatchKey that = (MatchKey) other;
+        return hash == that.hash && Arrays.equals(components, that.components);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(components);
+    }
+}
@@ -0,0 +1,63 @@
+package com.reconix;
+
+// ===== MATCHED PAIR BUFFER =====
+// Growable primitive buffer of (source ordinal, target ordinal) pairs
+
+import java.util.Arrays;
+
+/**
+ * Primitive pair buffer produced by the matching passes, with the score each
+ * pair was accepted at. Keeping ordinals in parallel arrays avoids allocating
+ * a pair object per match on large jobs.
+ */
+public final class MatchPairs {
+
+    private int[] sourceOrdinals;
+    private int[] targetOrdinals;
+    private double[] scores;
+    private int size;
+
+    public MatchPairs() {
+        this(16);
+    }
+
+    public MatchPairs(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        this.sourceOrdinals = new int[capacity];
+        this.targetOrdinals = new int[capacity];
+        this.scores = new double[capacity];
+    }
+
+    public void add(int sourceOrdinal, int targetOrdinal) {
+        add(sourceOrdinal, targetOrdinal, 1.0);
+    }
+
+    public void add(int sourceOrdinal, int targetOrdinal, double score) {
+        if (size == sourceOrdinals.length) {
+            int capacity = size + (size >> 1) + 1;
+            sourceOrdinals = Arrays.copyOf(sourceOrdinals, capacity);
+            targetOrdinals = Arrays.copyOf(targetOrdinals, capacity);
+            scores = Arrays.copyOf(scores, capacity);
+        }
+        sourceOrdinals[size] = sourceOrdinal;
+        targetOrdinals[size] = targetOrdinal;
+        scores[size] = score;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int sourceOrdinal(int index) {
+        return sourceOrdinals[index];
+    }
+
+    public int targetOrdinal(int index) {
+        return targetOrdinals[index];
+    }
+
+    public double score(int index) {
+        return scores[index];
+    }
+}
@@ -0,0 +1,26 @@
+package com.reconix;
+
+// ===== MATCHING POOL CONFIGURATION =====
+// Dedicated fork/join pool for partition-parallel matching
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+public class MatchingPoolConfig {
+
+    /**
+     * Kept separate from the common pool and from reconciliationTaskExecutor so
+     * CPU-bound matching cannot starve request handling or other async work.
+     * Tenants are further limited by ResourceLimits.matchingParallelism.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool reconciliationMatchingPool(
+            @Value("${reconix.matching.pool-size:0}") int poolSize) {
+        int parallelism = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, false);
+    }
+}
@@ -0,0 +1,257 @@
+package com.reconix;
+
+// ===== MINHASH / LSH SIMILARITY INDEX =====
+// Sublinear candidate generation for differently spelled counterparties and narratives
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Indexes the residual targets by MinHash signatures over character shingles
+ * of the configured text fields, and probes it with the residual sources.
+ * Signatures are split into {@code bands} bands of {@code rowsPerBand} rows;
+ * two records become candidates when any band hashes identically, which
+ * happens with probability {@code 1 - (1 - J^r)^b} for Jaccard similarity J.
+ * Candidates are then kept only if the signature-estimated Jaccard reaches
+ * the threshold, which defaults to the S-curve midpoint {@code (1/b)^(1/r)}.
+ *
+ * <p>Signatures live in one flat {@code long[]} of {@code bands * rowsPerBand}
+ * values per record; band buckets are an open-addressed table of chain heads.
+ * Both are int-indexed arrays, so a signature is at most
+ * {@value #MAX_SIGNATURE_WIDTH} values and a probe set whose signatures or
+ * band entries would not fit is rejected before anything is allocated.
+ */
+@Slf4j
+public final class MinHashLshIndex {
+
+    private static final int DEFAULT_SHINGLE_SIZE = 3;
+    private static final int DEFAULT_BANDS = 20;
+    private static final int DEFAULT_ROWS_PER_BAND = 3;
+    private static final long SEED = 0x5DEECE66DL;
+    static final int MAX_SIGNATURE_WIDTH = 4096;
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+    // The band table's capacity is a power of two of at least twice its entries
+    private static final int MAX_BAND_ENTRIES = 1 << 29;
+
+    private final List<String> fields;
+    private final int shingleSize;
+    private final int bands;
+    private final int rowsPerBand;
+    private final double jaccardThreshold;
+    private final long[] hashSeeds;
+
+    public MinHashLshIndex(List<String> fields, int shingleSize, int bands, int rowsPerBand, Double jaccardThreshold) {
+        if (shingleSize < 1 || bands < 1 || rowsPerBand < 1) {
+            throw new ValidationException("Similarity index shingleSize, bands and rowsPerBand must be positive");
+        }
+        if ((long) bands * rowsPerBand > MAX_SIGNATURE_WIDTH) {
+            throw new ValidationException("Similarity index bands * rowsPerBand is " + (long) bands * rowsPerBand
+                + ", at most " + MAX_SIGNATURE_WIDTH + " is supported");
+        }
+        this.fields = fields;
+        this.shingleSize = shingleSize;
+        this.bands = bands;
+        this.rowsPerBand = rowsPerBand;
+        this.jaccardThreshold = jaccardThreshold != null ? jaccardThreshold
+            : Math.pow(1.0 / bands, 1.0 / rowsPerBand);
+        this.hashSeeds = new long[bands * rowsPerBand];
+        long state = SEED;
+        for (int i = 0; i < hashSeeds.length; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            hashSeeds[i] = mix64(state);
+        }
+    }
+
+    /** Returns {@code null} when no similarity index is configured. */
+    public static MinHashLshIndex fromConfiguration(ReconciliationConfigurationDTO configuration) {
+        SimilarityIndexDTO index = configuration.getSimilarityIndex();
+        if (index == null || index.getFields() == null || index.getFields().isEmpty()) {
+            return null;
+        }
+        return new MinHashLshIndex(index.getFields(),
+            index.getShingleSize() != null ? index.getShingleSize() : DEFAULT_SHINGLE_SIZE,
+            index.getBands() != null ? index.getBands() : DEFAULT_BANDS,
+            index.getRowsPerBand() != null ? index.getRowsPerBand() : DEFAULT_ROWS_PER_BAND,
+            index.getJaccardThreshold());
+    }
+
+    public double jaccardThreshold() {
+        return jaccardThreshold;
+    }
+
+    public CandidatePairs candidates(RecordSet source, int[] sourceOrdinals, RecordSet target, int[] targetOrdinals) {
+        int width = hashSeeds.length;
+        long signatureValues = (long) targetOrdinals.length * width;
+        long bandEntries = (long) targetOrdinals.length * bands;
+        if (signatureValues > MAX_ARRAY_LENGTH || bandEntries > MAX_BAND_ENTRIES) {
+            throw new ValidationException("Similarity index over " + targetOrdinals.length + " residual targets needs "
+                + signatureValues + " signature values and " + bandEntries + " band entries, more than the "
+                + MAX_ARRAY_LENGTH + " and " + MAX_BAND_ENTRIES + " supported; use fewer bands or rows, or add blocking keys");
+        }
+        long[] targetSignatures = new long[(int) signatureValues];
+        boolean[] targetPresent = new boolean[targetOrdinals.length];
+        for (int p = 0; p < targetOrdinals.length; p++) {
+            targetPresent[p] = signature(target, targetOrdinals[p], targetSignatures, p * width);
+        }
+        BandTable table = new BandTable((int) bandEntries);
+        for (int p = 0; p < targetOrdinals.length; p++) {
+            if (targetPresent[p]) {
+                for (int band = 0; band < bands; band++) {
+                    table.insert(bandKey(targetSignatures, p * width, band), p * bands + band);
+                }
+            }
+        }
+
+        long[] sourceSignature = new long[width];
+        int[] lastSeen = new int[targetOrdinals.length];
+        Arrays.fill(lastSeen, -1);
+        int minAgreeing = (int) Math.ceil(jaccardThreshold * width - 1e-9);
+        CandidatePairs.Builder builder = new CandidatePairs.Builder(sourceOrdinals);
+        for (int i = 0; i < sourceOrdinals.length; i++) {
+            if (signature(source, sourceOrdinals[i], sourceSignature, 0)) {
+                for (int band = 0; band < bands; band++) {
+                    for (int entry = table.head(bandKey(sourceSignature, 0, band)); entry >= 0; entry = table.next(entry)) {
+                        int position = entry / bands;
+                        if (lastSeen[position] == i) {
+                            continue;
+                        }
+                        lastSeen[position] = i;
+                        if (agreeing(sourceSignature, targetSignatures, position * width) >= minAgreeing) {
+                            builder.add(targetOrdinals[position]);
+                        }
+                    }
+                }
+            }
+            builder.endSource();
+        }
+        CandidatePairs candidates = builder.build();
+        log.debug("LSH produced {} candidate pairs for {} x {} residual records",
+            candidates.pairCount(), sourceOrdinals.length, targetOrdinals.length);
+        return candidates;
+    }
+
+    /** Estimated Jaccard similarity of the two records' shingle sets, or 0 if either has no text. */
+    public double estimateJaccard(RecordSet source, int sourceOrdinal, RecordSet target, int targetOrdinal) {
+        long[] signatures = new long[2 * hashSeeds.length];
+        if (!signature(source, sourceOrdinal, signatures, 0)
+                || !signature(target, targetOrdinal, signatures, hashSeeds.length)) {
+            return 0.0;
+        }
+        return (double) agreeing(signatures, signatures, hashSeeds.length) / hashSeeds.length;
+    }
+
+    /** Writes the record's MinHash signature at {@code offset}; returns false if it has no text. */
+    private boolean signature(RecordSet records, int ordinal, long[] signatures, int offset) {
+        String text = normalizedText(records, ordinal);
+        if (text.isEmpty()) {
+            return false;
+        }
+        int width = hashSeeds.length;
+        Arrays.fill(signatures, offset, offset + width, Long.MAX_VALUE);
+        int shingles = Math.max(1, text.length() - shingleSize + 1);
+        for (int start = 0; start < shingles; start++) {
+            long shingleHash = 0xCBF29CE484222325L;
+            for (int c = start, end = Math.min(text.length(), start + shingleSize); c < end; c++) {
+                shingleHash = (shingleHash ^ text.charAt(c)) * 0x100000001B3L;
+            }
+            for (int h = 0; h < width; h++) {
+                long value = mix64(shingleHash ^ hashSeeds[h]);
+                if (value < signatures[offset + h]) {
+                    signatures[offset + h] = value;
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Upper-cased field values with every run of non-alphanumerics collapsed to one space. */
+    private String normalizedText(RecordSet records, int ordinal) {
+        StringBuilder text = new StringBuilder();
+        for (String field : fields) {
+            Object value = records.value(ordinal, field);
+            if (value == null) {
+                continue;
+            }
+            String raw = value.toString();
+            for (int i = 0; i < raw.length(); i++) {
+                char ch = raw.charAt(i);
+                if (Character.isLetterOrDigit(ch)) {
+                    text.append(Character.toUpperCase(ch));
+                } else if (text.length() > 0 && text.charAt(text.length() - 1) != ' ') {
+                    text.append(' ');
+                }
+            }
+            if (text.length() > 0 && text.charAt(text.length() - 1) != ' ') {
+                text.append(' ');
+            }
+        }
+        int length = text.length();
+        return length > 0 && text.charAt(length - 1) == ' ' ? text.substring(0, length - 1) : text.toString();
+    }
+
+    private long bandKey(long[] signatures, int offset, int band) {
+        long key = mix64(band + 1L);
+        for (int r = band * rowsPerBand, end = r + rowsPerBand; r < end; r++) {
+            key = mix64(key ^ signatures[offset + r]);
+        }
+        return key;
+    }
+
+    private int agreeing(long[] a, long[] b, int bOffset) {
+        int agreeing = 0;
+        for (int h = 0; h < hashSeeds.length; h++) {
+            if (a[h] == b[bOffset + h]) {
+                agreeing++;
+            }
+        }
+        return agreeing;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /** Band key to chain of (position * bands + band) entries, open addressed on the key. */
+    private static final class BandTable {
+        private final long[] keys;
+        private final int[] heads;
+        private final int[] next;
+        private final int mask;
+
+        BandTable(int entries) {
+            int capacity = (int) (Long.highestOneBit(Math.max(4L, entries) * 2 - 1) << 1);
+            keys = new long[capacity];
+            heads = new int[capacity];
+            Arrays.fill(heads, -1);
+            next = new int[entries];
+            mask = capacity - 1;
+        }
+
+        void insert(long key, int entry) {
+            int slot = slot(key);
+            keys[slot] = key;
+            next[entry] = heads[slot];
+            heads[slot] = entry;
+        }
+
+        int head(long key) {
+            return heads[slot(key)];
+        }
+
+        int next(int entry) {
+            return next[entry];
+        }
+
+        private int slot(long key) {
+            int slot = (int) key & mask;
+            while (heads[slot] >= 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.reconix;
+
+// ===== MT940 DIALECT =====
+// Bank-specific conventions of MT940/MT942 files, looked up by name
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * How a bank lays out what SWIFT leaves open: the character set, the
+ * decimal separator, and above all the structure of the {@code :86:}
+ * information field. A structured {@code :86:} is split into subfields at a
+ * marker byte followed by a key; each key's {@link Role} says which
+ * statement column its text feeds, and unknown keys are dropped. Keys are
+ * either any {@code keyLength} bytes after the marker ({@code ?20},
+ * {@code ?32}), or a listed word closed by a terminator ({@code /REMI/}).
+ *
+ * <p>{@code joiner} is put between continuation lines and between
+ * subfields of one role, whose text is then trimmed; with no joiner, text
+ * is concatenated as is, for banks that wrap at a fixed width mid-word.
+ * Roles listed as spaced still get a space between their subfields, for
+ * fields such as a name split over two subfields at a word boundary.
+ *
+ * <p>Remittance text may carry SEPA qualifiers, words closed by {@code +}
+ * ({@code EREF+}, {@code SVWZ+}). When the dialect lists any, the text is
+ * split at each one found and every part feeds its qualifier's role; text
+ * before the first qualifier stays remittance.
+ *
+ * <p>{@link #named} resolves the built-in table; other dialects can be
+ * constructed and passed to {@link Mt940StatementReader} directly.
+ */
+public final class Mt940Dialect {
+
+    /** Statement column a piece of {@code :86:} text belongs to. */
+    public enum Role {
+        IGNORED,
+        REMITTANCE,
+        COUNTERPARTY,
+        END_TO_END_ID
+    }
+
+    /** SWIFT-standard files with free-text {@code :86:}, used when a job names no dialect. */
+    public static final Mt940Dialect SWIFT = new Mt940Dialect("swift", StandardCharsets.ISO_8859_1, (byte) ',',
+        (byte) 0, 0, (byte) 0, Role.REMITTANCE, (byte) ' ', Map.of());
+
+    /**
+     * German banks (DFÜ-Abkommen): {@code :86:} is a three-digit business
+     * transaction code, then {@code ?nn} subfields wrapped at 27 characters:
+     * {@code ?20}-{@code ?29} and {@code ?60}-{@code ?63} are remittance,
+     * {@code ?32}-{@code ?33} the counterparty name. SEPA remittance opens
+     * with qualifiers: {@code EREF+} is the end-to-end id, {@code SVWZ+} the
+     * remittance proper, and mandate, creditor and customer references
+     * ({@code MREF+}, {@code CRED+}, {@code KREF+}, ...) are dropped.
+     */
+    public static final Mt940Dialect GERMAN = new Mt940Dialect("german", StandardCharsets.ISO_8859_1, (byte) ',',
+        (byte) '?', 2, (byte) 0, Role.IGNORED, (byte) 0, germanSubfields(),
+        EnumSet.of(Role.COUNTERPARTY), germanQualifiers());
+
+    /**
+     * Slash-coded {@code :86:} as used by Dutch and Belgian banks:
+     * {@code /EREF/}, {@code /NAME/} and {@code /REMI/} carry the end-to-end
+     * id, counterparty and remittance; other listed codes are dropped.
+     */
+    public static final Mt940Dialect SLASH_CODED = new Mt940Dialect("slash-coded", StandardCharsets.ISO_8859_1,
+        (byte) ',', (byte) '/', 0, (byte) '/', Role.REMITTANCE, (byte) ' ', slashSubfields());
+
+    private static final Map<String, Mt940Dialect> DIALECTS = List.of(SWIFT, GERMAN, SLASH_CODED).stream()
+        .collect(Collectors.toMap(Mt940Dialect::name, Function.identity()));
+
+    private final String name;
+    private final Charset charset;
+    private final byte decimalSeparator;
+    private final byte subfieldMarker;
+    private final int keyLength;
+    private final byte keyTerminator;
+    private final Role unkeyedRole;
+    private final byte joiner;
+    private final byte[][] keys;
+    private final Role[] keyRoles;
+    private final boolean[] spacedRoles = new boolean[Role.values().length];
+    private final byte[][] qualifiers;
+    private final Role[] qualifierRoles;
+
+    /**
+     * @param subfieldMarker byte opening a subfield, or 0 for free text
+     * @param keyLength      fixed key length after the marker, or 0 for listed keys closed by {@code keyTerminator}
+     * @param unkeyedRole    role of text before the first subfield
+     * @param joiner         byte between lines and subfields, or 0 to concatenate
+     * @param subfields      roles by key; keys not listed are {@link Role#IGNORED}
+     */
+    public Mt940Dialect(String name, Charset charset, byte decimalSeparator, byte subfieldMarker, int keyLength,
+                        byte keyTerminator, Role unkeyedRole, byte joiner, Map<String, Role> subfields) {
+        this(name, charset, decimalSeparator, subfieldMarker, keyLength, keyTerminator, unkeyedRole, joiner, subfields,
+            EnumSet.noneOf(Role.class), Map.of());
+    }
+
+    /**
+     * @param spacedRoles roles whose subfields are separated by a space when there is no joiner
+     * @param qualifiers  roles by remittance qualifier word, without the closing {@code +}
+     */
+    public Mt940Dialect(String name, Charset charset, byte decimalSeparator, byte subfieldMarker, int keyLength,
+                        byte keyTerminator, Role unkeyedRole, byte joiner, Map<String, Role> subfields,
+                        Set<Role> spacedRoles, Map<String, Role> qualifiers) {
+        this.name = name;
+        this.charset = charset;
+        this.decimalSeparator = decimalSeparator;
+        this.subfieldMarker = subfieldMarker;
+        this.keyLength = keyLength;
+        this.keyTerminator = keyTerminator;
+        this.unkeyedRole = unkeyedRole;
+        this.joiner = joiner;
+        this.keys = new byte[subfields.size()][];
+        this.keyRoles = new Role[subfields.size()];
+        int k = 0;
+        for (Map.Entry<String, Role> subfield : subfields.entrySet()) {
+            keys[k] = subfield.getKey().getBytes(StandardCharsets.US_ASCII);
+            keyRoles[k++] = subfield.getValue();
+        }
+        for (Role role : spacedRoles) {
+            this.spacedRoles[role.ordinal()] = true;
+        }
+        this.qualifiers = new byte[qualifiers.size()][];
+        this.qualifierRoles = new Role[qualifiers.size()];
+        int q = 0;
+        for (Map.Entry<String, Role> qualifier : qualifiers.entrySet()) {
+            this.qualifiers[q] = qualifier.getKey().getBytes(StandardCharsets.US_ASCII);
+            qualifierRoles[q++] = qualifier.getValue();
+        }
+    }
+
+    /** The built-in dialect of that name, or {@link #SWIFT} for {@code null}. */
+    public static Mt940Dialect named(String name) {
+        if (name == null) {
+            return SWIFT;
+        }
+        Mt940Dialect dialect = DIALECTS.get(name.toLowerCase(Locale.ROOT));
+        if (dialect == null) {
+            throw new ValidationException("Unknown MT940 dialect '" + name + "', expected one of " + DIALECTS.keySet());
+        }
+        return dialect;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    Charset charset() {
+        return charset;
+    }
+
+    byte decimalSeparator() {
+        return decimalSeparator;
+    }
+
+    byte subfieldMarker() {
+        return subfieldMarker;
+    }
+
+    Role unkeyedRole() {
+        return unkeyedRole;
+    }
+
+    byte joiner() {
+        return joiner;
+    }
+
+    /** Byte between two subfields of {@code role}, or 0 to concatenate them. */
+    byte subfieldJoiner(Role role) {
+        return joiner != 0 || !spacedRoles[role.ordinal()] ? joiner : (byte) ' ';
+    }
+
+    boolean hasQualifiers() {
+        return qualifiers.length > 0;
+    }
+
+    /**
+     * Length of the qualifier (word and {@code +}) at {@code start} of
+     * remittance text, or 0 if none starts there. The qualifier's role is
+     * left in {@code role[0]}.
+     */
+    int qualifierAt(byte[] bytes, int start, int end, Role[] role) {
+        for (int q = 0; q < qualifiers.length; q++) {
+            int close = start + qualifiers[q].length;
+            if (close < end && bytes[close] == '+' && matches(qualifiers[q], bytes, start)) {
+                role[0] = qualifierRoles[q];
+                return qualifiers[q].length + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Length of the subfield opener (marker and key) at {@code start},
+     * which holds the marker byte, or 0 if no key follows. The key's role
+     * is left in {@code role[0]}.
+     */
+    int subfieldAt(byte[] bytes, int start, int end, Role[] role) {
+        if (keyLength > 0) {
+            if (start + keyLength >= end) {
+                return 0;
+            }
+            for (int k = 0; k < keys.length; k++) {
+                if (keys[k].length == keyLength && matches(keys[k], bytes, start + 1)) {
+                    role[0] = keyRoles[k];
+                    return 1 + keyLength;
+                }
+            }
+            role[0] = Role.IGNORED;
+            return 1 + keyLength;
+        }
+        for (int k = 0; k < keys.length; k++) {
+            int close = start + 1 + keys[k].length;
+            if (close < end && bytes[close] == keyTerminator && matches(keys[k], bytes, start + 1)) {
+                role[0] = keyRoles[k];
+                // The terminator is left unread: it may open the next key, as in /REMI/USTD//
+                return 1 + keys[k].length;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean matches(byte[] key, byte[] bytes, int start) {
+        for (int i = 0; i < key.length; i++) {
+            if (bytes[start + i] != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Map<String, Role> germanSubfields() {
+        Map<String, Role> subfields = new LinkedHashMap<>();
+        for (int code = 20; code <= 29; code++) {
+            subfields.put(Integer.toString(code), Role.REMITTANCE);
+        }
+        for (int code = 60; code <= 63; code++) {
+            subfields.put(Integer.toString(code), Role.REMITTANCE);
+        }
+        subfields.put("32", Role.COUNTERPARTY);
+        subfields.put("33", Role.COUNTERPARTY);
+        return subfields;
+    }
+
+    private static Map<String, Role> germanQualifiers() {
+        Map<String, Role> qualifiers = new LinkedHashMap<>();
+        qualifiers.put("EREF", Role.END_TO_END_ID);
+        qualifiers.put("SVWZ", Role.REMITTANCE);
+        for (String code : List.of("KREF", "MREF", "CRED", "DEBT", "COAM", "OAMT", "ABWA", "ABWE", "IBAN", "BIC")) {
+            qualifiers.put(code, Role.IGNORED);
+        }
+        return qualifiers;
+    }
+
+    private static Map<String, Role> slashSubfields() {
+        Map<String, Role> subfields = new LinkedHashMap<>();
+        subfields.put("EREF", Role.END_TO_END_ID);
+        subfields.put("NAME", Role.COUNTERPARTY);
+        subfields.put("REMI", Role.REMITTANCE);
+        for (String code : List.of("USTD", "STRD")) {
+            subfields.put(code, Role.REMITTANCE);
+        }
+        for (String code : List.of("TRCD", "BENM", "ORDP", "CNTP", "IBAN", "BIC", "ADDR", "MARF", "CSID",
+            "PREF", "RTRN", "PURP", "ULTC", "ULTD", "SVCL", "ISDT", "CUST", "ID")) {
+            subfields.put(code, Role.IGNORED);
+        }
+        return subfields;
+    }
+}
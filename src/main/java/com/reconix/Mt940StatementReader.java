@@ -0,0 +1,533 @@
+package com.reconix;
+
+// ===== MT940 STATEMENT READER =====
+// Byte-level state machine turning SWIFT MT940/MT942 statement lines into statement entry rows
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads MT940 statements and MT942 interim reports into a batch of
+ * {@link StatementEntry#schema} rows: one row per {@code :61:} statement
+ * line, completed by the {@code :86:} that follows it. The file streams
+ * through a fixed buffer line by line; each tagged field is gathered with
+ * its continuation lines and decoded in place, and text reaches the
+ * dictionary through a {@link ByteStringInterner}, so no String is created
+ * for a repeated value and none at all for amounts and dates.
+ *
+ * <p>Messages may carry the SWIFT {@code {1:}..{4:} ... -}} envelope or be
+ * bare field sequences, with LF or CRLF lines. Per message, {@code :25:}
+ * is the account, {@code :28C:} (else {@code :20:}) the statement id, and
+ * {@code :60a:} or {@code :34F:} the currency. A {@code :61:} line gives
+ * the value date, the entry date as booking date (its year taken from the
+ * value date, across a year end), the amount signed by its debit/credit
+ * mark with reversals ({@code RC}, {@code RD}) inverted, the customer
+ * reference unless {@code NONREF}, and the bank reference after
+ * {@code //}. The {@code :86:} text is split by the {@link Mt940Dialect}.
+ * MT940 lines have status {@code BOOK}; MT942 lines carry none.
+ */
+public final class Mt940StatementReader {
+
+    private static final int BUFFER_BYTES = 1024 * 1024;
+    private static final int MAX_FIELD_BYTES = 64 * 1024;
+    private static final int CENTURY_PIVOT = 80;
+    private static final String BOOKED = "BOOK";
+
+    private static final int TAG_20 = tag("20");
+    private static final int TAG_25 = tag("25");
+    private static final int TAG_28C = tag("28C");
+    private static final int TAG_60F = tag("60F");
+    private static final int TAG_60M = tag("60M");
+    private static final int TAG_34F = tag("34F");
+    private static final int TAG_13D = tag("13D");
+    private static final int TAG_61 = tag("61");
+    private static final int TAG_86 = tag("86");
+
+    private final Path file;
+    private final Mt940Dialect dialect;
+    private final int scale;
+
+    public Mt940StatementReader(Path file, Mt940Dialect dialect, int scale) {
+        this.file = file;
+        this.dialect = dialect;
+        this.scale = scale;
+    }
+
+    public IngestionResult read(StringDictionary dictionary) throws IOException {
+        long started = System.nanoTime();
+        long size = Files.size(file);
+        RecordBatchBuilder builder = new RecordBatchBuilder(StatementEntry.schema(scale), dictionary);
+        IngestionErrors errors = new IngestionErrors();
+        Tokenizer tokenizer = new Tokenizer(builder, errors);
+        try (InputStream input = Files.newInputStream(file)) {
+            tokenizer.run(input);
+        }
+        IngestionResult.ChunkStatistics statistics = new IngestionResult.ChunkStatistics(0, 0, size,
+            builder.size(), System.nanoTime() - started);
+        return new IngestionResult(builder.build(), errors, size, List.of(statistics));
+    }
+
+    /** Packs a tag of two or three ASCII bytes into an int. */
+    private static int tag(String tag) {
+        int code = 0;
+        for (int i = 0; i < tag.length(); i++) {
+            code = code << 8 | tag.charAt(i);
+        }
+        return code;
+    }
+
+    /** Growable byte array with a ByteBuffer view for the decoder and interner. */
+    private static final class Bytes {
+        byte[] bytes = new byte[256];
+        ByteBuffer view = ByteBuffer.wrap(bytes);
+        int length;
+
+        void clear() {
+            length = 0;
+        }
+
+        void append(byte b) {
+            if (length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                view = ByteBuffer.wrap(bytes);
+            }
+            bytes[length++] = b;
+        }
+
+        void append(byte[] source, int start, int end) {
+            for (int i = start; i < end; i++) {
+                append(source[i]);
+            }
+        }
+    }
+
+    /**
+     * The state machine: lines are classified as envelope, end of message,
+     * tag or continuation; a field is decoded when the next one starts.
+     */
+    private final class Tokenizer {
+        private final RecordBatchBuilder builder;
+        private final IngestionErrors errors;
+        private final ByteStringInterner interner;
+        private final Bytes field = new Bytes();
+        private final Bytes segment = new Bytes();
+        private final Bytes unsplit = new Bytes();
+        private final Bytes[] roleText = new Bytes[Mt940Dialect.Role.values().length];
+        private final Mt940Dialect.Role[] keyRole = new Mt940Dialect.Role[1];
+        private final int bookedCode;
+        private int fieldTag;
+        private boolean truncated;
+        private long line;
+
+        // Message state
+        private boolean interim;
+        private int accountCode = StringDictionary.NO_CODE;
+        private int statementCode = StringDictionary.NO_CODE;
+        private int currencyCode = StringDictionary.NO_CODE;
+        /** Row of the last {@code :61:} while its {@code :86:} may still follow, else -1. */
+        private int openEntry = -1;
+
+        Tokenizer(RecordBatchBuilder builder, IngestionErrors errors) {
+            this.builder = builder;
+            this.errors = errors;
+            this.interner = new ByteStringInterner(builder.dictionary(), (byte) 0, dialect.charset());
+            this.bookedCode = builder.dictionary().encode(BOOKED);
+            for (int r = 0; r < roleText.length; r++) {
+                roleText[r] = new Bytes();
+            }
+        }
+
+        void run(InputStream input) throws IOException {
+            byte[] buffer = new byte[BUFFER_BYTES];
+            int filled = 0;
+            boolean skipping = false;
+            int n;
+            while ((n = input.read(buffer, filled, buffer.length - filled)) > 0 || filled > 0) {
+                int end = filled + Math.max(n, 0);
+                int lineStart = 0;
+                for (int i = filled; i < end; i++) {
+                    if (buffer[i] == '\n') {
+                        if (skipping) {
+                            line++;
+                        } else {
+                            line(buffer, lineStart, i);
+                        }
+                        skipping = false;
+                        lineStart = i + 1;
+                    }
+                }
+                if (n <= 0) {
+                    // Last line without a newline
+                    if (!skipping && lineStart < end) {
+                        line(buffer, lineStart, end);
+                    }
+                    break;
+                }
+                filled = end - lineStart;
+                System.arraycopy(buffer, lineStart, buffer, 0, filled);
+                if (filled == buffer.length) {
+                    errors.add("Line " + (this.line + 1) + " is longer than " + BUFFER_BYTES + " bytes; skipped");
+                    skipping = true;
+                    filled = 0;
+                }
+            }
+            endField();
+            openEntry = -1;
+        }
+
+        private void line(byte[] bytes, int start, int end) {
+            line++;
+            if (end > start && bytes[end - 1] == '\r') {
+                end--;
+            }
+            if (start == end) {
+                return;
+            }
+            byte first = bytes[start];
+            if (first == '{') {
+                envelope(bytes, start, end);
+            } else if (first == '-' && (end - start == 1 || bytes[start + 1] == '}')) {
+                endField();
+                openEntry = -1;
+            } else if (first == ':' && tagEnd(bytes, start, end) > 0) {
+                int close = tagEnd(bytes, start, end);
+                endField();
+                int tag = 0;
+                for (int i = start + 1; i < close; i++) {
+                    tag = tag << 8 | bytes[i];
+                }
+                fieldTag = tag;
+                field.clear();
+                truncated = false;
+                appendField(bytes, close + 1, end, false);
+            } else if (fieldTag != 0) {
+                appendField(bytes, start, end, true);
+            }
+        }
+
+        /** Index of the colon closing a {@code :nn:} or {@code :nnX:} tag, or 0. */
+        private int tagEnd(byte[] bytes, int start, int end) {
+            if (end - start < 4 || !isDigit(bytes[start + 1]) || !isDigit(bytes[start + 2])) {
+                return 0;
+            }
+            if (bytes[start + 3] == ':') {
+                return start + 3;
+            }
+            if (end - start >= 5 && isLetter(bytes[start + 3]) && bytes[start + 4] == ':') {
+                return start + 4;
+            }
+            return 0;
+        }
+
+        /** Appends a line to the current field, after a line break unless it is the tag line. */
+        private void appendField(byte[] bytes, int start, int end, boolean continuation) {
+            if (truncated) {
+                return;
+            }
+            if (field.length + 1 + end - start > MAX_FIELD_BYTES) {
+                errors.add("Field at line " + line + " is longer than " + MAX_FIELD_BYTES + " bytes; truncated");
+                truncated = true;
+                return;
+            }
+            if (continuation) {
+                field.append((byte) '\n');
+            }
+            field.append(bytes, start, end);
+        }
+
+        /** Header blocks: a {@code {2:} block tells MT940 from MT942; a new message resets its state. */
+        private void envelope(byte[] bytes, int start, int end) {
+            endField();
+            openEntry = -1;
+            for (int i = start; i + 6 < end; i++) {
+                if (bytes[i] == '{' && bytes[i + 1] == '2' && bytes[i + 2] == ':') {
+                    interim = bytes[i + 4] == '9' && bytes[i + 5] == '4' && bytes[i + 6] == '2';
+                }
+                if (bytes[i] == '{' && bytes[i + 1] == '4' && bytes[i + 2] == ':' && i + 3 < end) {
+                    // Text block opened on the same line as the headers
+                    line--;
+                    line(bytes, i + 3, end);
+                    return;
+                }
+            }
+        }
+
+        private void endField() {
+            int tag = fieldTag;
+            fieldTag = 0;
+            if (tag == 0) {
+                return;
+            }
+            if (tag == TAG_86) {
+                if (openEntry >= 0) {
+                    information(openEntry);
+                }
+                openEntry = -1;
+                return;
+            }
+            openEntry = -1;
+            if (tag == TAG_20) {
+                startMessage();
+                statementCode = intern(field, 0, field.length);
+            } else if (tag == TAG_25) {
+                accountCode = intern(field, 0, field.length);
+            } else if (tag == TAG_28C) {
+                statementCode = intern(field, 0, field.length);
+            } else if (tag == TAG_60F || tag == TAG_60M) {
+                // D/C mark, YYMMDD, currency
+                if (field.length >= 10) {
+                    currencyCode = intern(field, 7, 10);
+                }
+            } else if (tag == TAG_34F) {
+                interim = true;
+                if (currencyCode == StringDictionary.NO_CODE && field.length >= 3) {
+                    currencyCode = intern(field, 0, 3);
+                }
+            } else if (tag == TAG_13D) {
+                interim = true;
+            } else if (tag == TAG_61) {
+                openEntry = statementLine();
+            }
+        }
+
+        private void startMessage() {
+            interim = false;
+            accountCode = StringDictionary.NO_CODE;
+            statementCode = StringDictionary.NO_CODE;
+            currencyCode = StringDictionary.NO_CODE;
+        }
+
+        /**
+         * Decodes {@code YYMMDD[MMDD][R]C|D[funds]amount[type]reference[//bank reference]}
+         * from the first line of a {@code :61:} field into a new row.
+         */
+        private int statementLine() {
+            int ordinal = builder.addRow();
+            setCode(ordinal, StatementEntry.ACCOUNT_COLUMN, accountCode);
+            setCode(ordinal, StatementEntry.STATEMENT_ID_COLUMN, statementCode);
+            setCode(ordinal, StatementEntry.CURRENCY_COLUMN, currencyCode);
+            if (!interim) {
+                builder.setStringCode(ordinal, StatementEntry.STATUS_COLUMN, bookedCode);
+            }
+            byte[] bytes = field.bytes;
+            ByteBuffer view = field.view;
+            int end = 0;
+            while (end < field.length && bytes[end] != '\n') {
+                end++;
+            }
+            if (end < 6) {
+                errors.add(ordinal, "statement line too short");
+                return ordinal;
+            }
+            int year = ByteFieldDecoder.digits(view, 0, 2);
+            year += year < CENTURY_PIVOT ? 2000 : 1900;
+            int month = ByteFieldDecoder.digits(view, 2, 2);
+            int valueDate = ByteFieldDecoder.epochDay(year, month, ByteFieldDecoder.digits(view, 4, 2));
+            if (valueDate == FieldValues.NO_DATE) {
+                errors.add(ordinal, "invalid value date '" + text(0, 6) + "'");
+            } else {
+                builder.setEpochDay(ordinal, StatementEntry.VALUE_DATE_COLUMN, valueDate);
+            }
+            int i = 6;
+            if (i + 4 <= end && isDigit(bytes[i]) && ByteFieldDecoder.digits(view, i, 4) >= 0) {
+                int entryMonth = ByteFieldDecoder.digits(view, i, 2);
+                int entryYear = entryMonth == 1 && month == 12 ? year + 1 : entryMonth == 12 && month == 1 ? year - 1 : year;
+                int bookingDate = ByteFieldDecoder.epochDay(entryYear, entryMonth, ByteFieldDecoder.digits(view, i + 2, 2));
+                if (bookingDate == FieldValues.NO_DATE) {
+                    errors.add(ordinal, "invalid entry date '" + text(i, i + 4) + "'");
+                } else {
+                    builder.setEpochDay(ordinal, StatementEntry.BOOKING_DATE_COLUMN, bookingDate);
+                }
+                i += 4;
+            }
+            boolean reversal = i < end && bytes[i] == 'R';
+            if (reversal || (i < end && bytes[i] == 'E')) {
+                // RC/RD reversals; EC/ED expected entries of some MT942 producers
+                i++;
+            }
+            if (i >= end || (bytes[i] != 'C' && bytes[i] != 'D')) {
+                errors.add(ordinal, "missing debit/credit mark");
+                return ordinal;
+            }
+            boolean debit = (bytes[i++] == 'D') != reversal;
+            if (i < end && isLetter(bytes[i])) {
+                // Funds code: third letter of the currency code
+                i++;
+            }
+            int amountStart = i;
+            while (i < end && (isDigit(bytes[i]) || bytes[i] == dialect.decimalSeparator())) {
+                i++;
+            }
+            long amount = ByteFieldDecoder.minorUnits(view, amountStart, i, scale, dialect.decimalSeparator());
+            if (amount == FieldValues.NO_AMOUNT) {
+                errors.add(ordinal, "invalid amount '" + text(amountStart, i) + "'");
+            } else {
+                builder.setMinorUnits(ordinal, StatementEntry.AMOUNT_COLUMN, debit ? -amount : amount);
+            }
+            if (i + 4 <= end && (bytes[i] == 'N' || bytes[i] == 'F' || bytes[i] == 'S')) {
+                // Transaction type identification code
+                i += 4;
+            }
+            int referenceEnd = i;
+            while (referenceEnd < end && !(bytes[referenceEnd] == '/' && referenceEnd + 1 < end
+                && bytes[referenceEnd + 1] == '/')) {
+                referenceEnd++;
+            }
+            if (referenceEnd > i && !isNonReference(bytes, i, referenceEnd)) {
+                builder.setStringCode(ordinal, StatementEntry.ENTRY_REFERENCE_COLUMN, intern(field, i, referenceEnd));
+            }
+            if (referenceEnd + 2 < end) {
+                builder.setStringCode(ordinal, StatementEntry.BANK_REFERENCE_COLUMN,
+                    intern(field, referenceEnd + 2, end));
+            }
+            return ordinal;
+        }
+
+        /** Splits an {@code :86:} field into role texts and sets them on the entry's row. */
+        private void information(int ordinal) {
+            for (Bytes text : roleText) {
+                text.clear();
+            }
+            byte[] bytes = field.bytes;
+            byte marker = dialect.subfieldMarker();
+            Mt940Dialect.Role role = dialect.unkeyedRole();
+            segment.clear();
+            for (int i = 0; i < field.length; i++) {
+                byte b = bytes[i];
+                if (b == '\n') {
+                    if (dialect.joiner() != 0) {
+                        segment.append(dialect.joiner());
+                        while (i + 1 < field.length && bytes[i + 1] == ' ') {
+                            i++;
+                        }
+                    }
+                    continue;
+                }
+                if (marker != 0 && b == marker) {
+                    int opener = dialect.subfieldAt(bytes, i, field.length, keyRole);
+                    if (opener > 0) {
+                        endSegment(role);
+                        role = keyRole[0];
+                        i += opener - 1;
+                        continue;
+                    }
+                }
+                segment.append(b);
+            }
+            endSegment(role);
+            if (dialect.hasQualifiers()) {
+                splitQualifiers();
+            }
+            setText(ordinal, StatementEntry.REMITTANCE_INFO_COLUMN, Mt940Dialect.Role.REMITTANCE);
+            setText(ordinal, StatementEntry.COUNTERPARTY_COLUMN, Mt940Dialect.Role.COUNTERPARTY);
+            setText(ordinal, StatementEntry.END_TO_END_ID_COLUMN, Mt940Dialect.Role.END_TO_END_ID);
+        }
+
+        /** Adds the current subfield's text to its role. */
+        private void endSegment(Mt940Dialect.Role role) {
+            addText(role, segment.bytes, 0, segment.length, dialect.subfieldJoiner(role));
+            segment.clear();
+        }
+
+        /**
+         * Re-assigns the remittance text part by part when it holds
+         * qualifiers; text without any is left as it is.
+         */
+        private void splitQualifiers() {
+            Bytes remittance = roleText[Mt940Dialect.Role.REMITTANCE.ordinal()];
+            int first = 0;
+            while (first < remittance.length && dialect.qualifierAt(remittance.bytes, first, remittance.length, keyRole) == 0) {
+                first++;
+            }
+            if (first == remittance.length) {
+                return;
+            }
+            unsplit.clear();
+            unsplit.append(remittance.bytes, 0, remittance.length);
+            remittance.clear();
+            byte[] bytes = unsplit.bytes;
+            Mt940Dialect.Role role = Mt940Dialect.Role.REMITTANCE;
+            int start = 0;
+            for (int i = first; i < unsplit.length; i++) {
+                int opener = dialect.qualifierAt(bytes, i, unsplit.length, keyRole);
+                if (opener > 0) {
+                    addText(role, bytes, start, i, (byte) ' ');
+                    role = keyRole[0];
+                    i += opener - 1;
+                    start = i + 1;
+                }
+            }
+            addText(role, bytes, start, unsplit.length, (byte) ' ');
+        }
+
+        /** Adds text to a role: trimmed and joined, or concatenated as is with no joiner. */
+        private void addText(Mt940Dialect.Role role, byte[] bytes, int start, int end, byte joiner) {
+            if (joiner != 0) {
+                while (start < end && isPadding(bytes[start])) {
+                    start++;
+                }
+                while (end > start && isPadding(bytes[end - 1])) {
+                    end--;
+                }
+            }
+            if (role != Mt940Dialect.Role.IGNORED && start < end) {
+                Bytes text = roleText[role.ordinal()];
+                if (joiner != 0 && text.length > 0) {
+                    text.append(joiner);
+                }
+                text.append(bytes, start, end);
+            }
+        }
+
+        private boolean isPadding(byte b) {
+            return b == ' ' || b == dialect.joiner() || b == dialect.subfieldMarker();
+        }
+
+        private void setText(int ordinal, int column, Mt940Dialect.Role role) {
+            Bytes text = roleText[role.ordinal()];
+            if (text.length > 0) {
+                builder.setStringCode(ordinal, column, interner.intern(text.view, 0, text.length, false));
+            }
+        }
+
+        private void setCode(int ordinal, int column, int code) {
+            if (code != StringDictionary.NO_CODE) {
+                builder.setStringCode(ordinal, column, code);
+            }
+        }
+
+        /** Dictionary code of a field slice with surrounding spaces removed, or NO_CODE if blank. */
+        private int intern(Bytes bytes, int start, int end) {
+            while (start < end && bytes.bytes[start] == ' ') {
+                start++;
+            }
+            while (end > start && (bytes.bytes[end - 1] == ' ' || bytes.bytes[end - 1] == '\n')) {
+                end--;
+            }
+            return start < end ? interner.intern(bytes.view, start, end, false) : StringDictionary.NO_CODE;
+        }
+
+        /** Slice as text, for error messages only. */
+        private String text(int start, int end) {
+            return new String(field.bytes, start, end - start, dialect.charset());
+        }
+    }
+
+    private static boolean isNonReference(byte[] bytes, int start, int end) {
+        return end - start == 6 && bytes[start] == 'N' && bytes[start + 1] == 'O' && bytes[start + 2] == 'N'
+            && bytes[start + 3] == 'R' && bytes[start + 4] == 'E' && bytes[start + 5] == 'F';
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean isLetter(byte b) {
+        return (b >= 'A' && b <= 'Z') || (b >= 'a' && b <= 'z');
+    }
+}
@@ -31,6 +31,7 @@ import io.micrometer.core.annotation.Timed;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
 
 import lombok.Data;
 import lombok.Builder;
@@ -43,14 +44,18 @@ import javax.persistence.*;
 import javax.validation.constraints.*;
 import javax.validation.Valid;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Duration;
 import java.math.BigDecimal;
 import java.net.URI;
+import java.nio.file.Path;
 import java.util.stream.Collectors;
 
 // ===== API LAYER IMPLEMENTATION =====
@@ -67,6 +72,8 @@ public class ReconciliationController {
     private final ReconciliationJobRepository jobRepository;
     private final ReconciliationMatchRepository matchRepository;
     private final MeterRegistry meterRegistry;
+    private final TenantContextRegistry tenantContextRegistry;
+    private final ReconciliationJobTracker jobTracker;
     
     @PostMapping("/jobs")
     @Operation(summary = "Start reconciliation job across environments")
@@ -83,11 +90,14 @@ public class ReconciliationController {
         
         try {
             meterRegistry.counter("reconciliation.requests", "tenant", tenantId, "env", environment).increment();
+            if (request.getType() == ReconciliationJob.ReconciliationType.REAL_TIME) {
+                // REAL_TIME jobs consume a record stream, not two datasets; they run on StreamingReconciliationEngine
+                throw new ValidationException("REAL_TIME reconciliation runs as a streaming session, not a batch job");
+            }
             
             ReconciliationRequest internalRequest = mapToInternalRequest(request, tenantId, environment);
-            CompletableFuture<ReconciliationResult> futureResult = reconciliationEngine.startReconciliation(internalRequest);
-            
-            String jobId = extractJobIdFromFuture(futureResult);
+            String jobId = jobTracker.register(internalRequest).getJobId();
+            reconciliationEngine.startReconciliation(internalRequest);
             
             ReconciliationJobResponse response = ReconciliationJobResponse.builder()
                 .jobId(jobId)
@@ -185,15 +195,13 @@ public class ReconciliationController {
             .sourceDataset(dto.getSourceDataset())
             .targetDataset(dto.getTargetDataset())
             .configuration(dto.getConfiguration())
+            .resourceLimits(tenantContextRegistry.resourceLimits(tenantId))
             .requestId(UUID.randomUUID().toString())
+            .batchId(dto.getBatchId())
             .timestamp(LocalDateTime.now())
             .build();
     }
     
-    private String extractJobIdFromFuture(CompletableFuture<ReconciliationResult> future) {
-        return UUID.randomUUID().toString(); // Simplified for demo
-    }
-    
     private ReconciliationJobDetailDTO mapToJobDetailDTO(ReconciliationJob job) {
         return ReconciliationJobDetailDTO.builder()
             .jobId(job.getJobId())
@@ -203,6 +211,7 @@ public class ReconciliationController {
             .totalRecords(job.getTotalRecords())
             .processedRecords(job.getProcessedRecords())
             .matchedRecords(job.getMatchedRecords())
+            .passStatistics(job.getPassStatistics())
             .createdAt(job.getCreatedAt())
             .updatedAt(job.getUpdatedAt())
             .build();
@@ -232,6 +241,7 @@ public class ReconciliationController {
             .humanConfidence(match.getHumanConfidence())
             .matchedFields(match.getMatchedFields())
             .differences(match.getDifferences())
+            .matchGroupId(match.getMatchGroupId())
             .reviewedBy(match.getReviewedBy())
             .reviewedAt(match.getReviewedAt())
             .build();
@@ -250,31 +260,60 @@ public class ReconciliationController {
 @RequiredArgsConstructor
 public class CoreReconciliationEngine {
     
+    private static final long MIN_SORT_RUN_BUFFER_BYTES = 4L * 1024 * 1024;
+    private static final long MAX_SORT_RUN_BUFFER_BYTES = 64L * 1024 * 1024;
+    private static final int SORT_MERGE_FAN_IN = 64;
+    private static final int DEFAULT_AMOUNT_SCALE = 2;
+    private static final double DEFAULT_MODEL_WEIGHT = 0.2;
+    private static final long DEFAULT_ASSIGNMENT_TIME_BUDGET_MILLIS = 5_000;
+    private static final int DEFAULT_FUZZY_TOP_K = 5;
+    private static final List<ReconciliationPassDTO> DEFAULT_LADDER = List.of(
+        ReconciliationPassDTO.builder().type(ReconciliationPassDTO.PassType.EXACT).build(),
+        ReconciliationPassDTO.builder().type(ReconciliationPassDTO.PassType.TOLERANCE).build(),
+        ReconciliationPassDTO.builder().type(ReconciliationPassDTO.PassType.FUZZY).build(),
+        ReconciliationPassDTO.builder().type(ReconciliationPassDTO.PassType.AGGREGATE).build());
+    
     private final MLModelManager modelManager;
     private final EntityDeduplicationEngine deduplicationEngine;
     private final KafkaTemplate<String, Object> kafkaTemplate;
     private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final ForkJoinPool reconciliationMatchingPool;
+    private final ComparatorCompiler comparatorCompiler;
+    private final CounterpartyNormalizer counterpartyNormalizer;
+    private final OpenItemsIndex openItemsIndex;
+    private final DatasetIngestor datasetIngestor;
+    private final ReconciliationJobTracker jobTracker;
     
     @Async("reconciliationTaskExecutor")
     @Retryable(value = {Exception.class}, maxAttempts = 3)
     public CompletableFuture<ReconciliationResult> startReconciliation(ReconciliationRequest request) {
+        if (request.getType() == ReconciliationJob.ReconciliationType.REAL_TIME) {
+            throw new ValidationException("REAL_TIME reconciliation runs on StreamingReconciliationEngine");
+        }
         log.info("Starting reconciliation for tenant: {} in environment: {}", 
                 request.getTenantId(), request.getEnvironment());
         
         Timer.Sample sample = Timer.start(meterRegistry);
+        jobTracker.started(request);
         
         try {
             // Phase 1: Data ingestion and validation
             DataIngestionResult ingestionResult = ingestData(request);
             
-            // Phase 2: ML-powered matching
-            MatchingResult matchingResult = performMLMatching(ingestionResult, request);
+            // Phase 2: ML-powered matching, against carried-over open items for incremental jobs
+            MatchingResult matchingResult = isIncremental(request)
+                ? performIncrementalMatching(ingestionResult, request)
+                : performMLMatching(ingestionResult, request, request.getRequestId());
             
             // Phase 3: Entity deduplication
             DeduplicationResult deduplicationResult = deduplicateEntities(matchingResult);
             
             // Phase 4: Generate final result
-            ReconciliationResult result = buildReconciliationResult(request, deduplicationResult);
+            ReconciliationResult result = buildReconciliationResult(request, matchingResult, deduplicationResult);
+            jobTracker.completed(request,
+                (long) ingestionResult.getSourceRecords().size() + ingestionResult.getTargetRecords().size(),
+                matchingResult.getMatches().size(), matchingResult.getPassStatistics());
             
             sample.stop(Timer.builder("reconciliation.duration")
                 .tag("environment", request.getEnvironment())
@@ -285,41 +324,600 @@ public class CoreReconciliationEngine {
         } catch (Exception e) {
             log.error("Reconciliation failed for request: {}", request.getRequestId(), e);
             meterRegistry.counter("reconciliation.failures", "environment", request.getEnvironment()).increment();
+            jobTracker.failed(request, e.getMessage());
             throw new ReconciliationException("Reconciliation process failed", e);
         }
     }
     
     private DataIngestionResult ingestData(ReconciliationRequest request) {
-        // Multi-environment data ingestion logic
+        // Multi-environment data ingestion logic; both sides share one string dictionary
+        StringDictionary dictionary = new StringDictionary();
+        List<String> validationErrors = new ArrayList<>();
+        RecordBatch sourceRecords = datasetIngestor.ingest(request, request.getSourceDataset(), dictionary, validationErrors);
+        RecordBatch targetRecords = datasetIngestor.ingest(request, request.getTargetDataset(), dictionary, validationErrors);
+        normalizeCounterparties(request, sourceRecords, targetRecords);
         return DataIngestionResult.builder()
-            .sourceRecords(List.of())
-            .targetRecords(List.of())
-            .validationErrors(List.of())
+            .sourceRecords(sourceRecords)
+            .targetRecords(targetRecords)
+            .validationErrors(validationErrors)
             .build();
     }
     
-    private MatchingResult performMLMatching(DataIngestionResult ingestionResult, ReconciliationRequest request) {
-        // Use ML models for intelligent matching
+    /** Computes counterparty keys once per distinct name, ahead of pairwise scoring. */
+    private void normalizeCounterparties(ReconciliationRequest request, RecordBatch... batches) {
+        ReconciliationConfigurationDTO configuration = request.getConfiguration();
+        if (configuration != null) {
+            counterpartyNormalizer.precompute(configuration.getCounterpartyFields(), batches);
+        }
+    }
+    
+    private boolean isIncremental(ReconciliationRequest request) {
+        return request.getType() == ReconciliationJob.ReconciliationType.INCREMENTAL
+            || request.getType() == ReconciliationJob.ReconciliationType.DELTA;
+    }
+    
+    /**
+     * Matches only newly ingested records: new sources against the open
+     * targets plus new targets, then the open sources against the new targets
+     * left over. Open items never meet each other again, since they were
+     * already compared when they were first left unmatched.
+     */
+    private MatchingResult performIncrementalMatching(DataIngestionResult ingestionResult, ReconciliationRequest request) {
+        RecordBatch newSources = ingestionResult.getSourceRecords();
+        RecordBatch newTargets = ingestionResult.getTargetRecords();
+        StringDictionary dictionary = newSources.dictionary();
+        OpenItemsIndex.OpenItems open = openItemsIndex.load(request.getTenantId(), request.getSourceDataset(),
+            request.getTargetDataset(), dateFields(request.getConfiguration(), newSources, newTargets));
+        
+        // Run 1: new sources against new targets [0, newTargetCount) followed by open targets
+        List<Object> firstTargets = records(newTargets);
+        firstTargets.addAll(open.getTargetRecords());
+        RecordBatch firstTargetBatch = RecordBatch.from(firstTargets, dictionary);
+        RecordBatch openSourceBatch = RecordBatch.from(open.getSourceRecords(), dictionary);
+        normalizeCounterparties(request, firstTargetBatch, openSourceBatch);
+        MatchingResult first = performMLMatching(DataIngestionResult.builder()
+            .sourceRecords(newSources)
+            .targetRecords(firstTargetBatch)
+            .build(), request, request.getRequestId() + "-new");
+        
+        // Run 2: open sources against the new targets run 1 left unmatched
+        int[] leftoverNewTargets = Arrays.stream(first.getUnmatchedTargetOrdinals())
+            .filter(ordinal -> ordinal < newTargets.size())
+            .toArray();
+        MatchingResult second = performMLMatching(DataIngestionResult.builder()
+            .sourceRecords(openSourceBatch)
+            .targetRecords(newTargets.select(leftoverNewTargets))
+            .build(), request, request.getRequestId() + "-open");
+        
+        List<Long> closedItemIds = new ArrayList<>();
+        BitSet stillOpenSources = toBitSet(second.getUnmatchedSourceOrdinals());
+        for (int i = 0; i < open.getSourceIds().size(); i++) {
+            if (!stillOpenSources.get(i)) {
+                closedItemIds.add(open.getSourceIds().get(i));
+            }
+        }
+        BitSet unmatchedFirstTargets = toBitSet(first.getUnmatchedTargetOrdinals());
+        for (int i = 0; i < open.getTargetIds().size(); i++) {
+            if (!unmatchedFirstTargets.get(newTargets.size() + i)) {
+                closedItemIds.add(open.getTargetIds().get(i));
+            }
+        }
+        List<Object> openedSources = new ArrayList<>();
+        for (int ordinal : first.getUnmatchedSourceOrdinals()) {
+            openedSources.add(newSources.record(ordinal));
+        }
+        List<Object> openedTargets = new ArrayList<>();
+        for (int ordinal : second.getUnmatchedTargetOrdinals()) {
+            openedTargets.add(newTargets.record(leftoverNewTargets[ordinal]));
+        }
+        if (openItemsIndex.update(request, closedItemIds, openedSources, openedTargets)) {
+            meterRegistry.counter("reconciliation.open.items.closed", "environment", request.getEnvironment())
+                .increment(closedItemIds.size());
+        } else {
+            meterRegistry.counter("reconciliation.open.items.replayed", "environment", request.getEnvironment())
+                .increment();
+        }
+        
+        List<ReconciliationMatch> matches = new ArrayList<>(first.getMatches());
+        matches.addAll(second.getMatches());
+        List<Object> unmatchedSources = records(second.getUnmatched());
+        unmatchedSources.addAll(openedSources);
+        List<Object> unmatchedTargets = new ArrayList<>();
+        for (int i = 0; i < open.getTargetIds().size(); i++) {
+            if (unmatchedFirstTargets.get(newTargets.size() + i)) {
+                unmatchedTargets.add(open.getTargetRecords().get(i));
+            }
+        }
+        unmatchedTargets.addAll(openedTargets);
+        return MatchingResult.builder()
+            .matches(matches)
+            .unmatched(RecordBatch.from(unmatchedSources, dictionary))
+            .unmatchedTargets(RecordBatch.from(unmatchedTargets, dictionary))
+            .passStatistics(combinePassStatistics(first.getPassStatistics(), second.getPassStatistics()))
+            .build();
+    }
+    
+    /** Sums two runs of the same ladder pass by pass; the shorter run stopped early for lack of residual. */
+    private List<PassStatistics> combinePassStatistics(List<PassStatistics> first, List<PassStatistics> second) {
+        List<PassStatistics> longer = first.size() >= second.size() ? first : second;
+        List<PassStatistics> shorter = longer == first ? second : first;
+        List<PassStatistics> combined = new ArrayList<>(longer.size());
+        for (int p = 0; p < longer.size(); p++) {
+            PassStatistics pass = longer.get(p);
+            if (p >= shorter.size()) {
+                combined.add(pass);
+                continue;
+            }
+            PassStatistics other = shorter.get(p);
+            combined.add(PassStatistics.builder()
+                .passName(pass.getPassName())
+                .passType(pass.getPassType())
+                .durationMillis(pass.getDurationMillis() + other.getDurationMillis())
+                .matchCount(pass.getMatchCount() + other.getMatchCount())
+                .matchedSources(pass.getMatchedSources() + other.getMatchedSources())
+                .matchedTargets(pass.getMatchedTargets() + other.getMatchedTargets())
+                .build());
+        }
+        return combined;
+    }
+    
+    /** Fields to restore as dates on open items: the configured date field plus date columns of either feed. */
+    private Set<String> dateFields(ReconciliationConfigurationDTO configuration, RecordBatch... batches) {
+        Set<String> dateFields = new HashSet<>();
+        if (configuration != null && configuration.getDateField() != null) {
+            dateFields.add(configuration.getDateField());
+        }
+        for (RecordBatch batch : batches) {
+            for (int c = 0; c < batch.schema().columnCount(); c++) {
+                if (batch.schema().type(c) == RecordSchema.ColumnType.DATE) {
+                    dateFields.add(batch.schema().name(c));
+                }
+            }
+        }
+        return dateFields;
+    }
+    
+    private List<Object> records(RecordBatch batch) {
+        List<Object> records = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            records.add(batch.record(i));
+        }
+        return records;
+    }
+    
+    private BitSet toBitSet(int[] ordinals) {
+        BitSet bits = new BitSet();
+        for (int ordinal : ordinals) {
+            bits.set(ordinal);
+        }
+        return bits;
+    }
+    
+    /**
+     * Runs the job's pass ladder. Each pass sees only the records no earlier
+     * pass matched, tracked as one bitmap per side, and stops early once
+     * either side is exhausted. Without configured passes the ladder is
+     * exact, tolerance, fuzzy, aggregate on the job-level settings.
+     */
+    private MatchingResult performMLMatching(DataIngestionResult ingestionResult, ReconciliationRequest request,
+                                             String runId) {
+        LadderState state = new LadderState(request, runId, ingestionResult.getSourceRecords(),
+            ingestionResult.getTargetRecords(), matchingParallelism(request.getResourceLimits()));
+        ReconciliationConfigurationDTO configuration = request.getConfiguration() != null
+            ? request.getConfiguration() : ReconciliationConfigurationDTO.builder().build();
+        List<ReconciliationPassDTO> ladder = configuration.getPasses() != null && !configuration.getPasses().isEmpty()
+            ? configuration.getPasses() : DEFAULT_LADDER;
+        
+        List<PassStatistics> passStatistics = new ArrayList<>(ladder.size());
+        for (ReconciliationPassDTO pass : ladder) {
+            if (!state.hasResidual()) {
+                break;
+            }
+            ReconciliationConfigurationDTO passConfiguration = passConfiguration(configuration, pass);
+            int matchesBefore = state.matches.size();
+            int sourcesBefore = state.matchedSources.cardinality();
+            int targetsBefore = state.matchedTargets.cardinality();
+            long started = System.nanoTime();
+            switch (pass.getType()) {
+                case EXACT:
+                    exactPass(state, passConfiguration);
+                    break;
+                case TOLERANCE:
+                    tolerancePass(state, passConfiguration);
+                    break;
+                case FUZZY:
+                    fuzzyPass(state, passConfiguration);
+                    break;
+                case AGGREGATE:
+                    aggregatePass(state, passConfiguration);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown pass type " + pass.getType());
+            }
+            long elapsedNanos = System.nanoTime() - started;
+            String passName = pass.getName() != null ? pass.getName() : pass.getType().name().toLowerCase();
+            Timer.builder("reconciliation.pass.duration")
+                .tag("environment", request.getEnvironment())
+                .tag("pass", passName)
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+            long matchCount = (long) state.matches.size() - matchesBefore;
+            meterRegistry.counter("reconciliation.pass.matches",
+                "environment", request.getEnvironment(), "pass", passName).increment(matchCount);
+            passStatistics.add(PassStatistics.builder()
+                .passName(passName)
+                .passType(pass.getType())
+                .durationMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos))
+                .matchCount(matchCount)
+                .matchedSources((long) state.matchedSources.cardinality() - sourcesBefore)
+                .matchedTargets((long) state.matchedTargets.cardinality() - targetsBefore)
+                .build());
+        }
+        
+        RecordBatch source = state.source;
+        RecordBatch target = state.target;
         return MatchingResult.builder()
-            .matches(List.of())
-            .unmatched(List.of())
+            .matches(state.matches)
+            .unmatched(residual(source, state.matchedSources))
+            .unmatchedTargets(residual(target, state.matchedTargets))
+            .unmatchedSourceOrdinals(unmatchedOrdinals(source, state.matchedSources))
+            .unmatchedTargetOrdinals(unmatchedOrdinals(target, state.matchedTargets))
+            .passStatistics(passStatistics)
+            .build();
+    }
+    
+    /** The job-level configuration with the pass's own settings laid over it. */
+    private ReconciliationConfigurationDTO passConfiguration(ReconciliationConfigurationDTO configuration,
+                                                             ReconciliationPassDTO pass) {
+        ReconciliationConfigurationDTO.ReconciliationConfigurationDTOBuilder builder = configuration.toBuilder();
+        if (pass.getMatchingFields() != null) {
+            builder.matchingFields(pass.getMatchingFields());
+        }
+        if (pass.getAmountField() != null) {
+            builder.amountField(pass.getAmountField());
+        }
+        if (pass.getAmountTolerance() != null || pass.getAmountTolerancePercent() != null) {
+            builder.amountTolerance(pass.getAmountTolerance()).amountTolerancePercent(pass.getAmountTolerancePercent());
+        }
+        if (pass.getDateField() != null) {
+            builder.dateField(pass.getDateField());
+        }
+        if (pass.getDateWindowDays() != null) {
+            builder.dateWindowDays(pass.getDateWindowDays());
+        }
+        if (pass.getFuzzyMatchThreshold() != null) {
+            builder.fuzzyMatchThreshold(pass.getFuzzyMatchThreshold());
+        }
+        if (pass.getEnableMLMatching() != null) {
+            builder.enableMLMatching(pass.getEnableMLMatching());
+        }
+        if (pass.getModelWeight() != null) {
+            builder.modelWeight(pass.getModelWeight());
+        }
+        if (pass.getCounterpartyFields() != null) {
+            builder.counterpartyFields(pass.getCounterpartyFields());
+        }
+        if (pass.getBlockingKeys() != null) {
+            builder.blockingKeys(pass.getBlockingKeys());
+        }
+        if (pass.getSimilarityIndex() != null) {
+            builder.similarityIndex(pass.getSimilarityIndex());
+        }
+        if (pass.getFuzzyTopK() != null) {
+            builder.fuzzyTopK(pass.getFuzzyTopK());
+        }
+        if (pass.getAggregateMatching() != null) {
+            builder.aggregateMatching(pass.getAggregateMatching());
+        }
+        return builder.build();
+    }
+    
+    /**
+     * Exact matching on the pass's fields in O(n + m), by external sort-merge
+     * when the job would not fit in the tenant's memory budget, or over hash
+     * partitions when the tenant allows parallel matching.
+     */
+    private void exactPass(LadderState state, ReconciliationConfigurationDTO configuration) {
+        List<String> matchingFields = resolveMatchingFields(configuration);
+        if (matchingFields.isEmpty()) {
+            return;
+        }
+        ReconciliationRequest request = state.request;
+        int[] sourceOrdinals = unmatchedOrdinals(state.source, state.matchedSources);
+        int[] targetOrdinals = unmatchedOrdinals(state.target, state.matchedTargets);
+        MatchPairs exactPairs;
+        if (selectMatchingMode(request) == ReconciliationConfigurationDTO.MatchingMode.EXTERNAL_SORT_MERGE) {
+            ExternalSortMergeMatcher sortMergeMatcher = new ExternalSortMergeMatcher(
+                Path.of(System.getProperty("java.io.tmpdir")), sortRunBufferBytes(request.getResourceLimits()), SORT_MERGE_FAN_IN);
+            exactPairs = sortMergeMatcher.match(state.source, sourceOrdinals, state.target, targetOrdinals, matchingFields);
+            meterRegistry.counter("reconciliation.prefilter.rejections", "environment", request.getEnvironment())
+                .increment(sortMergeMatcher.prefilterRejections());
+        } else if (state.parallelism > 1) {
+            exactPairs = new PartitionedMatcher(reconciliationMatchingPool, state.parallelism)
+                .match(state.source, sourceOrdinals, state.target, targetOrdinals, matchingFields, null)
+                .getExactPairs();
+        } else {
+            exactPairs = HashJoinMatcher.match(state.source, sourceOrdinals, state.target, targetOrdinals, matchingFields);
+        }
+        for (int i = 0; i < exactPairs.size(); i++) {
+            int s = exactPairs.sourceOrdinal(i);
+            int t = exactPairs.targetOrdinal(i);
+            state.matchedSources.set(s);
+            state.matchedTargets.set(t);
+            state.matches.add(buildMatch(request, state.source.record(s), state.target.record(t),
+                ReconciliationMatch.MatchStatus.EXACT_MATCH, 1.0, matchingFields, List.of()));
+        }
+        meterRegistry.counter("reconciliation.matches", "environment", request.getEnvironment(), "type", "exact")
+            .increment(exactPairs.size());
+    }
+    
+    /** Amount-tolerance and value-date window matching on the remaining key fields. */
+    private void tolerancePass(LadderState state, ReconciliationConfigurationDTO configuration) {
+        ToleranceMatcher toleranceMatcher = ToleranceMatcher.fromConfiguration(configuration,
+            resolveMatchingFields(configuration), amountScale(configuration));
+        if (toleranceMatcher == null) {
+            return;
+        }
+        ReconciliationRequest request = state.request;
+        int[] sourceOrdinals = unmatchedOrdinals(state.source, state.matchedSources);
+        int[] targetOrdinals = unmatchedOrdinals(state.target, state.matchedTargets);
+        MatchPairs tolerancePairs = state.parallelism > 1
+            ? new PartitionedMatcher(reconciliationMatchingPool, state.parallelism)
+                .match(state.source, sourceOrdinals, state.target, targetOrdinals, null, toleranceMatcher)
+                .getTolerancePairs()
+            : toleranceMatcher.match(state.source, sourceOrdinals, state.target, targetOrdinals);
+        for (int i = 0; i < tolerancePairs.size(); i++) {
+            int s = tolerancePairs.sourceOrdinal(i);
+            int t = tolerancePairs.targetOrdinal(i);
+            state.matchedSources.set(s);
+            state.matchedTargets.set(t);
+            List<String> differences = toleranceMatcher.describeDifferences(state.source, s, state.target, t);
+            state.matches.add(buildMatch(request, state.source.record(s), state.target.record(t),
+                differences.isEmpty() ? ReconciliationMatch.MatchStatus.EXACT_MATCH : ReconciliationMatch.MatchStatus.PARTIAL_MATCH,
+                tolerancePairs.score(i), toleranceMatcher.keyFields(), differences));
+        }
+        meterRegistry.counter("reconciliation.matches", "environment", request.getEnvironment(), "type", "tolerance")
+            .increment(tolerancePairs.size());
+    }
+    
+    /** Fuzzy scoring of the residue, restricted to blocked and LSH candidate pairs. */
+    private void fuzzyPass(LadderState state, ReconciliationConfigurationDTO configuration) {
+        List<String> matchingFields = resolveMatchingFields(configuration);
+        if (configuration.getFuzzyMatchThreshold() == null || matchingFields.isEmpty()) {
+            return;
+        }
+        ReconciliationRequest request = state.request;
+        boolean blocked = configuration.getBlockingKeys() != null && !configuration.getBlockingKeys().isEmpty();
+        if (!blocked && configuration.getSimilarityIndex() == null) {
+            // Scoring the full cross product of the residue does not scale; require a way to prune it
+            log.warn("Skipping fuzzy pass for request {}: neither blocking keys nor a similarity index is configured",
+                request.getRequestId());
+            meterRegistry.counter("reconciliation.fuzzy.skipped", "tenant", request.getTenantId()).increment();
+            return;
+        }
+        RecordBatch source = state.source;
+        RecordBatch target = state.target;
+        CandidatePairs candidates = fuzzyCandidates(request, configuration, source,
+            unmatchedOrdinals(source, state.matchedSources), target, unmatchedOrdinals(target, state.matchedTargets));
+        ScoringCascade cascade = new ScoringCascade(comparatorCompiler.compile(matchingFields,
+                configuration.getCounterpartyFields(), source, target),
+            Boolean.TRUE.equals(configuration.getEnableMLMatching()) ? modelManager : null, modelWeight(configuration));
+        FuzzyMatchScorer scorer = new FuzzyMatchScorer(matchingFields, configuration.getFuzzyMatchThreshold(), cascade);
+        // Only each source's best k candidates are kept for assignment and review
+        MatchPairs scoredPairs = scorer.scoreTopK(source, target, candidates, fuzzyTopK(configuration));
+        cascade.publishExits(meterRegistry, request.getEnvironment());
+        // Contested candidates are resolved by a global maximum-score assignment, not first come first served
+        AssignmentSolver.AssignmentResult assignment = new AssignmentSolver(reconciliationMatchingPool,
+            state.parallelism, assignmentTimeBudgetMillis(configuration)).solve(scoredPairs);
+        if (assignment.getGreedyFallbacks() > 0) {
+            meterRegistry.counter("reconciliation.assignment.greedy.fallbacks", "environment", request.getEnvironment())
+                .increment(assignment.getGreedyFallbacks());
+        }
+        MatchPairs fuzzyPairs = assignment.getPairs();
+        for (int i = 0; i < fuzzyPairs.size(); i++) {
+            int s = fuzzyPairs.sourceOrdinal(i);
+            int t = fuzzyPairs.targetOrdinal(i);
+            state.matchedSources.set(s);
+            state.matchedTargets.set(t);
+            List<String> matchedFields = new ArrayList<>();
+            List<String> differences = new ArrayList<>();
+            scorer.describe(source, s, target, t, matchedFields, differences);
+            state.matches.add(buildMatch(request, source.record(s), target.record(t),
+                ReconciliationMatch.MatchStatus.FUZZY_MATCH, fuzzyPairs.score(i), matchedFields, differences));
+        }
+        meterRegistry.counter("reconciliation.matches", "environment", request.getEnvironment(), "type", "fuzzy")
+            .increment(fuzzyPairs.size());
+    }
+    
+    /** Many-to-one and one-to-many aggregates over the remaining residue. */
+    private void aggregatePass(LadderState state, ReconciliationConfigurationDTO configuration) {
+        AggregateMatcher aggregateMatcher = AggregateMatcher.fromConfiguration(configuration, amountScale(configuration));
+        if (aggregateMatcher == null) {
+            return;
+        }
+        ReconciliationRequest request = state.request;
+        RecordBatch source = state.source;
+        RecordBatch target = state.target;
+        AggregateMatcher.AggregateResult aggregates = aggregateMatcher.match(
+            source, unmatchedOrdinals(source, state.matchedSources), target, unmatchedOrdinals(target, state.matchedTargets));
+        int scale = amountScale(configuration);
+        for (AggregateMatcher.AggregateGroup group : aggregates.getGroups()) {
+            String matchGroupId = state.runId + "-agg-" + state.aggregateGroups++;
+            List<String> differences = List.of(String.format("aggregate: %d source record(s) totalling %s vs %d target record(s) totalling %s",
+                group.getSourceOrdinals().length, BigDecimal.valueOf(group.getSourceTotal(), scale).toPlainString(),
+                group.getTargetOrdinals().length, BigDecimal.valueOf(group.getTargetTotal(), scale).toPlainString()));
+            for (int s : group.getSourceOrdinals()) {
+                state.matchedSources.set(s);
+                for (int t : group.getTargetOrdinals()) {
+                    state.matchedTargets.set(t);
+                    ReconciliationMatch match = buildMatch(request, source.record(s), target.record(t),
+                        ReconciliationMatch.MatchStatus.AGGREGATE_MATCH, group.confidence(),
+                        aggregateMatcher.groupByFields(), differences);
+                    match.setMatchGroupId(matchGroupId);
+                    state.matches.add(match);
+                }
+            }
+        }
+        meterRegistry.counter("reconciliation.matches", "environment", request.getEnvironment(), "type", "aggregate")
+            .increment(aggregates.getGroups().size());
+        if (aggregates.getExhaustedGroups() > 0) {
+            meterRegistry.counter("reconciliation.aggregate.budget.exhausted", "environment", request.getEnvironment())
+                .increment(aggregates.getExhaustedGroups());
+        }
+    }
+    
+    private CandidatePairs fuzzyCandidates(ReconciliationRequest request, ReconciliationConfigurationDTO configuration,
+                                           RecordSet source, int[] sourceOrdinals, RecordSet target, int[] targetOrdinals) {
+        MinHashLshIndex similarityIndex = MinHashLshIndex.fromConfiguration(configuration);
+        if (similarityIndex == null) {
+            return new BlockingCandidateGenerator(configuration.getBlockingKeys(), meterRegistry)
+                .generate(source, sourceOrdinals, target, targetOrdinals, request.getTenantId());
+        }
+        CandidatePairs similar = similarityIndex.candidates(source, sourceOrdinals, target, targetOrdinals);
+        meterRegistry.counter("reconciliation.lsh.candidate.pairs", "tenant", request.getTenantId())
+            .increment(similar.pairCount());
+        // The similarity index stands in for blocking when no blocking keys are set
+        if (configuration.getBlockingKeys() == null || configuration.getBlockingKeys().isEmpty()) {
+            return similar;
+        }
+        CandidatePairs blocked = new BlockingCandidateGenerator(configuration.getBlockingKeys(), meterRegistry)
+            .generate(source, sourceOrdinals, target, targetOrdinals, request.getTenantId());
+        return CandidatePairs.union(blocked, similar);
+    }
+    
+    /**
+     * Sort-merge only when the job asks for it. Both batches are already on
+     * the heap by the time the exact pass runs, and sort-merge bounds only the
+     * key tables, so AUTO keeps the in-memory join, partitioned across workers
+     * when the job has more than one.
+     */
+    private ReconciliationConfigurationDTO.MatchingMode selectMatchingMode(ReconciliationRequest request) {
+        ReconciliationConfigurationDTO.MatchingMode requested = request.getConfiguration().getMatchingMode();
+        return requested == ReconciliationConfigurationDTO.MatchingMode.EXTERNAL_SORT_MERGE
+            ? requested : ReconciliationConfigurationDTO.MatchingMode.IN_MEMORY_HASH_JOIN;
+    }
+    
+    private long sortRunBufferBytes(SecureTenantContext.ResourceLimits limits) {
+        if (limits == null || limits.getMaxMemoryUsage() <= 0) {
+            return MAX_SORT_RUN_BUFFER_BYTES;
+        }
+        return Math.max(MIN_SORT_RUN_BUFFER_BYTES, Math.min(MAX_SORT_RUN_BUFFER_BYTES, limits.getMaxMemoryUsage() / 4));
+    }
+    
+    private int matchingParallelism(SecureTenantContext.ResourceLimits limits) {
+        int poolParallelism = reconciliationMatchingPool.getParallelism();
+        if (limits == null || limits.getMatchingParallelism() <= 0) {
+            return poolParallelism;
+        }
+        return Math.min(poolParallelism, limits.getMatchingParallelism());
+    }
+    
+    private long assignmentTimeBudgetMillis(ReconciliationConfigurationDTO configuration) {
+        return configuration.getAssignmentTimeBudgetMillis() != null
+            ? configuration.getAssignmentTimeBudgetMillis() : DEFAULT_ASSIGNMENT_TIME_BUDGET_MILLIS;
+    }
+    
+    private int fuzzyTopK(ReconciliationConfigurationDTO configuration) {
+        return configuration.getFuzzyTopK() != null ? configuration.getFuzzyTopK() : DEFAULT_FUZZY_TOP_K;
+    }
+    
+    private double modelWeight(ReconciliationConfigurationDTO configuration) {
+        return configuration.getModelWeight() != null ? configuration.getModelWeight() : DEFAULT_MODEL_WEIGHT;
+    }
+    
+    private int amountScale(ReconciliationConfigurationDTO configuration) {
+        return configuration.getAmountScale() != null ? configuration.getAmountScale() : DEFAULT_AMOUNT_SCALE;
+    }
+    
+    private List<String> resolveMatchingFields(ReconciliationConfigurationDTO configuration) {
+        if (configuration == null || configuration.getMatchingFields() == null) {
+            return List.of();
+        }
+        return configuration.getMatchingFields();
+    }
+    
+    private int[] unmatchedOrdinals(RecordSet records, BitSet matched) {
+        int[] ordinals = new int[records.size() - matched.cardinality()];
+        int next = 0;
+        for (int i = matched.nextClearBit(0); i < records.size(); i = matched.nextClearBit(i + 1)) {
+            ordinals[next++] = i;
+        }
+        return ordinals;
+    }
+    
+    private RecordBatch residual(RecordBatch records, BitSet matched) {
+        return records.select(unmatchedOrdinals(records, matched));
+    }
+    
+    private ReconciliationMatch buildMatch(ReconciliationRequest request, Object sourceRecord, Object targetRecord,
+                                           ReconciliationMatch.MatchStatus status, double confidence,
+                                           List<String> matchedFields, List<String> differences) {
+        return ReconciliationMatch.builder()
+            .jobId(request.getRequestId())
+            .tenantId(request.getTenantId())
+            .sourceRecord(toRecordJson(sourceRecord))
+            .targetRecord(toRecordJson(targetRecord))
+            .matchStatus(status)
+            .confidenceScore(confidence)
+            .matchedFields(new ArrayList<>(matchedFields))
+            .differences(new ArrayList<>(differences))
             .build();
     }
     
+    private String toRecordJson(Object record) {
+        try {
+            return objectMapper.writeValueAsString(record);
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to serialize record for match output, falling back to toString", e);
+            return String.valueOf(record);
+        }
+    }
+    
     private DeduplicationResult deduplicateEntities(MatchingResult matchingResult) {
+        RecordBatch none = matchingResult.getUnmatched().select(new int[0]);
         return DeduplicationResult.builder()
-            .deduplicated(List.of())
-            .duplicates(List.of())
+            .deduplicated(none)
+            .duplicates(none)
             .build();
     }
     
-    private ReconciliationResult buildReconciliationResult(ReconciliationRequest request, DeduplicationResult deduplicationResult) {
+    private ReconciliationResult buildReconciliationResult(ReconciliationRequest request, MatchingResult matchingResult,
+                                                           DeduplicationResult deduplicationResult) {
         return ReconciliationResult.builder()
             .jobId(request.getRequestId())
             .status("COMPLETED")
             .environment(request.getEnvironment())
+            .passStatistics(matchingResult.getPassStatistics())
             .build();
     }
+    
+    /** Per-run matching state: the records and the bitmaps of what earlier passes matched. */
+    private static final class LadderState {
+        private final ReconciliationRequest request;
+        private final String runId;
+        private final RecordBatch source;
+        private final RecordBatch target;
+        private final int parallelism;
+        private final BitSet matchedSources;
+        private final BitSet matchedTargets;
+        private final List<ReconciliationMatch> matches = new ArrayList<>();
+        private int aggregateGroups;
+        
+        private LadderState(ReconciliationRequest request, String runId, RecordBatch source, RecordBatch target,
+                            int parallelism) {
+            this.request = request;
+            this.runId = runId;
+            this.source = source;
+            this.target = target;
+            this.parallelism = parallelism;
+            this.matchedSources = new BitSet(source.size());
+            this.matchedTargets = new BitSet(target.size());
+        }
+        
+        private boolean hasResidual() {
+            return matchedSources.cardinality() < source.size() && matchedTargets.cardinality() < target.size();
+        }
+    }
 }
 
 // ===== ENHANCED REPOSITORY IMPLEMENTATIONS =====
@@ -370,6 +968,33 @@ public interface ReconciliationMatchRepository extends JpaRepository<Reconciliat
                               @Param("status") ReconciliationMatch.MatchStatus status);
 }
 
+@Repository
+public interface OpenReconciliationItemRepository extends JpaRepository<OpenReconciliationItem, Long> {
+    
+    @Query("SELECT o FROM OpenReconciliationItem o WHERE o.tenantId = :tenantId " +
+           "AND o.sourceDataset = :sourceDataset AND o.targetDataset = :targetDataset " +
+           "AND o.side = :side ORDER BY o.id")
+    List<OpenReconciliationItem> findOpenItems(@Param("tenantId") String tenantId,
+                                               @Param("sourceDataset") String sourceDataset,
+                                               @Param("targetDataset") String targetDataset,
+                                               @Param("side") OpenReconciliationItem.Side side);
+    
+    @Modifying
+    @Query("DELETE FROM OpenReconciliationItem o WHERE o.tenantId = :tenantId AND o.id IN :ids")
+    int deleteByTenantIdAndIdIn(@Param("tenantId") String tenantId, @Param("ids") Collection<Long> ids);
+}
+
+@Repository
+public interface OpenItemsBatchRepository extends JpaRepository<OpenItemsBatch, Long> {
+    
+    @Query("SELECT COUNT(b) > 0 FROM OpenItemsBatch b WHERE b.tenantId = :tenantId " +
+           "AND b.sourceDataset = :sourceDataset AND b.targetDataset = :targetDataset AND b.batchId = :batchId")
+    boolean isApplied(@Param("tenantId") String tenantId,
+                      @Param("sourceDataset") String sourceDataset,
+                      @Param("targetDataset") String targetDataset,
+                      @Param("batchId") String batchId);
+}
+
 // ===== ENTITY MODELS =====
 
 @Entity
@@ -404,6 +1029,11 @@ public class ReconciliationJob {
     private Long matchedRecords;
     private String errorMessage;
     
+    @ElementCollection
+    @CollectionTable(name = "reconciliation_job_passes")
+    @OrderColumn(name = "pass_index")
+    private List<PassStatistics> passStatistics;
+    
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
@@ -454,11 +1084,101 @@ public class ReconciliationMatch {
     private LocalDateTime reviewedAt;
     private String reviewComments;
     
+    // Shared by all rows of a many-to-one or one-to-many aggregate match
+    private String matchGroupId;
+    
     public enum MatchStatus {
-        EXACT_MATCH, FUZZY_MATCH, PARTIAL_MATCH, NO_MATCH, PENDING_REVIEW, REVIEWED
+        EXACT_MATCH, FUZZY_MATCH, PARTIAL_MATCH, AGGREGATE_MATCH, NO_MATCH, PENDING_REVIEW, REVIEWED
     }
 }
 
+// Timing and outcome of one pass of a job's matching ladder
+@Embeddable
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PassStatistics {
+    private String passName;
+    
+    @Enumerated(EnumType.STRING)
+    private ReconciliationPassDTO.PassType passType;
+    
+    private Long durationMillis;
+    private Long matchCount;
+    private Long matchedSources;
+    private Long matchedTargets;
+}
+
+// Unmatched record carried forward to later INCREMENTAL and DELTA runs of the same dataset pair
+@Entity
+@Table(name = "reconciliation_open_items",
+       indexes = @Index(name = "idx_open_items_pair", columnList = "tenantId, sourceDataset, targetDataset, side"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OpenReconciliationItem {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String tenantId;
+    
+    @Column(nullable = false)
+    private String sourceDataset;
+    
+    @Column(nullable = false)
+    private String targetDataset;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Side side;
+    
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String record;
+    
+    private String firstSeenJobId;
+    private LocalDateTime firstSeenAt;
+    
+    public enum Side {
+        SOURCE, TARGET
+    }
+}
+
+// Marks a batch whose open-item changes were committed, so a retry or re-submission does not apply them twice
+@Entity
+@Table(name = "reconciliation_open_item_batches",
+       uniqueConstraints = @UniqueConstraint(name = "uk_open_item_batches",
+           columnNames = {"tenantId", "sourceDataset", "targetDataset", "batchId"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OpenItemsBatch {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String tenantId;
+    
+    @Column(nullable = false)
+    private String sourceDataset;
+    
+    @Column(nullable = false)
+    private String targetDataset;
+    
+    @Column(nullable = false)
+    private String batchId;
+    
+    private String jobId;
+    private Integer closedItems;
+    private Integer openedItems;
+    private LocalDateTime appliedAt;
+}
+
 // ===== DTO CLASSES =====
 
 @Data
@@ -474,7 +1194,12 @@ public class ReconciliationRequestDTO {
     @NotBlank
     private String targetDataset;
     
+    @Valid
     private ReconciliationConfigurationDTO configuration;
+    
+    // Caller's id for an INCREMENTAL or DELTA batch; re-submitting it does not reopen its records
+    @Size(max = 128)
+    private String batchId;
 }
 
 @Data
@@ -497,6 +1222,7 @@ public class ReconciliationJobDetailDTO {
     private Long totalRecords;
     private Long processedRecords;
     private Long matchedRecords;
+    private List<PassStatistics> passStatistics;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
@@ -512,6 +1238,7 @@ public class ReconciliationMatchDTO {
     private Double humanConfidence;
     private List<String> matchedFields;
     private List<String> differences;
+    private String matchGroupId;
     private String reviewedBy;
     private LocalDateTime reviewedAt;
 }
@@ -542,24 +1269,246 @@ public class MatchUpdateRequest {
 // ===== CONFIGURATION CLASSES =====
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class ReconciliationConfigurationDTO {
     private Double fuzzyMatchThreshold;
     private Boolean enableMLMatching;
+    
+    @DecimalMin(value = "0.0", inclusive = false)
+    @DecimalMax(value = "1.0", inclusive = false)
+    private Double modelWeight;
+    
     private List<String> matchingFields;
+    private List<String> counterpartyFields;
     private String environment;
+    private MatchingMode matchingMode;
+    
+    @Valid
+    private List<BlockingKeyDTO> blockingKeys;
+    
+    private String amountField;
+    private Integer amountScale;
+    private BigDecimal amountTolerance;
+    private BigDecimal amountTolerancePercent;
+    private String dateField;
+    private Integer dateWindowDays;
+    
+    @Valid
+    private BusinessCalendarDTO businessCalendar;
+    
+    @Valid
+    private AggregateMatchingDTO aggregateMatching;
+    
+    @Valid
+    private SimilarityIndexDTO similarityIndex;
+    
+    @Valid
+    private StreamingWindowDTO streamingWindow;
+    
+    @Valid
+    private CsvFormatDTO csvFormat;
+    
+    @Valid
+    private StatementFormatDTO statementFormat;
+    
+    @Positive
+    private Long assignmentTimeBudgetMillis;
+    
+    @Positive
+    private Integer fuzzyTopK;
+    
+    /** Ordered matching passes; when empty, exact, tolerance, fuzzy and aggregate run on the settings above. */
+    @Valid
+    private List<ReconciliationPassDTO> passes;
+    
+    /**
+     * EXTERNAL_SORT_MERGE bounds only the exact-match sort keys; both batches
+     * and the match results stay on the heap, so it relieves jobs whose key
+     * tables would not fit, not jobs whose records do not. AUTO never picks
+     * it: ingested batches are already in memory.
+     */
+    public enum MatchingMode {
+        AUTO, IN_MEMORY_HASH_JOIN, EXTERNAL_SORT_MERGE
+    }
+}
+
+@Data
+@Builder
+public class BlockingKeyDTO {
+    @NotNull
+    private BlockingStrategy strategy;
+    // Required by FIELD_EQUALITY and REFERENCE_PREFIX; checked per strategy when the key is built
+    private List<String> fields;
+    private String amountField;
+    private String dateField;
+    @Positive
+    private BigDecimal amountBucketSize;
+    @PositiveOrZero
+    private Integer dateWindowDays;
+    @Positive
+    private Integer prefixLength;
+    
+    public enum BlockingStrategy {
+        FIELD_EQUALITY, REFERENCE_PREFIX, AMOUNT_BUCKET_DATE_WINDOW
+    }
+}
+
+@Data
+@Builder
+public class BusinessCalendarDTO {
+    @Size(max = 6)
+    private Set<DayOfWeek> weekendDays;
+    
+    private List<LocalDate> holidays;
+}
+
+@Data
+@Builder
+public class AggregateMatchingDTO {
+    private List<String> groupByFields;
+    private Integer dateWindowDays;
+    
+    @Min(2)
+    private Integer maxGroupSize;
+    
+    @Positive
+    private Long nodeBudget;
+    
+    @Positive
+    private Long timeBudgetMillis;
+}
+
+@Data
+@Builder
+public class SimilarityIndexDTO {
+    @NotEmpty
+    private List<String> fields;
+    
+    @Min(1)
+    private Integer shingleSize;
+    
+    @Min(1)
+    private Integer bands;
+    
+    @Min(1)
+    private Integer rowsPerBand;
+    
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private Double jaccardThreshold;
+}
+
+@Data
+@Builder
+public class ReconciliationPassDTO {
+    @NotNull
+    private PassType type;
+    
+    private String name;
+    
+    // Settings below override the job-level ones for this pass only; unset ones are inherited
+    private List<String> matchingFields;
+    private String amountField;
+    private BigDecimal amountTolerance;
+    private BigDecimal amountTolerancePercent;
+    private String dateField;
+    private Integer dateWindowDays;
+    private Double fuzzyMatchThreshold;
+    private Boolean enableMLMatching;
+    
+    @DecimalMin(value = "0.0", inclusive = false)
+    @DecimalMax(value = "1.0", inclusive = false)
+    private Double modelWeight;
+    
+    private List<String> counterpartyFields;
+    
+    @Valid
+    private List<BlockingKeyDTO> blockingKeys;
+    
+    @Valid
+    private SimilarityIndexDTO similarityIndex;
+    
+    @Positive
+    private Integer fuzzyTopK;
+    
+    @Valid
+    private AggregateMatchingDTO aggregateMatching;
+    
+    public enum PassType {
+        EXACT,
+        TOLERANCE,
+        /** Candidate scoring and assignment; with enableMLMatching this is the model-assisted pass. */
+        FUZZY,
+        AGGREGATE
+    }
+}
+
+@Data
+@Builder
+public class CsvFormatDTO {
+    private Character delimiter;
+    private Character quote;
+    private Boolean header;
+    
+    /** Column names in file order, for files without a header row. */
+    private List<String> columns;
+    
+    /** Parse workers; 1 reads sequentially, unset uses the tenant's matching parallelism. */
+    @Positive
+    private Integer parallelism;
+    
+    /** Target size of a parallel parse range. */
+    @Positive
+    private Long chunkBytes;
+}
+
+@Data
+@Builder
+public class StatementFormatDTO {
+    /** camt files of at least this size are split by statement and parsed in parallel; unset streams every file. */
+    @Positive
+    private Long parallelThresholdBytes;
+    
+    /** Parse workers; unset uses the tenant's matching parallelism. */
+    @Positive
+    private Integer parallelism;
+    
+    /** Bank conventions of MT940/MT942 files: swift (default), german or slash-coded. */
+    private String mt940Dialect;
+}
+
+@Data
+@Builder
+public class StreamingWindowDTO {
+    @NotNull
+    @Positive
+    private Long windowMillis;
+    
+    @PositiveOrZero
+    private Long allowedLatenessMillis;
+    
+    @Positive
+    private Integer maxInMemoryRecords;
+    
+    /** Cap on pending records, on the heap or spilled; beyond it those closest to expiry are evicted as breaks. */
+    @Positive
+    private Integer maxPendingRecords;
+    
+    private Boolean spillEnabled;
 }
 
 @Data
 @Builder
 public class ReconciliationRequest {
     private String requestId;
+    private String batchId;
     private String tenantId;
     private String environment;
     private ReconciliationJob.ReconciliationType type;
     private String sourceDataset;
     private String targetDataset;
     private ReconciliationConfigurationDTO configuration;
+    private SecureTenantContext.ResourceLimits resourceLimits;
     private LocalDateTime timestamp;
 }
 
@@ -569,28 +1518,33 @@ public class ReconciliationResult {
     private String jobId;
     private String status;
     private String environment;
+    private List<PassStatistics> passStatistics;
 }
 
 @Data
 @Builder
 public class DataIngestionResult {
-    private List<Object> sourceRecords;
-    private List<Object> targetRecords;
+    private RecordBatch sourceRecords;
+    private RecordBatch targetRecords;
     private List<String> validationErrors;
 }
 
 @Data
 @Builder
 public class MatchingResult {
-    private List<Object> matches;
-    private List<Object> unmatched;
+    private List<ReconciliationMatch> matches;
+    private RecordBatch unmatched;
+    private RecordBatch unmatchedTargets;
+    private int[] unmatchedSourceOrdinals;
+    private int[] unmatchedTargetOrdinals;
+    private List<PassStatistics> passStatistics;
 }
 
 @Data
 @Builder
 public class DeduplicationResult {
-    private List<Object> deduplicated;
-    private List<Object> duplicates;
+    private RecordBatch deduplicated;
+    private RecordBatch duplicates;
 }
 
 // ===== EXCEPTION CLASSES =====
@@ -654,6 +1608,21 @@ public class MLModelManager {
     public void loadModel(String modelName) {
         log.info("Loading ML model: {}", modelName);
     }
+    
+    /**
+     * Match probability for a candidate pair's per-field similarity features.
+     * Falls back to their mean until a trained model is loaded.
+     */
+    public double scoreMatch(double[] features) {
+        if (features.length == 0) {
+            return 0.0;
+        }
+        double sum = 0.0;
+        for (double feature : features) {
+            sum += feature;
+        }
+        return sum / features.length;
+    }
 }
 
 @Component
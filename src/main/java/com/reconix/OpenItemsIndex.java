@@ -0,0 +1,187 @@
+package com.reconix;
+
+// ===== OPEN ITEMS INDEX =====
+// Persisted unmatched records carried between incremental reconciliation runs
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loads and updates the open (unmatched) records of one (tenant, source
+ * dataset, target dataset) pair. Records are stored as JSON; on load,
+ * decimals come back as BigDecimal and the given date fields are restored
+ * to {@link LocalDate}, so open items key and compare like fresh records.
+ *
+ * <p>Runs of the same pair are not locked against each other while they
+ * match. Instead {@link #update} requires every item it closes to still be
+ * open: if a concurrent run closed one first, the update rolls back and the
+ * run fails, to be retried against the open items that remain.
+ *
+ * <p>Each update is recorded under the request's batch id, or its request id
+ * when the caller gave none, in the same transaction as the item changes. An
+ * engine retry of the same request, or a re-submitted batch, finds the
+ * record and leaves the open items as they are.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OpenItemsIndex {
+
+    private static final int DELETE_BATCH_SIZE = 1_000;
+
+    private final OpenReconciliationItemRepository repository;
+    private final OpenItemsBatchRepository batchRepository;
+    private final ObjectMapper objectMapper;
+
+    public OpenItems load(String tenantId, String sourceDataset, String targetDataset, Set<String> dateFields) {
+        return new OpenItems(
+            repository.findOpenItems(tenantId, sourceDataset, targetDataset, OpenReconciliationItem.Side.SOURCE),
+            repository.findOpenItems(tenantId, sourceDataset, targetDataset, OpenReconciliationItem.Side.TARGET),
+            dateFields);
+    }
+
+    /**
+     * Closes the open items that matched in this run and opens the new
+     * records that did not, unless the request's batch was already applied.
+     *
+     * @return {@code false} if the batch was already applied and nothing changed
+     * @throws ReconciliationException if some of the closed items were already
+     *         closed by a concurrent run; nothing is changed in that case
+     */
+    @Transactional
+    public boolean update(ReconciliationRequest request, List<Long> closedItemIds,
+                          List<Object> openedSources, List<Object> openedTargets) {
+        String batchId = request.getBatchId() != null ? request.getBatchId() : request.getRequestId();
+        if (batchRepository.isApplied(request.getTenantId(), request.getSourceDataset(), request.getTargetDataset(), batchId)) {
+            log.info("Open items for tenant {} ({} -> {}): batch {} already applied, leaving them unchanged",
+                request.getTenantId(), request.getSourceDataset(), request.getTargetDataset(), batchId);
+            return false;
+        }
+        int deleted = 0;
+        for (int from = 0; from < closedItemIds.size(); from += DELETE_BATCH_SIZE) {
+            List<Long> batch = closedItemIds.subList(from, Math.min(from + DELETE_BATCH_SIZE, closedItemIds.size()));
+            deleted += repository.deleteByTenantIdAndIdIn(request.getTenantId(), batch);
+        }
+        if (deleted != closedItemIds.size()) {
+            throw new ReconciliationException("Open items for tenant " + request.getTenantId() + " ("
+                + request.getSourceDataset() + " -> " + request.getTargetDataset() + ") changed during the run: "
+                + (closedItemIds.size() - deleted) + " of " + closedItemIds.size() + " were already closed", null);
+        }
+        List<OpenReconciliationItem> opened = new ArrayList<>(openedSources.size() + openedTargets.size());
+        for (Object record : openedSources) {
+            opened.add(toItem(request, OpenReconciliationItem.Side.SOURCE, record));
+        }
+        for (Object record : openedTargets) {
+            opened.add(toItem(request, OpenReconciliationItem.Side.TARGET, record));
+        }
+        repository.saveAll(opened);
+        // A concurrent run of the same batch fails on the unique key and rolls back
+        batchRepository.save(OpenItemsBatch.builder()
+            .tenantId(request.getTenantId())
+            .sourceDataset(request.getSourceDataset())
+            .targetDataset(request.getTargetDataset())
+            .batchId(batchId)
+            .jobId(request.getRequestId())
+            .closedItems(closedItemIds.size())
+            .openedItems(opened.size())
+            .appliedAt(LocalDateTime.now())
+            .build());
+        log.info("Open items for tenant {} ({} -> {}): closed {}, opened {}", request.getTenantId(),
+            request.getSourceDataset(), request.getTargetDataset(), closedItemIds.size(), opened.size());
+        return true;
+    }
+
+    private OpenReconciliationItem toItem(ReconciliationRequest request, OpenReconciliationItem.Side side, Object record) {
+        try {
+            return OpenReconciliationItem.builder()
+                .tenantId(request.getTenantId())
+                .sourceDataset(request.getSourceDataset())
+                .targetDataset(request.getTargetDataset())
+                .side(side)
+                .record(objectMapper.writeValueAsString(record))
+                .firstSeenJobId(request.getRequestId())
+                .firstSeenAt(LocalDateTime.now())
+                .build();
+        } catch (JsonProcessingException e) {
+            throw new ReconciliationException("Failed to serialize open item", e);
+        }
+    }
+
+    /** Open items of both sides, decoded once, in id order. */
+    public final class OpenItems {
+        private final List<Long> sourceIds = new ArrayList<>();
+        private final List<Object> sourceRecords = new ArrayList<>();
+        private final List<Long> targetIds = new ArrayList<>();
+        private final List<Object> targetRecords = new ArrayList<>();
+
+        OpenItems(List<OpenReconciliationItem> sources, List<OpenReconciliationItem> targets, Set<String> dateFields) {
+            ObjectReader reader = objectMapper.readerFor(Map.class)
+                .with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+            decode(sources, reader, dateFields, sourceIds, sourceRecords);
+            decode(targets, reader, dateFields, targetIds, targetRecords);
+        }
+
+        public List<Long> getSourceIds() {
+            return sourceIds;
+        }
+
+        public List<Object> getSourceRecords() {
+            return sourceRecords;
+        }
+
+        public List<Long> getTargetIds() {
+            return targetIds;
+        }
+
+        public List<Object> getTargetRecords() {
+            return targetRecords;
+        }
+
+        private void decode(List<OpenReconciliationItem> items, ObjectReader reader, Set<String> dateFields,
+                            List<Long> ids, List<Object> records) {
+            for (OpenReconciliationItem item : items) {
+                try {
+                    Map<String, Object> record = reader.readValue(item.getRecord());
+                    for (String field : dateFields) {
+                        record.computeIfPresent(field, (name, value) -> toLocalDate(value));
+                    }
+                    ids.add(item.getId());
+                    records.add(record);
+                } catch (JsonProcessingException e) {
+                    throw new ReconciliationException("Failed to read open item " + item.getId(), e);
+                }
+            }
+        }
+    }
+
+    /** Restores a date written as an ISO string or as a [year, month, day] array. */
+    private static Object toLocalDate(Object value) {
+        try {
+            if (value instanceof String) {
+                return LocalDate.parse((String) value);
+            }
+            if (value instanceof List && ((List<?>) value).size() == 3) {
+                List<?> parts = (List<?>) value;
+                return LocalDate.of(((Number) parts.get(0)).intValue(), ((Number) parts.get(1)).intValue(),
+                    ((Number) parts.get(2)).intValue());
+            }
+        } catch (DateTimeException | ClassCastException e) {
+            // Not a date after all; keep the stored value
+        }
+        return value;
+    }
+}
@@ -0,0 +1,55 @@
+package com.reconix;
+
+// ===== BOUNDED PARALLEL TASK RUNNER =====
+// Runs indexed tasks on the matching pool with a per-job worker cap
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs tasks {@code 0 .. taskCount - 1} on at most {@code parallelism}
+ * workers of a shared pool. Workers pull task indexes from a common cursor,
+ * so uneven tasks do not leave workers idle, and one job cannot occupy more
+ * of the pool than its tenant is allowed. A failed task fails the whole
+ * run, reported under the caller's operation name.
+ */
+final class ParallelTasks {
+
+    private ParallelTasks() {
+    }
+
+    /**
+     * @param operation what the tasks do, as in {@code "Parallel CSV parsing"}, for error messages
+     */
+    static void run(String operation, ForkJoinPool pool, int parallelism, int taskCount, IntConsumer task) {
+        if (taskCount == 0) {
+            return;
+        }
+        AtomicInteger cursor = new AtomicInteger();
+        List<Callable<Void>> workers = new ArrayList<>();
+        for (int w = 0; w < Math.min(Math.max(1, parallelism), taskCount); w++) {
+            workers.add(() -> {
+                for (int t = cursor.getAndIncrement(); t < taskCount; t = cursor.getAndIncrement()) {
+                    task.accept(t);
+                }
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> result : pool.invokeAll(workers)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReconciliationException(operation + " interrupted", e);
+        } catch (ExecutionException e) {
+            throw new ReconciliationException(operation + " failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.reconix;
+
+// ===== PARTITIONED PARALLEL MATCHER =====
+// Hash-partitioned exact and tolerance passes on a dedicated fork/join pool
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs the exact and tolerance passes over P hash partitions in parallel.
+ * Records are partitioned on the fields both passes require to be equal, so
+ * every pair either pass could produce lies within one partition. Partitions
+ * keep ordinal order, and results are merged by source ordinal, so the output
+ * is identical to the serial passes whatever the partition count.
+ *
+ * <p>At most {@code parallelism} workers run for a job; they pull partitions
+ * from a shared cursor, so skewed partitions do not leave workers idle.
+ */
+@Slf4j
+public final class PartitionedMatcher {
+
+    private static final int PARTITIONS_PER_WORKER = 4;
+
+    private final ForkJoinPool pool;
+    private final int parallelism;
+
+    public PartitionedMatcher(ForkJoinPool pool, int parallelism) {
+        this.pool = pool;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * @param toleranceMatcher optional second pass over each partition's exact-pass residue
+     */
+    public PartitionedResult match(RecordSet source, RecordSet target, List<String> matchingFields,
+                                   ToleranceMatcher toleranceMatcher) {
+        return match(source, HashJoinMatcher.allOrdinals(source.size()), target,
+            HashJoinMatcher.allOrdinals(target.size()), matchingFields, toleranceMatcher);
+    }
+
+    /**
+     * Matches only the given ordinals, which must be in ascending order.
+     *
+     * @param matchingFields   exact-pass fields, or {@code null} to run the tolerance pass alone
+     * @param toleranceMatcher optional second pass over each partition's exact-pass residue
+     */
+    public PartitionedResult match(RecordSet source, int[] sourceOrdinals, RecordSet target, int[] targetOrdinals,
+                                   List<String> matchingFields, ToleranceMatcher toleranceMatcher) {
+        List<String> partitionFields = toleranceMatcher != null ? toleranceMatcher.keyFields() : matchingFields;
+        int partitionCount = partitionFields.isEmpty() ? 1 : parallelism * PARTITIONS_PER_WORKER;
+
+        int[][] sourceGroups = group(assignPartitions(source, sourceOrdinals, partitionFields, partitionCount), partitionCount);
+        int[][] targetGroups = group(assignPartitions(target, targetOrdinals, partitionFields, partitionCount), partitionCount);
+        MatchPairs[] exact = new MatchPairs[partitionCount];
+        MatchPairs[] tolerance = new MatchPairs[partitionCount];
+        ParallelTasks.run("Parallel matching", pool, parallelism, partitionCount, p -> {
+            exact[p] = matchingFields == null ? new MatchPairs(0)
+                : HashJoinMatcher.match(source, sourceGroups[p], target, targetGroups[p], matchingFields);
+            if (toleranceMatcher != null) {
+                tolerance[p] = toleranceMatcher.match(source, residual(sourceGroups[p], exact[p], true),
+                    target, residual(targetGroups[p], exact[p], false));
+            }
+        });
+        log.debug("Matched {} partitions on {} workers", partitionCount, parallelism);
+        return new PartitionedResult(mergeBySource(exact), toleranceMatcher == null ? null : mergeBySource(tolerance));
+    }
+
+    /** Partition per ordinal; ordinals not taking part are assigned -1. */
+    private int[] assignPartitions(RecordSet records, int[] ordinals, List<String> partitionFields, int partitionCount) {
+        int[] partitions = new int[records.size()];
+        Arrays.fill(partitions, -1);
+        if (partitionCount == 1) {
+            for (int ordinal : ordinals) {
+                partitions[ordinal] = 0;
+            }
+            return partitions;
+        }
+        int chunk = Math.max(1, (ordinals.length + parallelism - 1) / parallelism);
+        int chunks = (ordinals.length + chunk - 1) / chunk;
+        ParallelTasks.run("Parallel partitioning", pool, parallelism, chunks, c -> {
+            for (int i = c * chunk; i < Math.min(ordinals.length, (c + 1) * chunk); i++) {
+                MatchKey key = MatchKey.of(records, ordinals[i], partitionFields);
+                // A record with a missing key field can match in neither pass
+                partitions[ordinals[i]] = key == null ? -1 : Math.floorMod(mix(key.hashCode()), partitionCount);
+            }
+        });
+        return partitions;
+    }
+
+    /** Ordinals per partition, each in ascending order. */
+    private static int[][] group(int[] partitions, int partitionCount) {
+        int[] counts = new int[partitionCount];
+        for (int partition : partitions) {
+            if (partition >= 0) {
+                counts[partition]++;
+            }
+        }
+        int[][] grouped = new int[partitionCount][];
+        for (int p = 0; p < partitionCount; p++) {
+            grouped[p] = new int[counts[p]];
+        }
+        int[] fill = new int[partitionCount];
+        for (int ordinal = 0; ordinal < partitions.length; ordinal++) {
+            int partition = partitions[ordinal];
+            if (partition >= 0) {
+                grouped[partition][fill[partition]++] = ordinal;
+            }
+        }
+        return grouped;
+    }
+
+    private static int[] residual(int[] ordinals, MatchPairs matched, boolean sourceSide) {
+        if (matched.size() == 0) {
+            return ordinals;
+        }
+        BitSet taken = new BitSet();
+        for (int i = 0; i < matched.size(); i++) {
+            taken.set(sourceSide ? matched.sourceOrdinal(i) : matched.targetOrdinal(i));
+        }
+        int[] residual = new int[ordinals.length - matched.size()];
+        int next = 0;
+        for (int ordinal : ordinals) {
+            if (!taken.get(ordinal)) {
+                residual[next++] = ordinal;
+            }
+        }
+        return residual;
+    }
+
+    /** Concatenates partition results in source ordinal order; each source appears at most once per pass. */
+    private static MatchPairs mergeBySource(MatchPairs[] partitionPairs) {
+        int total = 0;
+        for (MatchPairs pairs : partitionPairs) {
+            total += pairs.size();
+        }
+        long[] sourceOrdinals = new long[total];
+        int[] refs = new int[total];
+        int[] partitionOf = new int[total];
+        int[] indexOf = new int[total];
+        int next = 0;
+        for (int p = 0; p < partitionPairs.length; p++) {
+            for (int i = 0; i < partitionPairs[p].size(); i++, next++) {
+                sourceOrdinals[next] = partitionPairs[p].sourceOrdinal(i);
+                refs[next] = next;
+                partitionOf[next] = p;
+                indexOf[next] = i;
+            }
+        }
+        PrimitiveSort.sort(sourceOrdinals, refs, 0, total - 1);
+        MatchPairs merged = new MatchPairs(total);
+        for (int ref : refs) {
+            MatchPairs pairs = partitionPairs[partitionOf[ref]];
+            int i = indexOf[ref];
+            merged.add(pairs.sourceOrdinal(i), pairs.targetOrdinal(i), pairs.score(i));
+        }
+        return merged;
+    }
+
+    /** Spreads key hashes so partitions stay balanced even for weak hashCodes. */
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    public static final class PartitionedResult {
+        private final MatchPairs exactPairs;
+        private final MatchPairs tolerancePairs;
+
+        PartitionedResult(MatchPairs exactPairs, MatchPairs tolerancePairs) {
+            this.exactPairs = exactPairs;
+            this.tolerancePairs = tolerancePairs;
+        }
+
+        public MatchPairs getExactPairs() {
+            return exactPairs;
+        }
+
+        /** {@code null} when no tolerance pass was configured. */
+        public MatchPairs getTolerancePairs() {
+            return tolerancePairs;
+        }
+    }
+}
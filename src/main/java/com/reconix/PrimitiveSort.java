@@ -0,0 +1,64 @@
+package com.reconix;
+
+// ===== PRIMITIVE PAIR SORT =====
+// In-place sort of parallel (long key, int ordinal) arrays without boxing
+
+/**
+ * Sorts a slice of parallel key/ordinal arrays by key, breaking ties by
+ * ordinal so index layouts are deterministic across runs.
+ */
+final class PrimitiveSort {
+
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private PrimitiveSort() {
+    }
+
+    /** Sorts positions {@code from..to} inclusive. */
+    static void sort(long[] keys, int[] ordinals, int from, int to) {
+        while (to - from >= INSERTION_SORT_THRESHOLD) {
+            int mid = (from + to) >>> 1;
+            long pivotKey = keys[mid];
+            int pivotOrdinal = ordinals[mid];
+            int i = from;
+            int j = to;
+            while (i <= j) {
+                while (less(keys[i], ordinals[i], pivotKey, pivotOrdinal)) {
+                    i++;
+                }
+                while (less(pivotKey, pivotOrdinal, keys[j], ordinals[j])) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(keys, ordinals, i++, j--);
+                }
+            }
+            // Recurse into the smaller half to bound stack depth
+            if (j - from < to - i) {
+                sort(keys, ordinals, from, j);
+                from = i;
+            } else {
+                sort(keys, ordinals, i, to);
+                to = j;
+            }
+        }
+        for (int i = from + 1; i <= to; i++) {
+            for (int j = i; j > from && less(keys[j], ordinals[j], keys[j - 1], ordinals[j - 1]); j--) {
+                swap(keys, ordinals, j, j - 1);
+            }
+        }
+    }
+
+    private static boolean less(long keyA, int ordinalA, long keyB, int ordinalB) {
+        return keyA < keyB || (keyA == keyB && ordinalA < ordinalB);
+    }
+
+    private static void swap(long[] keys, int[] ordinals, int i, int j) {
+        long key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        int ordinal = ordinals[i];
+        ordinals[i] = ordinals[j];
+        ordinals[j] = ordinal;
+    }
+}
@@ -0,0 +1,91 @@
+package com.reconix;
+
+// ===== RECONCILIATION JOB TRACKER =====
+// Persists the lifecycle and per-pass outcome of batch reconciliation jobs
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps the {@link ReconciliationJob} row of a request in step with the
+ * engine. The job id is the request id, so the controller can answer with it
+ * before the asynchronous run starts. Every transition evicts the cached job
+ * status, which would otherwise keep reporting the job as pending.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReconciliationJobTracker {
+
+    private final ReconciliationJobRepository jobRepository;
+
+    @Transactional
+    public ReconciliationJob register(ReconciliationRequest request) {
+        LocalDateTime now = LocalDateTime.now();
+        return jobRepository.save(ReconciliationJob.builder()
+            .jobId(request.getRequestId())
+            .tenantId(request.getTenantId())
+            .environment(request.getEnvironment())
+            .type(request.getType())
+            .status(ReconciliationJob.ReconciliationStatus.PENDING)
+            .progress(0)
+            .createdAt(now)
+            .updatedAt(now)
+            .build());
+    }
+
+    @Transactional
+    @CacheEvict(value = "job-status", key = "#request.requestId + ':' + #request.tenantId")
+    public void started(ReconciliationRequest request) {
+        find(request).ifPresent(job -> {
+            job.setStatus(ReconciliationJob.ReconciliationStatus.RUNNING);
+            job.setErrorMessage(null);
+            job.setUpdatedAt(LocalDateTime.now());
+            jobRepository.save(job);
+        });
+    }
+
+    @Transactional
+    @CacheEvict(value = "job-status", key = "#request.requestId + ':' + #request.tenantId")
+    public void completed(ReconciliationRequest request, long totalRecords, long matchedRecords,
+                          List<PassStatistics> passStatistics) {
+        find(request).ifPresent(job -> {
+            job.setStatus(ReconciliationJob.ReconciliationStatus.COMPLETED);
+            job.setProgress(100);
+            job.setTotalRecords(totalRecords);
+            job.setProcessedRecords(totalRecords);
+            job.setMatchedRecords(matchedRecords);
+            job.setPassStatistics(new ArrayList<>(passStatistics));
+            job.setUpdatedAt(LocalDateTime.now());
+            jobRepository.save(job);
+        });
+    }
+
+    @Transactional
+    @CacheEvict(value = "job-status", key = "#request.requestId + ':' + #request.tenantId")
+    public void failed(ReconciliationRequest request, String errorMessage) {
+        find(request).ifPresent(job -> {
+            job.setStatus(ReconciliationJob.ReconciliationStatus.FAILED);
+            job.setErrorMessage(errorMessage);
+            job.setUpdatedAt(LocalDateTime.now());
+            jobRepository.save(job);
+        });
+    }
+
+    // Requests started outside the controller have no job row to update
+    private Optional<ReconciliationJob> find(ReconciliationRequest request) {
+        Optional<ReconciliationJob> job = jobRepository.findByJobIdAndTenantId(request.getRequestId(), request.getTenantId());
+        if (job.isEmpty()) {
+            log.debug("No job row for request {}, not tracking it", request.getRequestId());
+        }
+        return job;
+    }
+}
@@ -0,0 +1,236 @@
+package com.reconix;
+
+// ===== COLUMNAR RECORD BATCH =====
+// Primitive column store for one side of a reconciliation
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds ingested records column by column instead of as boxed objects:
+ * amounts as {@code long} minor units, dates as {@code int} epoch days,
+ * strings as {@code int} codes into a shared {@link StringDictionary}, and
+ * nulls as one bit per row. Scans over a column touch a single primitive
+ * array, and a record costs a few bytes per field rather than a map entry
+ * plus a boxed value.
+ *
+ * <p>The {@link RecordSet} view rebuilds boxed values on demand; matchers on
+ * hot paths use {@link #minorUnits} and {@link #epochDay}, which read the
+ * arrays directly.
+ */
+public final class RecordBatch implements RecordSet {
+
+    private static final long[] LONG_POWERS_OF_TEN = new long[19];
+
+    static {
+        LONG_POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < LONG_POWERS_OF_TEN.length; i++) {
+            LONG_POWERS_OF_TEN[i] = LONG_POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final RecordSchema schema;
+    private final StringDictionary dictionary;
+    private final int size;
+    private final long[][] longColumns;
+    private final int[][] intColumns;
+    private final Object[][] objectColumns;
+    private final long[][] nullBits;
+
+    private RecordBatch(RecordSchema schema, StringDictionary dictionary, int size) {
+        this.schema = schema;
+        this.dictionary = dictionary;
+        this.size = size;
+        int columns = schema.columnCount();
+        this.longColumns = new long[columns][];
+        this.intColumns = new int[columns][];
+        this.objectColumns = new Object[columns][];
+        this.nullBits = new long[columns][];
+        for (int c = 0; c < columns; c++) {
+            switch (schema.type(c)) {
+                case AMOUNT:
+                    longColumns[c] = new long[size];
+                    break;
+                case DATE:
+                case STRING:
+                    intColumns[c] = new int[size];
+                    break;
+                default:
+                    objectColumns[c] = new Object[size];
+            }
+            nullBits[c] = new long[(size + 63) >>> 6];
+        }
+    }
+
+    private RecordBatch(RecordSchema schema, StringDictionary dictionary, int size,
+                        long[][] longColumns, int[][] intColumns, long[][] nullBits) {
+        this.schema = schema;
+        this.dictionary = dictionary;
+        this.size = size;
+        this.longColumns = longColumns;
+        this.intColumns = intColumns;
+        this.objectColumns = new Object[schema.columnCount()][];
+        this.nullBits = nullBits;
+    }
+
+    /** Adopts columns filled by {@link RecordBatchBuilder}; the arrays must not be touched afterwards. */
+    static RecordBatch wrap(RecordSchema schema, StringDictionary dictionary, int size,
+                            long[][] longColumns, int[][] intColumns, long[][] nullBits) {
+        return new RecordBatch(schema, dictionary, size, longColumns, intColumns, nullBits);
+    }
+
+    /** Encodes a dataset into columns, inferring the schema from its values. */
+    public static RecordBatch from(List<Object> records, StringDictionary dictionary) {
+        List<Object> rows = records == null ? List.of() : records;
+        RecordSchema schema = RecordSchema.infer(rows);
+        RecordSet view = RecordSet.of(rows);
+        RecordBatch batch = new RecordBatch(schema, dictionary, view.size());
+        for (int c = 0; c < schema.columnCount(); c++) {
+            String field = schema.name(c);
+            for (int ordinal = 0; ordinal < batch.size; ordinal++) {
+                batch.set(ordinal, c, view.value(ordinal, field));
+            }
+        }
+        return batch;
+    }
+
+    /** Gathers the given rows into a new batch sharing this batch's schema and dictionary. */
+    public RecordBatch select(int[] ordinals) {
+        RecordBatch selected = new RecordBatch(schema, dictionary, ordinals.length);
+        for (int c = 0; c < schema.columnCount(); c++) {
+            for (int i = 0; i < ordinals.length; i++) {
+                int ordinal = ordinals[i];
+                if (isNull(ordinal, c)) {
+                    selected.nullBits[c][i >>> 6] |= 1L << i;
+                } else if (longColumns[c] != null) {
+                    selected.longColumns[c][i] = longColumns[c][ordinal];
+                } else if (intColumns[c] != null) {
+                    selected.intColumns[c][i] = intColumns[c][ordinal];
+                } else {
+                    selected.objectColumns[c][i] = objectColumns[c][ordinal];
+                }
+            }
+        }
+        return selected;
+    }
+
+    public RecordSchema schema() {
+        return schema;
+    }
+
+    public StringDictionary dictionary() {
+        return dictionary;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** Rebuilds the row as a field map in schema order. */
+    @Override
+    public Object record(int ordinal) {
+        Map<String, Object> record = new LinkedHashMap<>(schema.columnCount() * 2);
+        for (int c = 0; c < schema.columnCount(); c++) {
+            record.put(schema.name(c), value(ordinal, c));
+        }
+        return record;
+    }
+
+    @Override
+    public Object value(int ordinal, String field) {
+        int column = schema.columnIndex(field);
+        return column < 0 ? null : value(ordinal, column);
+    }
+
+    public Object value(int ordinal, int column) {
+        if (isNull(ordinal, column)) {
+            return null;
+        }
+        switch (schema.type(column)) {
+            case AMOUNT:
+                return BigDecimal.valueOf(longColumns[column][ordinal], schema.scale(column));
+            case DATE:
+                return LocalDate.ofEpochDay(intColumns[column][ordinal]);
+            case STRING:
+                return dictionary.decode(intColumns[column][ordinal]);
+            default:
+                return objectColumns[column][ordinal];
+        }
+    }
+
+    public boolean isNull(int ordinal, int column) {
+        return (nullBits[column][ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
+
+    /** Dictionary code of a STRING column value, or {@link StringDictionary#NO_CODE} when null. */
+    public int stringCode(int ordinal, int column) {
+        return isNull(ordinal, column) ? StringDictionary.NO_CODE : intColumns[column][ordinal];
+    }
+
+    @Override
+    public long minorUnits(int ordinal, String field, int scale) {
+        int column = schema.columnIndex(field);
+        return column < 0 ? FieldValues.NO_AMOUNT : minorUnits(ordinal, column, scale);
+    }
+
+    public long minorUnits(int ordinal, int column, int scale) {
+        if (schema.type(column) != RecordSchema.ColumnType.AMOUNT) {
+            return FieldValues.toMinorUnits(value(ordinal, column), scale);
+        }
+        if (isNull(ordinal, column)) {
+            return FieldValues.NO_AMOUNT;
+        }
+        long stored = longColumns[column][ordinal];
+        int columnScale = schema.scale(column);
+        if (columnScale == scale) {
+            return stored;
+        }
+        if (columnScale < scale && scale - columnScale < LONG_POWERS_OF_TEN.length) {
+            try {
+                return Math.multiplyExact(stored, LONG_POWERS_OF_TEN[scale - columnScale]);
+            } catch (ArithmeticException e) {
+                return FieldValues.NO_AMOUNT;
+            }
+        }
+        return FieldValues.toMinorUnits(BigDecimal.valueOf(stored, columnScale), scale);
+    }
+
+    @Override
+    public int epochDay(int ordinal, String field) {
+        int column = schema.columnIndex(field);
+        return column < 0 ? FieldValues.NO_DATE : epochDay(ordinal, column);
+    }
+
+    public int epochDay(int ordinal, int column) {
+        if (schema.type(column) != RecordSchema.ColumnType.DATE) {
+            return FieldValues.toEpochDay(value(ordinal, column));
+        }
+        return isNull(ordinal, column) ? FieldValues.NO_DATE : intColumns[column][ordinal];
+    }
+
+    private void set(int ordinal, int column, Object value) {
+        if (value == null) {
+            nullBits[column][ordinal >>> 6] |= 1L << ordinal;
+            return;
+        }
+        switch (schema.type(column)) {
+            case AMOUNT:
+                longColumns[column][ordinal] = FieldValues.toDecimal(value)
+                    .setScale(schema.scale(column), RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+                break;
+            case DATE:
+                intColumns[column][ordinal] = (int) ((LocalDate) value).toEpochDay();
+                break;
+            case STRING:
+                intColumns[column][ordinal] = dictionary.encode((String) value);
+                break;
+            default:
+                objectColumns[column][ordinal] = value;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.reconix;
+
+// ===== RECORD BATCH BUILDER =====
+// Row-at-a-time appends into growable primitive columns, for file readers
+
+import java.util.Arrays;
+
+/**
+ * Builds a {@link RecordBatch} of a fixed schema without boxing: a reader
+ * adds a row, sets the values it decoded, and leaves the rest null. Only
+ * AMOUNT, DATE and STRING columns are supported. Columns grow by doubling
+ * and are trimmed to size by {@link #build()}.
+ */
+public final class RecordBatchBuilder {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final RecordSchema schema;
+    private final StringDictionary dictionary;
+    private final long[][] longColumns;
+    private final int[][] intColumns;
+    private final long[][] nullBits;
+    private int size;
+    private int capacity;
+
+    public RecordBatchBuilder(RecordSchema schema, StringDictionary dictionary) {
+        this.schema = schema;
+        this.dictionary = dictionary;
+        int columns = schema.columnCount();
+        this.longColumns = new long[columns][];
+        this.intColumns = new int[columns][];
+        this.nullBits = new long[columns][];
+        this.capacity = INITIAL_CAPACITY;
+        for (int c = 0; c < columns; c++) {
+            switch (schema.type(c)) {
+                case AMOUNT:
+                    longColumns[c] = new long[capacity];
+                    break;
+                case DATE:
+                case STRING:
+                    intColumns[c] = new int[capacity];
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported column type for " + schema.name(c) + ": " + schema.type(c));
+            }
+            nullBits[c] = new long[capacity >>> 6];
+        }
+    }
+
+    public RecordSchema schema() {
+        return schema;
+    }
+
+    public StringDictionary dictionary() {
+        return dictionary;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Appends a row with every column null and returns its ordinal. */
+    public int addRow() {
+        if (size == capacity) {
+            grow();
+        }
+        int ordinal = size++;
+        for (long[] bits : nullBits) {
+            bits[ordinal >>> 6] |= 1L << ordinal;
+        }
+        return ordinal;
+    }
+
+    public void setMinorUnits(int ordinal, int column, long minorUnits) {
+        longColumns[column][ordinal] = minorUnits;
+        clearNull(ordinal, column);
+    }
+
+    public void setEpochDay(int ordinal, int column, int epochDay) {
+        intColumns[column][ordinal] = epochDay;
+        clearNull(ordinal, column);
+    }
+
+    public void setStringCode(int ordinal, int column, int code) {
+        intColumns[column][ordinal] = code;
+        clearNull(ordinal, column);
+    }
+
+    /**
+     * Appends every row of a builder of the same schema, translating its
+     * STRING codes through {@code codes} (its dictionary's code to this
+     * builder's). Rows keep their order, after the rows already present.
+     */
+    public void append(RecordBatchBuilder other, int[] codes) {
+        int base = size;
+        int rows = other.size;
+        while (capacity < base + rows) {
+            grow();
+        }
+        for (int c = 0; c < schema.columnCount(); c++) {
+            if (longColumns[c] != null) {
+                System.arraycopy(other.longColumns[c], 0, longColumns[c], base, rows);
+            } else if (schema.type(c) == RecordSchema.ColumnType.STRING) {
+                int[] source = other.intColumns[c];
+                int[] target = intColumns[c];
+                for (int r = 0; r < rows; r++) {
+                    target[base + r] = other.isNull(r, c) ? 0 : codes[source[r]];
+                }
+            } else {
+                System.arraycopy(other.intColumns[c], 0, intColumns[c], base, rows);
+            }
+            long[] bits = nullBits[c];
+            for (int r = 0; r < rows; r++) {
+                if (other.isNull(r, c)) {
+                    int ordinal = base + r;
+                    bits[ordinal >>> 6] |= 1L << ordinal;
+                }
+            }
+        }
+        size = base + rows;
+    }
+
+    /** Trims the columns and hands them to a batch; the builder must not be used afterwards. */
+    public RecordBatch build() {
+        for (int c = 0; c < schema.columnCount(); c++) {
+            if (longColumns[c] != null) {
+                longColumns[c] = Arrays.copyOf(longColumns[c], size);
+            } else {
+                intColumns[c] = Arrays.copyOf(intColumns[c], size);
+            }
+            nullBits[c] = Arrays.copyOf(nullBits[c], (size + 63) >>> 6);
+        }
+        return RecordBatch.wrap(schema, dictionary, size, longColumns, intColumns, nullBits);
+    }
+
+    private boolean isNull(int ordinal, int column) {
+        return (nullBits[column][ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
+
+    private void clearNull(int ordinal, int column) {
+        nullBits[column][ordinal >>> 6] &= ~(1L << ordinal);
+    }
+
+    private void grow() {
+        capacity *= 2;
+        for (int c = 0; c < schema.columnCount(); c++) {
+            if (longColumns[c] != null) {
+                longColumns[c] = Arrays.copyOf(longColumns[c], capacity);
+            } else {
+                intColumns[c] = Arrays.copyOf(intColumns[c], capacity);
+            }
+            nullBits[c] = Arrays.copyOf(nullBits[c], capacity >>> 6);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.reconix;
+
+// ===== RECORD SCHEMA =====
+// Column names and storage types inferred from an ingested dataset
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Describes the columns of a {@link RecordBatch}. A column is stored
+ * primitively only when every non-null value has the same kind: whole and
+ * decimal numbers become AMOUNT (minor units at the column's widest scale),
+ * {@link LocalDate}s become DATE (epoch days) and strings become STRING
+ * (dictionary codes). Anything else, including mixed columns and numbers
+ * that would overflow a long, is kept as-is in an OBJECT column.
+ */
+public final class RecordSchema {
+
+    /** Digits a long can hold at any scale without overflow. */
+    private static final int MAX_AMOUNT_DIGITS = 18;
+
+    public enum ColumnType {
+        AMOUNT, DATE, STRING, OBJECT
+    }
+
+    private final String[] names;
+    private final ColumnType[] types;
+    private final int[] scales;
+    private final Map<String, Integer> columnIndexes;
+
+    private RecordSchema(String[] names, ColumnType[] types, int[] scales) {
+        this.names = names;
+        this.types = types;
+        this.scales = scales;
+        this.columnIndexes = new HashMap<>(names.length * 2);
+        for (int c = 0; c < names.length; c++) {
+            columnIndexes.put(names[c], c);
+        }
+    }
+
+    /** Infers the schema from the field maps or getter-exposing beans of a dataset. */
+    public static RecordSchema infer(List<Object> records) {
+        Map<String, ColumnStats> columns = new LinkedHashMap<>();
+        Map<Class<?>, List<String>> beanFields = new HashMap<>();
+        RecordSet view = RecordSet.of(records);
+        for (int ordinal = 0; ordinal < view.size(); ordinal++) {
+            for (String field : fieldNames(view.record(ordinal), beanFields)) {
+                columns.computeIfAbsent(field, name -> new ColumnStats()).observe(view.value(ordinal, field));
+            }
+        }
+        String[] names = new String[columns.size()];
+        ColumnType[] types = new ColumnType[columns.size()];
+        int[] scales = new int[columns.size()];
+        int c = 0;
+        for (Map.Entry<String, ColumnStats> column : columns.entrySet()) {
+            names[c] = column.getKey();
+            types[c] = column.getValue().type();
+            scales[c] = types[c] == ColumnType.AMOUNT ? column.getValue().maxScale : 0;
+            c++;
+        }
+        return new RecordSchema(names, types, scales);
+    }
+
+    /** A schema with the given columns, for readers that decode straight into primitive columns. */
+    public static RecordSchema of(String[] names, ColumnType[] types, int[] scales) {
+        return new RecordSchema(names.clone(), types.clone(), scales.clone());
+    }
+
+    public int columnCount() {
+        return names.length;
+    }
+
+    /** Returns the index of the named column, or -1 if the dataset never had it. */
+    public int columnIndex(String name) {
+        Integer index = columnIndexes.get(name);
+        return index == null ? -1 : index;
+    }
+
+    public String name(int column) {
+        return names[column];
+    }
+
+    public ColumnType type(int column) {
+        return types[column];
+    }
+
+    /** Decimal places of an AMOUNT column's minor units. */
+    public int scale(int column) {
+        return scales[column];
+    }
+
+    private static List<String> fieldNames(Object record, Map<Class<?>, List<String>> beanFields) {
+        if (record == null) {
+            return List.of();
+        }
+        if (record instanceof Map) {
+            List<String> names = new ArrayList<>();
+            for (Object key : ((Map<?, ?>) record).keySet()) {
+                if (key != null) {
+                    names.add(key.toString());
+                }
+            }
+            return names;
+        }
+        return beanFields.computeIfAbsent(record.getClass(), RecordSchema::readableProperties);
+    }
+
+    private static List<String> readableProperties(Class<?> type) {
+        List<String> names = new ArrayList<>();
+        try {
+            for (PropertyDescriptor property : Introspector.getBeanInfo(type, Object.class).getPropertyDescriptors()) {
+                if (property.getReadMethod() != null) {
+                    names.add(property.getName());
+                }
+            }
+        } catch (IntrospectionException e) {
+            throw new ReconciliationException("Failed to introspect record type " + type.getName(), e);
+        }
+        return names;
+    }
+
+    private static final class ColumnStats {
+        private ColumnType kind;
+        private boolean mixed;
+        private int maxScale;
+        private int maxIntegerDigits;
+
+        void observe(Object value) {
+            if (value == null || mixed) {
+                return;
+            }
+            ColumnType valueKind = kindOf(value);
+            if (valueKind == ColumnType.AMOUNT) {
+                BigDecimal amount = value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
+                maxScale = Math.max(maxScale, Math.max(0, amount.scale()));
+                maxIntegerDigits = Math.max(maxIntegerDigits, amount.precision() - amount.scale());
+            }
+            if (kind == null) {
+                kind = valueKind;
+            } else if (kind != valueKind) {
+                mixed = true;
+            }
+        }
+
+        ColumnType type() {
+            if (mixed || kind == null) {
+                return ColumnType.OBJECT;
+            }
+            if (kind == ColumnType.AMOUNT && maxIntegerDigits + maxScale > MAX_AMOUNT_DIGITS) {
+                return ColumnType.OBJECT;
+            }
+            return kind;
+        }
+
+        private static ColumnType kindOf(Object value) {
+            if (value instanceof BigDecimal || value instanceof BigInteger || value instanceof Long
+                    || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                return ColumnType.AMOUNT;
+            }
+            if (value instanceof LocalDate) {
+                return ColumnType.DATE;
+            }
+            if (value instanceof String) {
+                return ColumnType.STRING;
+            }
+            return ColumnType.OBJECT;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.reconix;
+
+// ===== RECORD ACCESS ABSTRACTION =====
+// Ordinal-addressed view over ingested records used by the matching passes
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-only, ordinal-addressed view over one side of a reconciliation.
+ * Matchers work on ordinals so they never have to copy or re-wrap records.
+ */
+public interface RecordSet {
+
+    int size();
+
+    Object record(int ordinal);
+
+    Object value(int ordinal, String field);
+
+    /** The field as minor units at {@code scale}, or {@link FieldValues#NO_AMOUNT}. */
+    default long minorUnits(int ordinal, String field, int scale) {
+        return FieldValues.toMinorUnits(value(ordinal, field), scale);
+    }
+
+    /** The field as an epoch day, or {@link FieldValues#NO_DATE}. */
+    default int epochDay(int ordinal, String field) {
+        return FieldValues.toEpochDay(value(ordinal, field));
+    }
+
+    static RecordSet of(List<Object> records) {
+        return new ListRecordSet(records == null ? List.of() : records);
+    }
+
+    /**
+     * Adapts ingested records, which arrive either as field maps or as beans
+     * exposing getters. Getter lookups are resolved once per class and field.
+     */
+    final class ListRecordSet implements RecordSet {
+
+        private static final Map<Class<?>, Map<String, Optional<Method>>> ACCESSORS = new ConcurrentHashMap<>();
+
+        private final List<Object> records;
+
+        ListRecordSet(List<Object> records) {
+            this.records = records;
+        }
+
+        @Override
+        public int size() {
+            return records.size();
+        }
+
+        @Override
+        public Object record(int ordinal) {
+            return records.get(ordinal);
+        }
+
+        @Override
+        public Object value(int ordinal, String field) {
+            Object record = records.get(ordinal);
+            if (record == null) {
+                return null;
+            }
+            if (record instanceof Map) {
+                return ((Map<?, ?>) record).get(field);
+            }
+            Optional<Method> accessor = ACCESSORS
+                .computeIfAbsent(record.getClass(), type -> new ConcurrentHashMap<>())
+                .computeIfAbsent(field, name -> findAccessor(record.getClass(), name));
+            if (accessor.isEmpty()) {
+                return null;
+            }
+            try {
+                return accessor.get().invoke(record);
+            } catch (ReflectiveOperationException e) {
+                throw new ReconciliationException("Failed to read field '" + field + "' from record", e);
+            }
+        }
+
+        private static Optional<Method> findAccessor(Class<?> type, String field) {
+            if (field.isEmpty()) {
+                return Optional.empty();
+            }
+            String suffix = Character.toUpperCase(field.charAt(0)) + field.substring(1);
+            for (String name : new String[] {"get" + suffix, "is" + suffix, field}) {
+                try {
+                    Method method = type.getMethod(name);
+                    if (method.getParameterCount() == 0 && method.getReturnType() != void.class) {
+                        return Optional.of(method);
+                    }
+                } catch (NoSuchMethodException ignored) {
+                    // try next naming convention
+                }
+            }
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.reconix;
+
+// ===== STREAMING RECORD SOURCE =====
+// Pull interface between a record feed and the streaming reconciliation engine
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feed of {@link StreamingRecord}s. Implementations adapt a message
+ * listener, a file tail or, for tests, {@link InProcessRecordSource}.
+ */
+public interface RecordSource {
+
+    /**
+     * @return the next record, or {@code null} if none arrived within the timeout
+     */
+    StreamingRecord poll(long timeout, TimeUnit unit) throws InterruptedException;
+
+    /** @return {@code true} once the feed has ended and every record has been polled */
+    boolean isExhausted();
+}
@@ -0,0 +1,46 @@
+package com.reconix;
+
+// ===== SCALAR TOLERANCE KERNELS =====
+// Plain-loop fallback for the bulk tolerance filters
+
+/**
+ * One element per iteration. Used when the Vector API is not available and
+ * as the tail loop of the vectorized kernels.
+ */
+public final class ScalarToleranceKernels implements ToleranceKernels {
+
+    @Override
+    public int amountRunEnd(long[] amounts, int from, int to, long high) {
+        return scalarRunEnd(amounts, from, to, high);
+    }
+
+    @Override
+    public int selectDays(int[] days, int from, int to, int windowStart, int windowEnd, int[] selected) {
+        return scalarSelectDays(days, from, to, windowStart, windowEnd, selected, 0);
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    static int scalarRunEnd(long[] amounts, int from, int to, long high) {
+        int p = from;
+        while (p < to && amounts[p] <= high) {
+            p++;
+        }
+        return p;
+    }
+
+    /** Appends to {@code selected} from index {@code count}; returns the new count. */
+    static int scalarSelectDays(int[] days, int from, int to, int windowStart, int windowEnd,
+                                int[] selected, int count) {
+        for (int p = from; p < to; p++) {
+            int day = days[p];
+            if (day >= windowStart && day <= windowEnd) {
+                selected[count++] = p;
+            }
+        }
+        return count;
+    }
+}
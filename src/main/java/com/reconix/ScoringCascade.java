@@ -0,0 +1,102 @@
+package com.reconix;
+
+// ===== COST-ORDERED SCORING CASCADE =====
+// Cheap features first, model inference only for pairs they leave undecided
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Scores a candidate pair in stages of increasing cost: amount equality,
+ * date comparison, boxed-value equality, string similarity and finally model
+ * inference. With a model of weight {@code w} the pair's score is
+ * {@code (1 - w) * f + w * m}, where {@code f} is the mean field similarity
+ * and {@code m} the model probability, so the features alone bound the score
+ * to {@code [(1 - w) f, (1 - w) f + w]}:
+ * a pair is rejected at the first stage whose deficit makes the upper bound
+ * fall below the bar, and never reaches the model. The bounds only decide
+ * rejection: a surviving pair is retained, ranked and persisted by its score,
+ * so it is always scored exactly by {@link MLModelManager}.
+ * Without a model the cascade reduces to the cost-ordered field pipeline.
+ * No stage can accept early without giving up that exact score, so only
+ * rejections are tallied per stage; acceptances are a single count. Both
+ * are tallied locally and published once per pass.
+ */
+public final class ScoringCascade {
+
+    private static final double DEFICIT_EPSILON = 1e-9;
+
+    public enum Stage {
+        AMOUNT, DATE, VALUE, STRING, MODEL
+    }
+
+    private final ComparatorPipeline.FieldComparator[] comparators;
+    private final MLModelManager modelManager;
+    private final double modelWeight;
+    private final double[] features;
+    private final long[] rejected = new long[Stage.values().length];
+    private long accepted;
+
+    /**
+     * @param modelManager model consulted for undecided pairs, or {@code null} for feature-only scoring
+     * @param modelWeight  share of the score given to the model, in (0, 1)
+     */
+    public ScoringCascade(ComparatorPipeline pipeline, MLModelManager modelManager, double modelWeight) {
+        this.comparators = pipeline.comparators();
+        this.modelManager = modelManager;
+        this.modelWeight = modelManager == null ? 0.0 : modelWeight;
+        this.features = new double[comparators.length];
+    }
+
+    /**
+     * @return the pair's score, or {@code -1} as soon as it provably cannot
+     *         reach {@code minScore}
+     */
+    public double score(RecordBatch source, int sourceOrdinal, RecordBatch target, int targetOrdinal, double minScore) {
+        int fields = comparators.length;
+        if (fields == 0) {
+            return minScore <= 0.0 ? 0.0 : -1;
+        }
+        double featureShare = 1.0 - modelWeight;
+        // Largest total deficit that still lets a perfect model score reach minScore
+        double deficitBudget = fields * (1.0 - (minScore - modelWeight) / featureShare) + DEFICIT_EPSILON;
+        double deficit = 0.0;
+        for (int f = 0; f < fields; f++) {
+            ComparatorPipeline.FieldComparator comparator = comparators[f];
+            double similarity = comparator.similarity(source, sourceOrdinal, target, targetOrdinal, deficitBudget - deficit);
+            if (similarity < 0 || (deficit += 1.0 - similarity) > deficitBudget) {
+                rejected[comparator.stage().ordinal()]++;
+                return -1;
+            }
+            features[f] = similarity;
+        }
+        double featureScore = 1.0 - deficit / fields;
+        if (modelManager == null) {
+            accepted++;
+            return featureScore;
+        }
+        double score = featureShare * featureScore + modelWeight * modelManager.scoreMatch(features);
+        if (score < minScore) {
+            rejected[Stage.MODEL.ordinal()]++;
+            return -1;
+        }
+        accepted++;
+        return score;
+    }
+
+    /**
+     * Publishes this cascade's tallies as {@code reconciliation.cascade.rejections},
+     * tagged by stage, and {@code reconciliation.cascade.accepted}.
+     */
+    public void publishExits(MeterRegistry meterRegistry, String environment) {
+        for (Stage stage : Stage.values()) {
+            long count = rejected[stage.ordinal()];
+            if (count > 0) {
+                meterRegistry.counter("reconciliation.cascade.rejections", "environment", environment,
+                    "stage", stage.name().toLowerCase()).increment(count);
+            }
+        }
+        if (accepted > 0) {
+            meterRegistry.counter("reconciliation.cascade.accepted", "environment", environment).increment(accepted);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.reconix;
+
+// ===== RECORD SPILL FILE =====
+// Segmented temp files holding records evicted from heap-resident state
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stores serialized records under stable handles so that only a small handle
+ * stays on the heap. Records are appended to the newest segment file, and a
+ * new segment is started once it holds {@code segmentBytes}. Each segment
+ * counts its live records; a segment is deleted once every record in it has
+ * been {@linkplain #release released}, or truncated in place if it is the
+ * newest, so disk use follows the records still pending rather than every
+ * record ever spilled. Remaining segments are deleted on close.
+ */
+final class SpillFile implements Closeable {
+
+    static final long DEFAULT_SEGMENT_BYTES = 64L * 1024 * 1024;
+
+    // A handle is the segment id above the offset within that segment
+    private static final int OFFSET_BITS = 40;
+    private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+    private static final int SEGMENT_ID_MASK = (1 << (Long.SIZE - 1 - OFFSET_BITS)) - 1;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final Map<Integer, Segment> segments = new HashMap<>();
+    private Segment active;
+    private int nextSegmentId;
+    private long size;
+
+    private SpillFile(Path directory, long segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    static SpillFile create(Path directory) {
+        return create(directory, DEFAULT_SEGMENT_BYTES);
+    }
+
+    static SpillFile create(Path directory, long segmentBytes) {
+        if (segmentBytes <= 0 || segmentBytes > OFFSET_MASK) {
+            throw new IllegalArgumentException("segmentBytes must be in (0, " + OFFSET_MASK + "]");
+        }
+        return new SpillFile(directory, segmentBytes);
+    }
+
+    /**
+     * @return the handle to pass to {@link #read} and {@link #release}
+     * @throws java.io.NotSerializableException if the record cannot be spilled
+     */
+    long write(Object record) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(record);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + bytes.size());
+        buffer.putInt(bytes.size()).put(bytes.toByteArray()).flip();
+        Segment segment = segmentFor(buffer.limit());
+        long offset = segment.size;
+        while (buffer.hasRemaining()) {
+            segment.channel.write(buffer, offset + buffer.position());
+        }
+        segment.size += buffer.limit();
+        segment.live++;
+        size += buffer.limit();
+        return ((long) segment.id << OFFSET_BITS) | offset;
+    }
+
+    Object read(long handle) throws IOException {
+        Segment segment = segment(handle);
+        long offset = handle & OFFSET_MASK;
+        ByteBuffer length = readFully(segment, offset, Integer.BYTES);
+        ByteBuffer payload = readFully(segment, offset + Integer.BYTES, length.getInt());
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(payload.array()))) {
+            return in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Spilled record has an unknown class", e);
+        }
+    }
+
+    /** Marks the record behind {@code handle} as no longer needed; it must not be read afterwards. */
+    void release(long handle) throws IOException {
+        Segment segment = segment(handle);
+        if (--segment.live > 0) {
+            return;
+        }
+        size -= segment.size;
+        if (segment == active) {
+            // The newest segment is reused from the start rather than replaced
+            segment.channel.truncate(0);
+            segment.size = 0;
+        } else {
+            segments.remove(segment.id);
+            segment.channel.close();
+        }
+    }
+
+    /** Bytes held in segments that have not been deleted. */
+    long size() {
+        return size;
+    }
+
+    int segmentCount() {
+        return segments.size();
+    }
+
+    private Segment segmentFor(int length) throws IOException {
+        if (active == null || (active.size > 0 && active.size + length > segmentBytes)) {
+            active = newSegment();
+        }
+        return active;
+    }
+
+    private Segment newSegment() throws IOException {
+        while (segments.containsKey(nextSegmentId)) {
+            nextSegmentId = (nextSegmentId + 1) & SEGMENT_ID_MASK;
+        }
+        Path path = Files.createTempFile(directory, "reconix-stream-", ".spill");
+        Segment segment = new Segment(nextSegmentId, FileChannel.open(path, StandardOpenOption.READ,
+            StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE));
+        segments.put(segment.id, segment);
+        nextSegmentId = (nextSegmentId + 1) & SEGMENT_ID_MASK;
+        return segment;
+    }
+
+    private Segment segment(long handle) throws IOException {
+        Segment segment = segments.get((int) (handle >>> OFFSET_BITS));
+        if (segment == null) {
+            throw new IOException("Spill handle " + handle + " refers to a released segment");
+        }
+        return segment;
+    }
+
+    private static ByteBuffer readFully(Segment segment, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (segment.channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Spill segment truncated at " + (position + buffer.position()));
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (Segment segment : segments.values()) {
+            try {
+                segment.channel.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        segments.clear();
+        active = null;
+        size = 0;
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static final class Segment {
+        final int id;
+        final FileChannel channel;
+        long size;
+        int live;
+
+        Segment(int id, FileChannel channel) {
+            this.id = id;
+            this.channel = channel;
+        }
+    }
+}
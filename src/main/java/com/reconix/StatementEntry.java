@@ -0,0 +1,224 @@
+package com.reconix;
+
+// ===== STATEMENT ENTRY =====
+// One booked or pending bank statement line, as yielded by the statement readers
+
+/**
+ * A typed statement line, independent of the wire format it came from
+ * (ISO 20022 camt.05x, SWIFT MT940/MT942). Amounts are signed minor units:
+ * credits positive, debits negative. Dates are epoch days, or
+ * {@link FieldValues#NO_DATE} when the statement omits them.
+ *
+ * <p>Readers fill and hand out one instance per stream, so a file of any
+ * size costs one entry of memory; an entry is valid until the reader's next
+ * call. {@link #appendTo} copies it into a batch of {@link #schema}.
+ */
+public final class StatementEntry {
+
+    public static final String ACCOUNT = "account";
+    public static final String STATEMENT_ID = "statementId";
+    public static final String ENTRY_REFERENCE = "entryReference";
+    public static final String BANK_REFERENCE = "bankReference";
+    public static final String END_TO_END_ID = "endToEndId";
+    public static final String AMOUNT = "amount";
+    public static final String CURRENCY = "currency";
+    public static final String BOOKING_DATE = "bookingDate";
+    public static final String VALUE_DATE = "valueDate";
+    public static final String COUNTERPARTY = "counterparty";
+    public static final String REMITTANCE_INFO = "remittanceInfo";
+    public static final String STATUS = "status";
+
+    private static final String[] COLUMNS = {
+        ACCOUNT, STATEMENT_ID, ENTRY_REFERENCE, BANK_REFERENCE, END_TO_END_ID, AMOUNT, CURRENCY,
+        BOOKING_DATE, VALUE_DATE, COUNTERPARTY, REMITTANCE_INFO, STATUS
+    };
+    static final int ACCOUNT_COLUMN = 0;
+    static final int STATEMENT_ID_COLUMN = 1;
+    static final int ENTRY_REFERENCE_COLUMN = 2;
+    static final int BANK_REFERENCE_COLUMN = 3;
+    static final int END_TO_END_ID_COLUMN = 4;
+    static final int AMOUNT_COLUMN = 5;
+    static final int CURRENCY_COLUMN = 6;
+    static final int BOOKING_DATE_COLUMN = 7;
+    static final int VALUE_DATE_COLUMN = 8;
+    static final int COUNTERPARTY_COLUMN = 9;
+    static final int REMITTANCE_INFO_COLUMN = 10;
+    static final int STATUS_COLUMN = 11;
+
+    private String account;
+    private String statementId;
+    private String entryReference;
+    private String bankReference;
+    private String endToEndId;
+    private long amount = FieldValues.NO_AMOUNT;
+    private String currency;
+    private int bookingDate = FieldValues.NO_DATE;
+    private int valueDate = FieldValues.NO_DATE;
+    private String counterparty;
+    private String remittanceInfo;
+    private String status;
+
+    /** Batch schema of statement entries, with amounts at {@code scale}. */
+    public static RecordSchema schema(int scale) {
+        RecordSchema.ColumnType[] types = new RecordSchema.ColumnType[COLUMNS.length];
+        int[] scales = new int[COLUMNS.length];
+        for (int c = 0; c < COLUMNS.length; c++) {
+            types[c] = RecordSchema.ColumnType.STRING;
+        }
+        types[AMOUNT_COLUMN] = RecordSchema.ColumnType.AMOUNT;
+        scales[AMOUNT_COLUMN] = scale;
+        types[BOOKING_DATE_COLUMN] = RecordSchema.ColumnType.DATE;
+        types[VALUE_DATE_COLUMN] = RecordSchema.ColumnType.DATE;
+        return RecordSchema.of(COLUMNS, types, scales);
+    }
+
+    /** Adds this entry as a row of a builder created with {@link #schema}. */
+    public int appendTo(RecordBatchBuilder builder) {
+        int ordinal = builder.addRow();
+        StringDictionary dictionary = builder.dictionary();
+        setString(builder, dictionary, ordinal, ACCOUNT_COLUMN, account);
+        setString(builder, dictionary, ordinal, STATEMENT_ID_COLUMN, statementId);
+        setString(builder, dictionary, ordinal, ENTRY_REFERENCE_COLUMN, entryReference);
+        setString(builder, dictionary, ordinal, BANK_REFERENCE_COLUMN, bankReference);
+        setString(builder, dictionary, ordinal, END_TO_END_ID_COLUMN, endToEndId);
+        if (amount != FieldValues.NO_AMOUNT) {
+            builder.setMinorUnits(ordinal, AMOUNT_COLUMN, amount);
+        }
+        setString(builder, dictionary, ordinal, CURRENCY_COLUMN, currency);
+        if (bookingDate != FieldValues.NO_DATE) {
+            builder.setEpochDay(ordinal, BOOKING_DATE_COLUMN, bookingDate);
+        }
+        if (valueDate != FieldValues.NO_DATE) {
+            builder.setEpochDay(ordinal, VALUE_DATE_COLUMN, valueDate);
+        }
+        setString(builder, dictionary, ordinal, COUNTERPARTY_COLUMN, counterparty);
+        setString(builder, dictionary, ordinal, REMITTANCE_INFO_COLUMN, remittanceInfo);
+        setString(builder, dictionary, ordinal, STATUS_COLUMN, status);
+        return ordinal;
+    }
+
+    private static void setString(RecordBatchBuilder builder, StringDictionary dictionary, int ordinal, int column,
+                                  String value) {
+        if (value != null) {
+            builder.setStringCode(ordinal, column, dictionary.encode(value));
+        }
+    }
+
+    /** Clears every field but the statement-level account and statement id. */
+    void resetEntry() {
+        entryReference = null;
+        bankReference = null;
+        endToEndId = null;
+        amount = FieldValues.NO_AMOUNT;
+        currency = null;
+        bookingDate = FieldValues.NO_DATE;
+        valueDate = FieldValues.NO_DATE;
+        counterparty = null;
+        remittanceInfo = null;
+        status = null;
+    }
+
+    /** Clears every field, at the start of a new statement. */
+    void resetStatement() {
+        account = null;
+        statementId = null;
+        resetEntry();
+    }
+
+    public String account() {
+        return account;
+    }
+
+    void account(String account) {
+        this.account = account;
+    }
+
+    public String statementId() {
+        return statementId;
+    }
+
+    void statementId(String statementId) {
+        this.statementId = statementId;
+    }
+
+    public String entryReference() {
+        return entryReference;
+    }
+
+    void entryReference(String entryReference) {
+        this.entryReference = entryReference;
+    }
+
+    public String bankReference() {
+        return bankReference;
+    }
+
+    void bankReference(String bankReference) {
+        this.bankReference = bankReference;
+    }
+
+    public String endToEndId() {
+        return endToEndId;
+    }
+
+    void endToEndId(String endToEndId) {
+        this.endToEndId = endToEndId;
+    }
+
+    /** Signed minor units, or {@link FieldValues#NO_AMOUNT}. */
+    public long amount() {
+        return amount;
+    }
+
+    void amount(long amount) {
+        this.amount = amount;
+    }
+
+    public String currency() {
+        return currency;
+    }
+
+    void currency(String currency) {
+        this.currency = currency;
+    }
+
+    public int bookingDate() {
+        return bookingDate;
+    }
+
+    void bookingDate(int bookingDate) {
+        this.bookingDate = bookingDate;
+    }
+
+    public int valueDate() {
+        return valueDate;
+    }
+
+    void valueDate(int valueDate) {
+        this.valueDate = valueDate;
+    }
+
+    public String counterparty() {
+        return counterparty;
+    }
+
+    void counterparty(String counterparty) {
+        this.counterparty = counterparty;
+    }
+
+    public String remittanceInfo() {
+        return remittanceInfo;
+    }
+
+    void remittanceInfo(String remittanceInfo) {
+        this.remittanceInfo = remittanceInfo;
+    }
+
+    public String status() {
+        return status;
+    }
+
+    void status(String status) {
+        this.status = status;
+    }
+}
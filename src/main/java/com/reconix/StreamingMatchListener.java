@@ -0,0 +1,27 @@
+package com.reconix;
+
+// ===== STREAMING MATCH LISTENER =====
+// Callbacks for matches and breaks emitted by the streaming engine
+
+/**
+ * Receives the output of a streaming reconciliation. Callbacks run on the
+ * session's matching thread, so slow listeners add directly to match latency
+ * and should hand work off rather than block.
+ */
+public interface StreamingMatchListener {
+
+    enum BreakReason {
+        /** The record's window closed without a counterpart arriving. */
+        EXPIRED,
+        /** The record arrived after its window had already closed and found no counterpart. */
+        LATE,
+        /** A matching field was missing, so the record can never match. */
+        NO_KEY,
+        /** The record was dropped to keep state within its memory bound. */
+        EVICTED
+    }
+
+    void onMatch(StreamingRecord source, StreamingRecord target);
+
+    void onBreak(StreamingRecord record, BreakReason reason);
+}
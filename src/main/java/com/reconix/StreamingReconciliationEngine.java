@@ -0,0 +1,184 @@
+package com.reconix;
+
+// ===== STREAMING RECONCILIATION ENGINE =====
+// REAL_TIME reconciliation: matches emitted as counterparts arrive, breaks as windows close
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs REAL_TIME reconciliations. Each session pulls records from a
+ * {@link RecordSource} on its own thread and feeds them to a
+ * {@link WindowedMatchState}, which exact-matches them on the job's matching
+ * fields. Matching is a hash lookup on the arrival path, so a match is
+ * emitted as soon as its counterpart is polled.
+ *
+ * <p>Latency from counterpart arrival to match emission is recorded as
+ * {@code reconciliation.streaming.match.latency} with a published p99. The
+ * per-job {@code reconciliation.streaming.pending} gauges are removed when
+ * the session ends.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class StreamingReconciliationEngine {
+
+    private static final long DEFAULT_ALLOWED_LATENESS_MILLIS = 0;
+    private static final int DEFAULT_MAX_IN_MEMORY_RECORDS = 1_000_000;
+    private static final int DEFAULT_MAX_PENDING_RECORDS = 10_000_000;
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private final MeterRegistry meterRegistry;
+
+    public StreamingSession start(ReconciliationRequest request, RecordSource source, StreamingMatchListener listener) {
+        ReconciliationConfigurationDTO config = request.getConfiguration();
+        if (config == null || config.getMatchingFields() == null || config.getMatchingFields().isEmpty()) {
+            throw new ValidationException("Streaming reconciliation requires matching fields");
+        }
+        StreamingWindowDTO window = config.getStreamingWindow();
+        if (window == null || window.getWindowMillis() == null) {
+            throw new ValidationException("Streaming reconciliation requires a streaming window");
+        }
+        boolean spill = !Boolean.FALSE.equals(window.getSpillEnabled());
+        WindowedMatchState state = new WindowedMatchState(
+            List.copyOf(config.getMatchingFields()),
+            window.getWindowMillis(),
+            window.getAllowedLatenessMillis() != null ? window.getAllowedLatenessMillis() : DEFAULT_ALLOWED_LATENESS_MILLIS,
+            window.getMaxInMemoryRecords() != null ? window.getMaxInMemoryRecords() : DEFAULT_MAX_IN_MEMORY_RECORDS,
+            window.getMaxPendingRecords() != null ? window.getMaxPendingRecords() : DEFAULT_MAX_PENDING_RECORDS,
+            spill ? Path.of(System.getProperty("java.io.tmpdir")) : null,
+            new MeteredListener(listener, request.getEnvironment()));
+
+        Tags tags = Tags.of("environment", request.getEnvironment(), "job", request.getRequestId());
+        List<Gauge> gauges = List.of(
+            Gauge.builder("reconciliation.streaming.pending", state, WindowedMatchState::residentCount)
+                .tags(tags.and("storage", "heap")).register(meterRegistry),
+            Gauge.builder("reconciliation.streaming.pending", state, WindowedMatchState::spilledCount)
+                .tags(tags.and("storage", "spill")).register(meterRegistry));
+
+        StreamingSession session = new StreamingSession(request.getRequestId(), source, state, meterRegistry, gauges);
+        Thread thread = new Thread(session::run, "reconix-stream-" + request.getRequestId());
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Started streaming reconciliation {} for tenant {} (window {} ms)",
+            request.getRequestId(), request.getTenantId(), window.getWindowMillis());
+        return session;
+    }
+
+    /**
+     * A running stream. It completes once its source is exhausted and every
+     * remaining record has been emitted as a break; {@link #stop()} ends it
+     * early without flushing, within one poll timeout.
+     */
+    public static final class StreamingSession {
+        private final String jobId;
+        private final RecordSource source;
+        private final WindowedMatchState state;
+        private final MeterRegistry meterRegistry;
+        private final List<Gauge> gauges;
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+        private volatile boolean stopped;
+
+        private StreamingSession(String jobId, RecordSource source, WindowedMatchState state,
+                                 MeterRegistry meterRegistry, List<Gauge> gauges) {
+            this.jobId = jobId;
+            this.source = source;
+            this.state = state;
+            this.meterRegistry = meterRegistry;
+            this.gauges = gauges;
+        }
+
+        public CompletableFuture<Void> completion() {
+            return completion;
+        }
+
+        /**
+         * Asks the session to end after the record in hand. The thread is not
+         * interrupted: an interrupt during a spill write would close the
+         * spill channel under it.
+         */
+        public void stop() {
+            stopped = true;
+        }
+
+        private void run() {
+            try {
+                while (!stopped && !source.isExhausted()) {
+                    StreamingRecord record = source.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (record != null) {
+                        state.accept(record);
+                    }
+                }
+                if (stopped) {
+                    log.info("Streaming reconciliation {} stopped at watermark {}", jobId, state.watermark());
+                } else {
+                    state.flush();
+                }
+                completion.complete(null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.info("Streaming reconciliation {} stopped at watermark {}", jobId, state.watermark());
+                completion.complete(null);
+            } catch (RuntimeException e) {
+                log.error("Streaming reconciliation {} failed", jobId, e);
+                completion.completeExceptionally(e);
+            } finally {
+                gauges.forEach(meterRegistry::remove);
+                try {
+                    state.close();
+                } catch (IOException e) {
+                    log.warn("Failed to release spill file of streaming reconciliation {}", jobId, e);
+                }
+            }
+        }
+    }
+
+    /** Records latency and outcome counts around the caller's listener. */
+    private final class MeteredListener implements StreamingMatchListener {
+        private final StreamingMatchListener delegate;
+        private final Timer matchLatency;
+        private final Counter matches;
+        private final Map<BreakReason, Counter> breaks = new EnumMap<>(BreakReason.class);
+
+        MeteredListener(StreamingMatchListener delegate, String environment) {
+            this.delegate = delegate;
+            this.matchLatency = Timer.builder("reconciliation.streaming.match.latency")
+                .tag("environment", environment)
+                .publishPercentiles(0.99)
+                .register(meterRegistry);
+            this.matches = meterRegistry.counter("reconciliation.streaming.matches", "environment", environment);
+            for (BreakReason reason : BreakReason.values()) {
+                breaks.put(reason, meterRegistry.counter("reconciliation.streaming.breaks",
+                    "environment", environment, "reason", reason.name().toLowerCase()));
+            }
+        }
+
+        @Override
+        public void onMatch(StreamingRecord source, StreamingRecord target) {
+            long arrivedNanos = Math.max(source.getArrivalNanos(), target.getArrivalNanos());
+            matchLatency.record(System.nanoTime() - arrivedNanos, TimeUnit.NANOSECONDS);
+            delegate.onMatch(source, target);
+            matches.increment();
+        }
+
+        @Override
+        public void onBreak(StreamingRecord record, BreakReason reason) {
+            delegate.onBreak(record, reason);
+            breaks.get(reason).increment();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.reconix;
+
+// ===== STREAMING RECORD =====
+// One source or target record arriving on a REAL_TIME reconciliation stream
+
+/**
+ * A record with the side it belongs to and its event time. The arrival
+ * instant is captured when the record is created, so match latency covers
+ * queueing inside the engine as well as matching itself.
+ */
+public final class StreamingRecord {
+
+    public enum Side {
+        SOURCE, TARGET
+    }
+
+    private final Side side;
+    private final Object record;
+    private final long eventTimeMillis;
+    private final long arrivalNanos;
+
+    public StreamingRecord(Side side, Object record, long eventTimeMillis) {
+        this(side, record, eventTimeMillis, System.nanoTime());
+    }
+
+    StreamingRecord(Side side, Object record, long eventTimeMillis, long arrivalNanos) {
+        this.side = side;
+        this.record = record;
+        this.eventTimeMillis = eventTimeMillis;
+        this.arrivalNanos = arrivalNanos;
+    }
+
+    public Side getSide() {
+        return side;
+    }
+
+    public Object getRecord() {
+        return record;
+    }
+
+    public long getEventTimeMillis() {
+        return eventTimeMillis;
+    }
+
+    /** {@link System#nanoTime()} at which the record entered the engine. */
+    public long getArrivalNanos() {
+        return arrivalNanos;
+    }
+}
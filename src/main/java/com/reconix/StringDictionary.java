@@ -0,0 +1,61 @@
+package com.reconix;
+
+// ===== STRING DICTIONARY =====
+// Shared string-to-code dictionary for dictionary-encoded record columns
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns dense int codes to distinct strings. Source and target batches of
+ * one job share a dictionary, so equal strings on either side carry equal
+ * codes and each distinct value is held on the heap once. Encoding is not
+ * thread-safe; batches are built on one thread and only read concurrently.
+ */
+public final class StringDictionary {
+
+    public static final int NO_CODE = -1;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+    private CounterpartyNormalizer.NormalizedName[] counterpartyNames = new CounterpartyNormalizer.NormalizedName[0];
+
+    public int encode(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    /** Returns the code of an already-encoded string, or {@link #NO_CODE}. */
+    public int lookup(String value) {
+        Integer code = codes.get(value);
+        return code == null ? NO_CODE : code;
+    }
+
+    public String decode(int code) {
+        return values.get(code);
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    /** Keys attached by {@link CounterpartyNormalizer#precompute}, or {@code null} if none were computed for the code. */
+    CounterpartyNormalizer.NormalizedName counterpartyName(int code) {
+        return code < counterpartyNames.length ? counterpartyNames[code] : null;
+    }
+
+    void attachCounterpartyName(int code, CounterpartyNormalizer.NormalizedName name) {
+        if (code >= counterpartyNames.length) {
+            counterpartyNames = Arrays.copyOf(counterpartyNames, Math.max(values.size(), code + 1));
+        }
+        counterpartyNames[code] = name;
+    }
+}
@@ -0,0 +1,54 @@
+package com.reconix;
+
+// ===== TENANT CONTEXT REGISTRY =====
+// Resolves the resource limits a tenant's reconciliation jobs run under
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the validated {@link SecureTenantContext} of each tenant, as
+ * registered when its session is established, and answers the
+ * {@link SecureTenantContext.ResourceLimits} a job runs under. Tenants
+ * without a registered context get the configured defaults; the default
+ * memory limit is a quarter of the heap unless
+ * {@code reconix.tenant.default-max-memory-usage} is set, and it sizes the
+ * run buffers of jobs that request sort-merge matching.
+ */
+@Component
+public class TenantContextRegistry {
+
+    private static final int DEFAULT_HEAP_SHARE = 4;
+
+    private final Map<String, SecureTenantContext> contexts = new ConcurrentHashMap<>();
+    private final SecureTenantContext.ResourceLimits defaultLimits;
+
+    public TenantContextRegistry(@Value("${reconix.tenant.default-max-memory-usage:0}") long defaultMaxMemoryUsage,
+                                 @Value("${reconix.tenant.default-matching-parallelism:0}") int defaultMatchingParallelism) {
+        this.defaultLimits = SecureTenantContext.ResourceLimits.builder()
+            .maxMemoryUsage(defaultMaxMemoryUsage > 0
+                ? defaultMaxMemoryUsage : Runtime.getRuntime().maxMemory() / DEFAULT_HEAP_SHARE)
+            .matchingParallelism(defaultMatchingParallelism)
+            .build();
+    }
+
+    public void register(SecureTenantContext context) {
+        contexts.put(context.getTenantId(), context);
+    }
+
+    public void unregister(String tenantId) {
+        contexts.remove(tenantId);
+    }
+
+    /** The tenant's limits, or the defaults when it has no context or its context sets none. */
+    public SecureTenantContext.ResourceLimits resourceLimits(String tenantId) {
+        SecureTenantContext context = contexts.get(tenantId);
+        if (context == null || context.getResourceLimits() == null) {
+            return defaultLimits;
+        }
+        return context.getResourceLimits();
+    }
+}
@@ -0,0 +1,73 @@
+package com.reconix;
+
+// ===== TOLERANCE KERNELS =====
+// Bulk amount-run and date-window filters over primitive columns, scalar or vectorized
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The two inner loops of tolerance matching, as bulk operations over the
+ * sorted amount and position-aligned date columns of an
+ * {@link AmountToleranceIndex}: finding where a run of candidate amounts
+ * ends, and selecting the candidates whose value date lies in the window.
+ *
+ * <p>{@link #selected()} picks an implementation once per JVM. On JDK 17+
+ * with {@code --add-modules jdk.incubator.vector} it loads
+ * {@code VectorToleranceKernels} (built from {@code src/main/java17} by the
+ * {@code vector-kernels} profile); otherwise, or when
+ * {@code -Dreconix.kernels.vector=false}, it uses {@link ScalarToleranceKernels}.
+ * Both produce identical results.
+ */
+public interface ToleranceKernels {
+
+    String VECTOR_MODULE = "jdk.incubator.vector";
+    String VECTOR_IMPLEMENTATION = "com.reconix.VectorToleranceKernels";
+    String VECTOR_PROPERTY = "reconix.kernels.vector";
+
+    /** First position in {@code [from, to)} whose amount exceeds {@code high}; amounts ascend over the range. */
+    int amountRunEnd(long[] amounts, int from, int to, long high);
+
+    /**
+     * Writes the positions in {@code [from, to)} whose day lies in
+     * {@code [windowStart, windowEnd]} to {@code selected}, in ascending order.
+     *
+     * @return the number of positions written
+     */
+    int selectDays(int[] days, int from, int to, int windowStart, int windowEnd, int[] selected);
+
+    String name();
+
+    static ToleranceKernels selected() {
+        return Selection.KERNELS;
+    }
+
+    /** Lazily resolved so the module probe runs on first use, not at class load. */
+    @Slf4j
+    final class Selection {
+
+        static final ToleranceKernels KERNELS = load();
+
+        private Selection() {
+        }
+
+        private static ToleranceKernels load() {
+            if (!Boolean.parseBoolean(System.getProperty(VECTOR_PROPERTY, "true"))) {
+                log.info("Tolerance kernels: scalar ({}=false)", VECTOR_PROPERTY);
+                return new ScalarToleranceKernels();
+            }
+            if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+                log.info("Tolerance kernels: scalar ({} not resolved)", VECTOR_MODULE);
+                return new ScalarToleranceKernels();
+            }
+            try {
+                ToleranceKernels kernels = Class.forName(VECTOR_IMPLEMENTATION)
+                    .asSubclass(ToleranceKernels.class).getDeclaredConstructor().newInstance();
+                log.info("Tolerance kernels: {}", kernels.name());
+                return kernels;
+            } catch (ReflectiveOperationException | LinkageError e) {
+                log.warn("Tolerance kernels: scalar ({} unavailable: {})", VECTOR_IMPLEMENTATION, e.toString());
+                return new ScalarToleranceKernels();
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.reconix;
+
+// ===== TOLERANCE MATCHER =====
+// Residual matching on the key fields with amount tolerance and value-date window
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Matches records whose remaining key fields are equal and whose amounts
+ * and/or value dates are close: amounts within the larger of the absolute
+ * and percentage tolerance (bank fees, FX rounding), dates within a window
+ * of calendar or business days (value vs booking date drift).
+ *
+ * <p>Both predicates are evaluated in a single pass. The amount index drives
+ * candidate lookup when an amount tolerance is configured, and the amount run
+ * and date window are filtered in bulk by {@link ToleranceKernels}; otherwise
+ * the date buckets drive the lookup. Each source
+ * takes the unclaimed candidate with the smallest amount delta, then the
+ * smallest date delta. Confidence falls from 1.0 for identical values to 0.5
+ * at the edge of every configured bound.
+ */
+public final class ToleranceMatcher {
+
+    private final List<String> keyFields;
+    private final String amountField;
+    private final int scale;
+    private final AmountTolerance amountTolerance;
+    private final String dateField;
+    private final int windowDays;
+    private final BusinessDayCalendar calendar;
+
+    private ToleranceMatcher(List<String> keyFields, String amountField, int scale, BigDecimal absoluteTolerance,
+                             BigDecimal percentTolerance, String dateField, int windowDays, BusinessDayCalendar calendar) {
+        this.keyFields = keyFields;
+        this.amountField = amountField;
+        this.scale = scale;
+        this.amountTolerance = AmountTolerance.of(absoluteTolerance, percentTolerance, scale);
+        this.dateField = dateField;
+        this.windowDays = windowDays;
+        this.calendar = calendar;
+    }
+
+    /**
+     * @return a matcher for the configured amount tolerance and/or date window
+     *         over the given matching fields, or {@code null} if neither applies
+     */
+    public static ToleranceMatcher fromConfiguration(ReconciliationConfigurationDTO configuration,
+                                                     List<String> matchingFields, int scale) {
+        String amountField = configuration.getAmountField();
+        boolean amountTolerance = amountField != null && matchingFields.contains(amountField)
+            && (configuration.getAmountTolerance() != null || configuration.getAmountTolerancePercent() != null);
+        String dateField = configuration.getDateField();
+        boolean dateWindow = dateField != null && matchingFields.contains(dateField)
+            && configuration.getDateWindowDays() != null;
+        if (!amountTolerance && !dateWindow) {
+            return null;
+        }
+        List<String> keyFields = new ArrayList<>(matchingFields);
+        if (amountTolerance) {
+            keyFields.remove(amountField);
+        }
+        if (dateWindow) {
+            keyFields.remove(dateField);
+        }
+        return new ToleranceMatcher(keyFields,
+            amountTolerance ? amountField : null, scale,
+            configuration.getAmountTolerance(), configuration.getAmountTolerancePercent(),
+            dateWindow ? dateField : null, dateWindow ? configuration.getDateWindowDays() : 0,
+            BusinessDayCalendar.from(configuration.getBusinessCalendar()));
+    }
+
+    public List<String> keyFields() {
+        return keyFields;
+    }
+
+    public MatchPairs match(RecordSet source, int[] sourceOrdinals, RecordSet target, int[] targetOrdinals) {
+        KeyGroups groups = new KeyGroups(keyFields);
+        AmountToleranceIndex amountIndex = null;
+        DateWindowIndex dateIndex = null;
+        int[] inWindow = null;
+        if (amountField != null) {
+            amountIndex = AmountToleranceIndex.build(target, targetOrdinals, groups, amountField, scale, dateField);
+            if (dateField != null) {
+                inWindow = new int[amountIndex.size()];
+            }
+        } else {
+            dateIndex = DateWindowIndex.build(target, targetOrdinals, groups, dateField);
+        }
+
+        MatchPairs pairs = new MatchPairs();
+        BitSet claimedTargets = new BitSet(target.size());
+        for (int sourceOrdinal : sourceOrdinals) {
+            long amount = 0;
+            if (amountField != null) {
+                amount = source.minorUnits(sourceOrdinal, amountField, scale);
+                if (amount == FieldValues.NO_AMOUNT) {
+                    continue;
+                }
+            }
+            int day = 0;
+            int windowStart = 0;
+            int windowEnd = 0;
+            if (dateField != null) {
+                day = source.epochDay(sourceOrdinal, dateField);
+                if (day == FieldValues.NO_DATE) {
+                    continue;
+                }
+                windowStart = calendar.shift(day, -windowDays);
+                windowEnd = calendar.shift(day, windowDays);
+            }
+            int group = groups.lookup(source, sourceOrdinal);
+            if (group == KeyGroups.NO_GROUP) {
+                continue;
+            }
+
+            int bestTarget = -1;
+            long bestAmountDelta = Long.MAX_VALUE;
+            int bestDayDelta = Integer.MAX_VALUE;
+            long tolerance = 0;
+            if (amountIndex != null) {
+                tolerance = amountTolerance.toleranceFor(amount);
+                int from = amountIndex.lowerBound(group, AmountTolerance.saturatedAdd(amount, -tolerance));
+                int to = amountIndex.upperBound(group, from, AmountTolerance.saturatedAdd(amount, tolerance));
+                int candidates = to - from;
+                if (inWindow != null) {
+                    candidates = amountIndex.selectInDateWindow(from, to, windowStart, windowEnd, inWindow);
+                }
+                for (int c = 0; c < candidates; c++) {
+                    int p = inWindow != null ? inWindow[c] : from + c;
+                    int targetOrdinal = amountIndex.ordinalAt(p);
+                    if (claimedTargets.get(targetOrdinal)) {
+                        continue;
+                    }
+                    int dayDelta = inWindow != null ? Math.abs(amountIndex.dayAt(p) - day) : 0;
+                    long amountDelta = Math.abs(amountIndex.amountAt(p) - amount);
+                    if (amountDelta < bestAmountDelta || (amountDelta == bestAmountDelta && dayDelta < bestDayDelta)) {
+                        bestTarget = targetOrdinal;
+                        bestAmountDelta = amountDelta;
+                        bestDayDelta = dayDelta;
+                    }
+                }
+            } else {
+                bestAmountDelta = 0;
+                for (int d = windowStart; d <= windowEnd; d++) {
+                    int start = dateIndex.bucketStart(group, d);
+                    if (start < 0 || Math.abs(d - day) >= bestDayDelta) {
+                        continue;
+                    }
+                    int end = dateIndex.bucketEnd(group, d);
+                    for (int p = start; p < end; p++) {
+                        if (!claimedTargets.get(dateIndex.ordinalAt(p))) {
+                            bestTarget = dateIndex.ordinalAt(p);
+                            bestDayDelta = Math.abs(d - day);
+                            break;
+                        }
+                    }
+                }
+            }
+
+            if (bestTarget >= 0) {
+                claimedTargets.set(bestTarget);
+                pairs.add(sourceOrdinal, bestTarget,
+                    confidence(bestAmountDelta, tolerance, bestDayDelta, day, windowStart, windowEnd));
+            }
+        }
+        return pairs;
+    }
+
+    /** Renders the amount and date differences of an accepted pair; empty if the values are identical. */
+    public List<String> describeDifferences(RecordSet source, int sourceOrdinal, RecordSet target, int targetOrdinal) {
+        List<String> differences = new ArrayList<>(2);
+        if (amountField != null) {
+            long sourceAmount = source.minorUnits(sourceOrdinal, amountField, scale);
+            long targetAmount = target.minorUnits(targetOrdinal, amountField, scale);
+            if (sourceAmount != targetAmount) {
+                differences.add(amountField + ": " + BigDecimal.valueOf(sourceAmount, scale).toPlainString()
+                    + " vs " + BigDecimal.valueOf(targetAmount, scale).toPlainString()
+                    + " (delta " + BigDecimal.valueOf(targetAmount - sourceAmount, scale).toPlainString() + ")");
+            }
+        }
+        if (dateField != null) {
+            int sourceDay = source.epochDay(sourceOrdinal, dateField);
+            int targetDay = target.epochDay(targetOrdinal, dateField);
+            if (sourceDay != targetDay) {
+                differences.add(dateField + ": " + LocalDate.ofEpochDay(sourceDay) + " vs " + LocalDate.ofEpochDay(targetDay)
+                    + " (" + (targetDay - sourceDay) + " days)");
+            }
+        }
+        return differences;
+    }
+
+    private double confidence(long amountDelta, long tolerance, int dayDelta, int day, int windowStart, int windowEnd) {
+        double penalty = 0.0;
+        int dimensions = 0;
+        if (amountField != null) {
+            penalty += tolerance == 0 ? 0.0 : (double) amountDelta / tolerance;
+            dimensions++;
+        }
+        if (dateField != null) {
+            int reach = Math.max(1, Math.max(day - windowStart, windowEnd - day));
+            penalty += Math.min(1.0, (double) dayDelta / reach);
+            dimensions++;
+        }
+        return 1.0 - 0.5 * penalty / dimensions;
+    }
+}
@@ -0,0 +1,120 @@
+package com.reconix;
+
+// ===== TOP-K CANDIDATE HEAPS =====
+// Per-source bounded min-heaps of scored fuzzy candidates in flat primitive arrays
+
+/**
+ * Keeps, for every source of a {@link CandidatePairs}, only its {@code k}
+ * best-scoring targets. Each source owns a slice of two flat arrays (target
+ * ordinal and {@code float} score) sized to {@code min(k, its candidate
+ * count)}, arranged as a min-heap on score, so memory is bounded by
+ * {@code k} per source however many candidates are scored, with no object
+ * per pair. On equal scores the candidate seen first is kept.
+ */
+public final class TopKCandidateHeaps {
+
+    private final CandidatePairs candidates;
+    private final int[] offsets;
+    private final int[] sizes;
+    private final int[] targets;
+    private final float[] scores;
+
+    public TopKCandidateHeaps(CandidatePairs candidates, int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+        this.candidates = candidates;
+        int sources = candidates.sourceCount();
+        this.offsets = new int[sources + 1];
+        for (int i = 0; i < sources; i++) {
+            int capacity = Math.min(k, candidates.candidatesEnd(i) - candidates.candidatesStart(i));
+            offsets[i + 1] = Math.addExact(offsets[i], capacity);
+        }
+        this.sizes = new int[sources];
+        this.targets = new int[offsets[sources]];
+        this.scores = new float[offsets[sources]];
+    }
+
+    public boolean isFull(int sourceIndex) {
+        return sizes[sourceIndex] == offsets[sourceIndex + 1] - offsets[sourceIndex];
+    }
+
+    /** Weakest retained score of a source; only meaningful once it holds a candidate. */
+    public float minScore(int sourceIndex) {
+        return scores[offsets[sourceIndex]];
+    }
+
+    public void offer(int sourceIndex, int targetOrdinal, double score) {
+        int base = offsets[sourceIndex];
+        int capacity = offsets[sourceIndex + 1] - base;
+        float value = (float) score;
+        if (sizes[sourceIndex] < capacity) {
+            int child = sizes[sourceIndex]++;
+            while (child > 0) {
+                int parent = (child - 1) >>> 1;
+                if (scores[base + parent] <= value) {
+                    break;
+                }
+                targets[base + child] = targets[base + parent];
+                scores[base + child] = scores[base + parent];
+                child = parent;
+            }
+            targets[base + child] = targetOrdinal;
+            scores[base + child] = value;
+        } else if (capacity > 0 && value > scores[base]) {
+            int parent = 0;
+            while (true) {
+                int child = 2 * parent + 1;
+                if (child >= capacity) {
+                    break;
+                }
+                if (child + 1 < capacity && scores[base + child + 1] < scores[base + child]) {
+                    child++;
+                }
+                if (scores[base + child] >= value) {
+                    break;
+                }
+                targets[base + parent] = targets[base + child];
+                scores[base + parent] = scores[base + child];
+                parent = child;
+            }
+            targets[base + parent] = targetOrdinal;
+            scores[base + parent] = value;
+        }
+    }
+
+    /** Total candidates retained across all sources. */
+    public long size() {
+        long size = 0;
+        for (int s : sizes) {
+            size += s;
+        }
+        return size;
+    }
+
+    /** Retained candidates grouped by source, each source's in ascending target ordinal. */
+    public MatchPairs toMatchPairs() {
+        MatchPairs pairs = new MatchPairs((int) Math.min(Integer.MAX_VALUE - 8, size()));
+        for (int i = 0; i < sizes.length; i++) {
+            int base = offsets[i];
+            int end = base + sizes[i];
+            // Insertion sort by target ordinal; slices hold at most k entries
+            for (int a = base + 1; a < end; a++) {
+                int target = targets[a];
+                float score = scores[a];
+                int b = a - 1;
+                while (b >= base && targets[b] > target) {
+                    targets[b + 1] = targets[b];
+                    scores[b + 1] = scores[b];
+                    b--;
+                }
+                targets[b + 1] = target;
+                scores[b + 1] = score;
+            }
+            for (int p = base; p < end; p++) {
+                pairs.add(candidates.sourceOrdinal(i), targets[p], scores[p]);
+            }
+        }
+        return pairs;
+    }
+}
@@ -0,0 +1,279 @@
+package com.reconix;
+
+// ===== WINDOWED MATCH STATE =====
+// Per-key unmatched items of a streaming reconciliation, bounded by event time and memory
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Keeps the records still waiting for a counterpart, per match key and in
+ * arrival order, and pairs each new record with the oldest pending record
+ * of the other side under the same key.
+ *
+ * <p>The watermark trails the highest event time seen by the allowed
+ * lateness. A record's window closes once the watermark passes its event time
+ * plus the window length; it is then emitted as an expired break. A record
+ * that arrives after its own window has closed may still match a pending
+ * counterpart, but is never added to state.
+ *
+ * <p>At most {@code maxInMemoryRecords} pending records are held on the heap.
+ * Beyond that the oldest are moved to a {@link SpillFile}, leaving a small
+ * handle per record, or, without a spill directory or for records that cannot
+ * be serialized, evicted as breaks. Handles are capped too: beyond
+ * {@code maxPendingRecords} the records closest to expiry are evicted as
+ * breaks. Matched and expired records leave every index at once, so state
+ * and spill space are bounded by the records actually pending.
+ *
+ * <p>Not thread-safe; a session drives its state from a single thread.
+ */
+@Slf4j
+final class WindowedMatchState implements Closeable {
+
+    private static final Comparator<Pending> EXPIRY_ORDER = Comparator
+        .comparingLong((Pending pending) -> pending.eventTimeMillis)
+        .thenComparingLong(pending -> pending.sequence);
+
+    private final List<String> matchingFields;
+    private final long windowMillis;
+    private final long allowedLatenessMillis;
+    private final int maxInMemoryRecords;
+    private final int maxPendingRecords;
+    private final Path spillDirectory;
+    private final StreamingMatchListener listener;
+
+    private final Map<MatchKey, KeyState> pendingByKey = new HashMap<>();
+    private final NavigableSet<Pending> expiryOrder = new TreeSet<>(EXPIRY_ORDER);
+    private final LinkedHashSet<Pending> residentOrder = new LinkedHashSet<>();
+    private SpillFile spillFile;
+    private long watermark = Long.MIN_VALUE;
+    private long sequence;
+    private int pendingCount;
+    private int residentCount;
+
+    /**
+     * @param spillDirectory directory for the spill file, or {@code null} to evict instead of spilling
+     */
+    WindowedMatchState(List<String> matchingFields, long windowMillis, long allowedLatenessMillis,
+                       int maxInMemoryRecords, int maxPendingRecords, Path spillDirectory,
+                       StreamingMatchListener listener) {
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("windowMillis must be positive");
+        }
+        if (maxInMemoryRecords <= 0) {
+            throw new IllegalArgumentException("maxInMemoryRecords must be positive");
+        }
+        if (maxPendingRecords <= 0) {
+            throw new IllegalArgumentException("maxPendingRecords must be positive");
+        }
+        this.matchingFields = matchingFields;
+        this.windowMillis = windowMillis;
+        this.allowedLatenessMillis = allowedLatenessMillis;
+        this.maxInMemoryRecords = maxInMemoryRecords;
+        this.maxPendingRecords = maxPendingRecords;
+        this.spillDirectory = spillDirectory;
+        this.listener = listener;
+    }
+
+    void accept(StreamingRecord record) {
+        long candidateWatermark = record.getEventTimeMillis() - allowedLatenessMillis;
+        if (candidateWatermark > watermark) {
+            watermark = candidateWatermark;
+            expire();
+        }
+
+        MatchKey key = MatchKey.of(RecordSet.of(Collections.singletonList(record.getRecord())), 0, matchingFields);
+        if (key == null) {
+            listener.onBreak(record, StreamingMatchListener.BreakReason.NO_KEY);
+            return;
+        }
+        KeyState state = pendingByKey.get(key);
+        Pending counterpart = state == null ? null : state.queue(opposite(record.getSide())).pollFirst();
+        if (counterpart != null) {
+            StreamingRecord other = restore(counterpart);
+            retire(counterpart, state);
+            if (record.getSide() == StreamingRecord.Side.SOURCE) {
+                listener.onMatch(record, other);
+            } else {
+                listener.onMatch(other, record);
+            }
+            enforceMemoryBound();
+            return;
+        }
+        if (windowClosed(record.getEventTimeMillis())) {
+            listener.onBreak(record, StreamingMatchListener.BreakReason.LATE);
+            return;
+        }
+
+        Pending pending = new Pending(record, key, sequence++);
+        if (state == null) {
+            state = new KeyState();
+            pendingByKey.put(key, state);
+        }
+        state.queue(pending.side).addLast(pending);
+        expiryOrder.add(pending);
+        residentOrder.add(pending);
+        pendingCount++;
+        residentCount++;
+        enforceMemoryBound();
+    }
+
+    /** Closes every window, emitting all pending records as expired breaks. */
+    void flush() {
+        watermark = Long.MAX_VALUE;
+        expire();
+    }
+
+    long watermark() {
+        return watermark;
+    }
+
+    int residentCount() {
+        return residentCount;
+    }
+
+    int spilledCount() {
+        return pendingCount - residentCount;
+    }
+
+    private boolean windowClosed(long eventTimeMillis) {
+        return watermark != Long.MIN_VALUE && eventTimeMillis <= watermark - windowMillis;
+    }
+
+    private void expire() {
+        while (!expiryOrder.isEmpty() && windowClosed(expiryOrder.first().eventTimeMillis)) {
+            emitBreak(expiryOrder.first(), StreamingMatchListener.BreakReason.EXPIRED);
+        }
+    }
+
+    private void enforceMemoryBound() {
+        while (pendingCount > maxPendingRecords) {
+            emitBreak(expiryOrder.first(), StreamingMatchListener.BreakReason.EVICTED);
+        }
+        while (residentCount > maxInMemoryRecords) {
+            Iterator<Pending> oldest = residentOrder.iterator();
+            Pending pending = oldest.next();
+            oldest.remove();
+            if (!spill(pending)) {
+                emitBreak(pending, StreamingMatchListener.BreakReason.EVICTED);
+            }
+        }
+    }
+
+    private void emitBreak(Pending pending, StreamingMatchListener.BreakReason reason) {
+        StreamingRecord record = restore(pending);
+        retire(pending, pendingByKey.get(pending.key));
+        listener.onBreak(record, reason);
+    }
+
+    private boolean spill(Pending pending) {
+        if (spillDirectory == null) {
+            return false;
+        }
+        try {
+            if (spillFile == null) {
+                spillFile = SpillFile.create(spillDirectory);
+            }
+            pending.spillOffset = spillFile.write(pending.record);
+        } catch (NotSerializableException e) {
+            log.debug("Evicting unserializable streaming record of type {}", pending.record.getClass().getName());
+            return false;
+        } catch (IOException e) {
+            throw new ReconciliationException("Failed to spill streaming state", e);
+        }
+        pending.record = null;
+        residentCount--;
+        return true;
+    }
+
+    private StreamingRecord restore(Pending pending) {
+        Object record = pending.record;
+        if (record == null) {
+            try {
+                record = spillFile.read(pending.spillOffset);
+            } catch (IOException e) {
+                throw new ReconciliationException("Failed to read spilled streaming state", e);
+            }
+        }
+        return new StreamingRecord(pending.side, record, pending.eventTimeMillis, pending.arrivalNanos);
+    }
+
+    /** Removes a pending record from every index and releases its spill space. */
+    private void retire(Pending pending, KeyState state) {
+        if (pending.record != null) {
+            residentOrder.remove(pending);
+            residentCount--;
+        } else {
+            try {
+                spillFile.release(pending.spillOffset);
+            } catch (IOException e) {
+                throw new ReconciliationException("Failed to release spilled streaming state", e);
+            }
+        }
+        pending.record = null;
+        pendingCount--;
+        expiryOrder.remove(pending);
+        state.queue(pending.side).remove(pending);
+        if (state.isEmpty()) {
+            pendingByKey.remove(pending.key);
+        }
+    }
+
+    private static StreamingRecord.Side opposite(StreamingRecord.Side side) {
+        return side == StreamingRecord.Side.SOURCE ? StreamingRecord.Side.TARGET : StreamingRecord.Side.SOURCE;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (spillFile != null) {
+            spillFile.close();
+        }
+    }
+
+    private static final class Pending {
+        final StreamingRecord.Side side;
+        final MatchKey key;
+        final long eventTimeMillis;
+        final long arrivalNanos;
+        final long sequence;
+        Object record;
+        long spillOffset = -1;
+
+        Pending(StreamingRecord record, MatchKey key, long sequence) {
+            this.side = record.getSide();
+            this.key = key;
+            this.eventTimeMillis = record.getEventTimeMillis();
+            this.arrivalNanos = record.getArrivalNanos();
+            this.sequence = sequence;
+            this.record = record.getRecord();
+        }
+    }
+
+    /** Pending records of one key, oldest first. */
+    private static final class KeyState {
+        final ArrayDeque<Pending> sources = new ArrayDeque<>(2);
+        final ArrayDeque<Pending> targets = new ArrayDeque<>(2);
+
+        ArrayDeque<Pending> queue(StreamingRecord.Side side) {
+            return side == StreamingRecord.Side.SOURCE ? sources : targets;
+        }
+
+        boolean isEmpty() {
+            return sources.isEmpty() && targets.isEmpty();
+        }
+    }
+}
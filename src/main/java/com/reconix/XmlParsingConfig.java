@@ -0,0 +1,45 @@
+package com.reconix;
+
+// ===== XML PARSING CONFIGURATION =====
+// Single XXE-safe StAX factory shared by every statement reader
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+
+@Configuration
+public class XmlParsingConfig {
+
+    /**
+     * Factory lookup and configuration cost far more than creating a reader,
+     * and a configured factory is safe to share, so statement parsing uses
+     * this one instance rather than a factory per document.
+     */
+    @Bean
+    public XMLInputFactory secureXmlInputFactory() {
+        return newSecureInputFactory();
+    }
+
+    /**
+     * A factory that rejects DTDs and never resolves external entities,
+     * DTDs or schemas, closing off XXE and entity-expansion attacks from
+     * uploaded statements.
+     */
+    public static XMLInputFactory newSecureInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        // JAXP 1.5 properties; implementations without them (e.g. Woodstox) already refuse DTDs above
+        setIfSupported(factory, XMLConstants.ACCESS_EXTERNAL_DTD, "");
+        setIfSupported(factory, XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+        return factory;
+    }
+
+    private static void setIfSupported(XMLInputFactory factory, String property, Object value) {
+        if (factory.isPropertySupported(property)) {
+            factory.setProperty(property, value);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.reconix;
+
+// ===== VECTOR TOLERANCE KERNELS =====
+// jdk.incubator.vector implementation of the bulk tolerance filters (JDK 17+)
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Compares a full register of amounts or days per iteration at the
+ * platform's preferred vector width, then finishes the remainder with the
+ * scalar loops. Selected by {@link ToleranceKernels#selected()} by name, so
+ * nothing on the Java 11 source path links against the incubator module.
+ */
+public final class VectorToleranceKernels implements ToleranceKernels {
+
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    public int amountRunEnd(long[] amounts, int from, int to, long high) {
+        int p = from;
+        int bound = from + LONGS.loopBound(to - from);
+        for (; p < bound; p += LONGS.length()) {
+            VectorMask<Long> above = LongVector.fromArray(LONGS, amounts, p).compare(VectorOperators.GT, high);
+            if (above.anyTrue()) {
+                return p + above.firstTrue();
+            }
+        }
+        return ScalarToleranceKernels.scalarRunEnd(amounts, p, to, high);
+    }
+
+    @Override
+    public int selectDays(int[] days, int from, int to, int windowStart, int windowEnd, int[] selected) {
+        int count = 0;
+        int p = from;
+        int bound = from + INTS.loopBound(to - from);
+        for (; p < bound; p += INTS.length()) {
+            IntVector lane = IntVector.fromArray(INTS, days, p);
+            long inWindow = lane.compare(VectorOperators.GE, windowStart)
+                .and(lane.compare(VectorOperators.LE, windowEnd)).toLong();
+            while (inWindow != 0) {
+                selected[count++] = p + Long.numberOfTrailingZeros(inWindow);
+                inWindow &= inWindow - 1;
+            }
+        }
+        return ScalarToleranceKernels.scalarSelectDays(days, p, to, windowStart, windowEnd, selected, count);
+    }
+
+    @Override
+    public String name() {
+        return "vector(" + LONGS.vectorBitSize() + "-bit)";
+    }
+}
@@ -0,0 +1,119 @@
+package com.reconix;
+
+// ===== ASSIGNMENT SOLVER TEST =====
+// Auction assignment against exhaustive search on small candidate graphs
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AssignmentSolverTest {
+
+    private static final double TOLERANCE = 1e-9;
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(2);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void matchesExhaustiveSearchOnRandomGraphs() {
+        Random random = new Random(17);
+        AssignmentSolver solver = new AssignmentSolver(pool, 2, 60_000);
+        for (int instance = 0; instance < 500; instance++) {
+            int sources = 1 + random.nextInt(6);
+            int targets = 1 + random.nextInt(6);
+            double[][] scores = new double[sources][targets];
+            MatchPairs edges = new MatchPairs();
+            for (int s = 0; s < sources; s++) {
+                for (int t = 0; t < targets; t++) {
+                    if (random.nextInt(3) > 0) {
+                        // Scores at the solver's resolution, so optimality is exact
+                        scores[s][t] = (1 + random.nextInt(1_000_000)) / 1_000_000.0;
+                        edges.add(s, t, scores[s][t]);
+                    }
+                }
+            }
+            MatchPairs accepted = solver.solve(edges).getPairs();
+            assertValidAssignment(accepted, scores);
+            assertEquals(bestTotal(scores, 0, new boolean[targets]), total(accepted), TOLERANCE,
+                "instance " + instance);
+        }
+    }
+
+    @Test
+    void prefersTwoGoodPairsOverOneBestPair() {
+        // Greedy takes (0,0) at 0.9 and strands both others; the optimum is 0.8 + 0.8
+        MatchPairs edges = new MatchPairs();
+        edges.add(0, 0, 0.9);
+        edges.add(0, 1, 0.8);
+        edges.add(1, 0, 0.8);
+        MatchPairs accepted = new AssignmentSolver(pool, 1, 60_000).solve(edges).getPairs();
+        assertEquals(2, accepted.size());
+        assertEquals(1.6, total(accepted), TOLERANCE);
+    }
+
+    @Test
+    void returnsPairsInSourceOrder() {
+        MatchPairs edges = new MatchPairs();
+        edges.add(2, 0, 0.7);
+        edges.add(0, 1, 0.6);
+        edges.add(1, 2, 0.9);
+        MatchPairs accepted = new AssignmentSolver(pool, 2, 60_000).solve(edges).getPairs();
+        assertEquals(3, accepted.size());
+        for (int i = 1; i < accepted.size(); i++) {
+            assertTrue(accepted.sourceOrdinal(i - 1) < accepted.sourceOrdinal(i));
+        }
+    }
+
+    private static void assertValidAssignment(MatchPairs accepted, double[][] scores) {
+        boolean[] usedSources = new boolean[scores.length];
+        boolean[] usedTargets = new boolean[scores[0].length];
+        for (int i = 0; i < accepted.size(); i++) {
+            int s = accepted.sourceOrdinal(i);
+            int t = accepted.targetOrdinal(i);
+            assertTrue(scores[s][t] > 0, "accepted a pair that is not a candidate: " + s + "," + t);
+            assertEquals(scores[s][t], accepted.score(i), TOLERANCE);
+            assertTrue(!usedSources[s] && !usedTargets[t], "record used twice in " + s + "," + t);
+            usedSources[s] = true;
+            usedTargets[t] = true;
+        }
+    }
+
+    /** Best total over sources from {@code source} on, each taking a free target or none. */
+    private static double bestTotal(double[][] scores, int source, boolean[] usedTargets) {
+        if (source == scores.length) {
+            return 0.0;
+        }
+        double best = bestTotal(scores, source + 1, usedTargets);
+        for (int t = 0; t < usedTargets.length; t++) {
+            if (!usedTargets[t] && scores[source][t] > 0) {
+                usedTargets[t] = true;
+                best = Math.max(best, scores[source][t] + bestTotal(scores, source + 1, usedTargets));
+                usedTargets[t] = false;
+            }
+        }
+        return best;
+    }
+
+    private static double total(MatchPairs pairs) {
+        double total = 0.0;
+        for (int i = 0; i < pairs.size(); i++) {
+            total += pairs.score(i);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,120 @@
+package com.reconix;
+
+// ===== CAMT FILE READER TEST =====
+// Statement-parallel camt.053 parsing against the sequential stream
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CamtFileReaderTest {
+
+    private static final XMLInputFactory FACTORY = XmlParsingConfig.newSecureInputFactory();
+
+    private static ForkJoinPool pool;
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void parallelReadMatchesSequentialRead() throws IOException, XMLStreamException {
+        for (int statements : new int[] {1, 2, 5, 37, 300}) {
+            for (boolean prefixed : new boolean[] {false, true}) {
+                Path file = write(document(statements, new Random(statements), prefixed));
+                CamtFileReader reader = new CamtFileReader(FACTORY, file, 2);
+                IngestionResult sequential = reader.read(new StringDictionary());
+                StringDictionary dictionary = new StringDictionary();
+                dictionary.encode("preexisting");
+                IngestionResult parallel = reader.read(dictionary, pool, 4);
+
+                MappedCsvReaderTest.assertSameValues(sequential.batch(), parallel.batch());
+                assertEquals(sequential.errors(), parallel.errors());
+                assertEquals(sequential.errorCount(), parallel.errorCount());
+                if (statements > 1) {
+                    assertTrue(parallel.chunks().size() > 1, statements + " statements read as one range");
+                }
+            }
+        }
+    }
+
+    @Test
+    void statementMarkupInCommentsAndCdataDoesNotSplitRanges() throws IOException, XMLStreamException {
+        Path file = write(document(8, new Random(1), false));
+        CamtFileReader reader = new CamtFileReader(FACTORY, file, 2);
+        IngestionResult sequential = reader.read(new StringDictionary());
+        IngestionResult parallel = reader.read(new StringDictionary(), pool, 4);
+        assertTrue(sequential.batch().size() > 0);
+        MappedCsvReaderTest.assertSameValues(sequential.batch(), parallel.batch());
+    }
+
+    /**
+     * A camt.053 document whose statements hide {@code </Stmt>} in comments,
+     * processing instructions, CDATA and attribute values; one amount in about
+     * fifty does not parse.
+     */
+    private static String document(int statements, Random random, boolean prefixed) {
+        String p = prefixed ? "c:" : "";
+        StringBuilder xml = new StringBuilder("\uFEFF<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+            .append("<!-- header <Stmt> comment -->\n")
+            .append('<').append(p).append("Document xmlns").append(prefixed ? ":c" : "")
+            .append("=\"urn:iso:std:iso:20022:tech:xsd:camt.053.001.08\">\n <").append(p).append("BkToCstmrStmt>\n")
+            .append("  <").append(p).append("GrpHdr><").append(p).append("MsgId>M&lt;1</").append(p).append("MsgId></")
+            .append(p).append("GrpHdr>\n");
+        for (int s = 0; s < statements; s++) {
+            xml.append("  <").append(p).append("Stmt attr=\"a>b/\" other='x\"y'>")
+                .append(element(p, "Id", "S" + s))
+                .append('<').append(p).append("Acct><").append(p).append("Id>").append(element(p, "IBAN", "DE" + s))
+                .append("</").append(p).append("Id></").append(p).append("Acct>");
+            if (s == 3) {
+                xml.append('<').append(p).append("Empty/><!-- </Stmt> --><?pi </Stmt> ?>");
+            }
+            int entries = random.nextInt(40);
+            for (int e = 0; e < entries; e++) {
+                String amount = random.nextInt(50) == 0 ? "oops" : random.nextInt(100_000) + "." + random.nextInt(100);
+                xml.append('<').append(p).append("Ntry>")
+                    .append('<').append(p).append("Amt Ccy=\"EUR\">").append(amount).append("</").append(p).append("Amt>")
+                    .append(element(p, "CdtDbtInd", random.nextBoolean() ? "DBIT" : "CRDT"))
+                    .append('<').append(p).append("BookgDt>").append(element(p, "Dt", "2024-02-1" + random.nextInt(10)))
+                    .append("</").append(p).append("BookgDt>")
+                    .append(element(p, "AddtlNtryInf", "<![CDATA[</Stmt> " + random.nextInt(300) + "]]>"))
+                    .append("</").append(p).append("Ntry>\n");
+            }
+            xml.append("  </").append(p).append("Stmt >\n");
+        }
+        return xml.append(" </").append(p).append("BkToCstmrStmt>\n</").append(p).append("Document>\n")
+            .append("<!-- trailer -->\n").toString();
+    }
+
+    private static String element(String prefix, String name, String content) {
+        return "<" + prefix + name + ">" + content + "</" + prefix + name + ">";
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = Files.createTempFile(directory, "reconix", ".xml");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
@@ -0,0 +1,155 @@
+package com.reconix;
+
+// ===== MAPPED CSV READER TEST =====
+// Quote and escape handling, window boundaries and parallel range-split parity
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MappedCsvReaderTest {
+
+    private static ForkJoinPool pool;
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void decodesQuotedFieldsAndSkipsUnrequestedColumns() throws IOException {
+        Path file = write("ref,amount,valueDate,name,skip\r\n"
+            + "R1,12.50,2024-03-01,\"ACME \"\"Big\"\" Co\",x\r\n"
+            + "R2,-3.10,2024-03-02,\"Line1\nLine2, x\",\"a,b\"\n"
+            + "\n"
+            + "R3,7,2024-03-03,,y\n");
+        RecordBatch batch = new MappedCsvReader(file, ',', '"', true, null, fields(), 2)
+            .read(new StringDictionary()).batch();
+
+        assertEquals(3, batch.size());
+        assertEquals("ACME \"Big\" Co", batch.value(0, "name"));
+        assertEquals("Line1\nLine2, x", batch.value(1, "name"));
+        assertNull(batch.value(2, "name"));
+        assertEquals(0, new BigDecimal("-3.10").compareTo((BigDecimal) batch.value(1, "amount")));
+        assertEquals(LocalDate.of(2024, 3, 3), batch.value(2, "valueDate"));
+    }
+
+    @Test
+    void reportsUnparseableValuesAsNull() throws IOException {
+        Path file = write("ref,amount,valueDate,name\nR1,12.3x,2024-02-30,N\n");
+        IngestionResult result = new MappedCsvReader(file, ',', '"', true, null, fields(), 2)
+            .read(new StringDictionary());
+
+        assertNull(result.batch().value(0, "amount"));
+        assertNull(result.batch().value(0, "valueDate"));
+        assertEquals(2, result.errorCount());
+    }
+
+    @Test
+    void recordsSpanningWindowsMatchASingleWindow() throws IOException {
+        Path file = write(generated(2_000, new Random(3)));
+        RecordBatch whole = new MappedCsvReader(file, ',', '"', true, null, fields(), 2)
+            .read(new StringDictionary()).batch();
+        for (long windowBytes : new long[] {97, 4096}) {
+            RecordBatch windowed = new MappedCsvReader(file, ',', '"', true, null, fields(), 2, windowBytes)
+                .read(new StringDictionary()).batch();
+            assertSameValues(whole, windowed);
+        }
+    }
+
+    @Test
+    void parallelRangesMatchSequentialRead() throws IOException {
+        Path file = write(generated(20_000, new Random(5)));
+        IngestionResult sequential = new MappedCsvReader(file, ',', '"', true, null, fields(), 2)
+            .read(new StringDictionary());
+        for (long chunkBytes : new long[] {1_000, 7_777, 65_536}) {
+            StringDictionary dictionary = new StringDictionary();
+            // Pre-existing codes must not shift the parallel read's values
+            dictionary.encode("preexisting");
+            IngestionResult parallel = new MappedCsvReader(file, ',', '"', true, null, fields(), 2)
+                .read(dictionary, pool, 4, chunkBytes);
+            assertSameValues(sequential.batch(), parallel.batch());
+            assertEquals(sequential.errors(), parallel.errors());
+            assertEquals(sequential.errorCount(), parallel.errorCount());
+            // Ranges tile the data after the header without gaps or overlap
+            assertEquals(sequential.chunks().get(0).bytes(),
+                parallel.chunks().stream().mapToLong(IngestionResult.ChunkStatistics::bytes).sum());
+        }
+    }
+
+    @Test
+    void strayQuoteFallsBackToSequentialParity() throws IOException {
+        StringBuilder content = new StringBuilder("ref,amount,valueDate,name\n");
+        for (int i = 0; i < 5_000; i++) {
+            content.append('R').append(i).append(",1.00,2024-01-01,").append(i == 100 ? "ab\"c" : "n" + i).append('\n');
+        }
+        Path file = write(content.toString());
+        RecordBatch sequential = new MappedCsvReader(file, ',', '"', true, null, fields(), 2)
+            .read(new StringDictionary()).batch();
+        RecordBatch parallel = new MappedCsvReader(file, ',', '"', true, null, fields(), 2)
+            .read(new StringDictionary(), pool, 4, 2_000).batch();
+        assertSameValues(sequential, parallel);
+    }
+
+    private static Map<String, RecordSchema.ColumnType> fields() {
+        Map<String, RecordSchema.ColumnType> fields = new LinkedHashMap<>();
+        fields.put("ref", RecordSchema.ColumnType.STRING);
+        fields.put("amount", RecordSchema.ColumnType.AMOUNT);
+        fields.put("valueDate", RecordSchema.ColumnType.DATE);
+        fields.put("name", RecordSchema.ColumnType.STRING);
+        return fields;
+    }
+
+    private static String generated(int rows, Random random) {
+        StringBuilder content = new StringBuilder("ref,amount,valueDate,name\n");
+        for (int i = 0; i < rows; i++) {
+            String name = random.nextInt(3) == 0
+                ? "\"multi\nline \"\"q\"\" " + random.nextInt(50) + "\""
+                : "N" + random.nextInt(2_000);
+            String amount = i == rows / 2 ? "bad" : random.nextInt(100_000) + ".5";
+            content.append('R').append(i).append(',').append(amount).append(",2024-03-")
+                .append(10 + random.nextInt(10)).append(',').append(name).append(i % 3 == 0 ? "\r\n" : "\n");
+        }
+        return content.toString();
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = Files.createTempFile(directory, "reconix", ".csv");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    static void assertSameValues(RecordBatch expected, RecordBatch actual) {
+        assertEquals(expected.size(), actual.size());
+        int columns = expected.schema().columnCount();
+        for (int ordinal = 0; ordinal < expected.size(); ordinal++) {
+            for (int column = 0; column < columns; column++) {
+                assertEquals(expected.value(ordinal, column), actual.value(ordinal, column),
+                    "record " + ordinal + ", column " + column);
+            }
+        }
+    }
+}
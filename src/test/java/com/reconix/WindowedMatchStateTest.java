@@ -0,0 +1,199 @@
+package com.reconix;
+
+// ===== WINDOWED MATCH STATE TEST =====
+// Every streamed record leaves state exactly once, as a match or as a break
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class WindowedMatchStateTest {
+
+    private static final List<String> FIELDS = List.of("ref");
+
+    @TempDir
+    Path spillDirectory;
+
+    private int nextId;
+
+    @Test
+    void pairsWithOldestPendingCounterpart() throws IOException {
+        Outcomes outcomes = new Outcomes();
+        try (WindowedMatchState state = new WindowedMatchState(FIELDS, 1_000, 0, 100, 100, null, outcomes)) {
+            StreamingRecord first = source("R1", 0);
+            StreamingRecord second = source("R1", 1);
+            StreamingRecord target = target("R1", 2);
+            state.accept(first);
+            state.accept(second);
+            state.accept(target);
+
+            assertEquals(1, outcomes.matches.size());
+            assertEquals(id(first), id(outcomes.matches.get(0)[0]));
+            assertEquals(id(target), id(outcomes.matches.get(0)[1]));
+            assertEquals(1, state.residentCount());
+        }
+    }
+
+    @Test
+    void classifiesBreaks() throws IOException {
+        Outcomes outcomes = new Outcomes();
+        try (WindowedMatchState state = new WindowedMatchState(FIELDS, 100, 0, 100, 100, null, outcomes)) {
+            StreamingRecord expired = source("A", 0);
+            state.accept(expired);
+            state.accept(source("B", 200));
+            StreamingRecord late = target("C", 50);
+            state.accept(late);
+            StreamingRecord keyless = record(StreamingRecord.Side.SOURCE, null, 210);
+            state.accept(keyless);
+
+            assertEquals(StreamingMatchListener.BreakReason.EXPIRED, outcomes.breaks.get(id(expired)));
+            assertEquals(StreamingMatchListener.BreakReason.LATE, outcomes.breaks.get(id(late)));
+            assertEquals(StreamingMatchListener.BreakReason.NO_KEY, outcomes.breaks.get(id(keyless)));
+            assertEquals(1, state.residentCount());
+        }
+    }
+
+    @Test
+    void lateRecordStillMatchesPendingCounterpart() throws IOException {
+        Outcomes outcomes = new Outcomes();
+        try (WindowedMatchState state = new WindowedMatchState(FIELDS, 100, 50, 100, 100, null, outcomes)) {
+            state.accept(source("A", 100));
+            state.accept(source("B", 240));
+            StreamingRecord late = target("A", 80);
+            state.accept(late);
+
+            assertEquals(1, outcomes.matches.size());
+            assertEquals(id(late), id(outcomes.matches.get(0)[1]));
+            assertNull(outcomes.breaks.get(id(late)));
+        }
+    }
+
+    @Test
+    void evictsBeyondMemoryBoundWithoutSpillDirectory() throws IOException {
+        Outcomes outcomes = new Outcomes();
+        try (WindowedMatchState state = new WindowedMatchState(FIELDS, 1_000_000, 0, 10, 100, null, outcomes)) {
+            for (int i = 0; i < 50; i++) {
+                state.accept(source("R" + i, i));
+            }
+            assertEquals(10, state.residentCount());
+            assertEquals(40, outcomes.count(StreamingMatchListener.BreakReason.EVICTED));
+            // The oldest records go first
+            assertEquals(StreamingMatchListener.BreakReason.EVICTED, outcomes.breaks.get(0));
+            assertNull(outcomes.breaks.get(49));
+        }
+    }
+
+    @Test
+    void spilledRecordsStillMatch() throws IOException {
+        Outcomes outcomes = new Outcomes();
+        try (WindowedMatchState state = new WindowedMatchState(FIELDS, 1_000_000, 0, 10, 1_000, spillDirectory, outcomes)) {
+            for (int i = 0; i < 200; i++) {
+                state.accept(source("R" + i, i));
+            }
+            assertEquals(10, state.residentCount());
+            assertEquals(190, state.spilledCount());
+            for (int i = 0; i < 200; i++) {
+                state.accept(target("R" + i, 200 + i));
+            }
+            assertEquals(200, outcomes.matches.size());
+            assertEquals(0, outcomes.breaks.size());
+            assertEquals(0, state.residentCount() + state.spilledCount());
+        }
+    }
+
+    @Test
+    void accountsForEveryRecordExactlyOnce() throws IOException {
+        Random random = new Random(11);
+        for (Path directory : new Path[] {null, spillDirectory}) {
+            Outcomes outcomes = new Outcomes();
+            nextId = 0;
+            int accepted = 0;
+            try (WindowedMatchState state = new WindowedMatchState(FIELDS, 500, 100, 50, 200, directory, outcomes)) {
+                long clock = 0;
+                for (int i = 0; i < 20_000; i++) {
+                    clock += random.nextInt(5);
+                    // Out-of-order arrivals, some far behind the watermark
+                    long eventTime = Math.max(0, clock - (random.nextInt(10) == 0 ? random.nextInt(2_000) : random.nextInt(50)));
+                    String reference = random.nextInt(100) > 0 ? "R" + random.nextInt(3_000) : null;
+                    state.accept(record(random.nextBoolean() ? StreamingRecord.Side.SOURCE : StreamingRecord.Side.TARGET,
+                        reference, eventTime));
+                    accepted++;
+                }
+                state.flush();
+                assertEquals(0, state.residentCount() + state.spilledCount());
+            }
+
+            int[] emitted = new int[accepted];
+            for (StreamingRecord[] match : outcomes.matches) {
+                assertEquals(StreamingRecord.Side.SOURCE, match[0].getSide());
+                assertEquals(StreamingRecord.Side.TARGET, match[1].getSide());
+                assertEquals(((Map<?, ?>) match[0].getRecord()).get("ref"), ((Map<?, ?>) match[1].getRecord()).get("ref"));
+                emitted[id(match[0])]++;
+                emitted[id(match[1])]++;
+            }
+            for (int id : outcomes.broken) {
+                emitted[id]++;
+            }
+            for (int id = 0; id < accepted; id++) {
+                assertEquals(1, emitted[id], "record " + id + " emitted " + emitted[id] + " times");
+            }
+        }
+    }
+
+    private StreamingRecord source(String reference, long eventTimeMillis) {
+        return record(StreamingRecord.Side.SOURCE, reference, eventTimeMillis);
+    }
+
+    private StreamingRecord target(String reference, long eventTimeMillis) {
+        return record(StreamingRecord.Side.TARGET, reference, eventTimeMillis);
+    }
+
+    /** Records are numbered in creation order; spilled ones come back as copies, so tests compare ids. */
+    private StreamingRecord record(StreamingRecord.Side side, String reference, long eventTimeMillis) {
+        Map<String, Object> record = new HashMap<>();
+        record.put("id", nextId++);
+        if (reference != null) {
+            record.put("ref", reference);
+        }
+        return new StreamingRecord(side, record, eventTimeMillis);
+    }
+
+    private static int id(StreamingRecord record) {
+        return (Integer) ((Map<?, ?>) record.getRecord()).get("id");
+    }
+
+    /** Matches in emission order, broken record ids in emission order and the last reason per id. */
+    private static final class Outcomes implements StreamingMatchListener {
+        final List<StreamingRecord[]> matches = new ArrayList<>();
+        final List<Integer> broken = new ArrayList<>();
+        final Map<Integer, BreakReason> breaks = new HashMap<>();
+        final Map<BreakReason, Integer> counts = new EnumMap<>(BreakReason.class);
+
+        @Override
+        public void onMatch(StreamingRecord source, StreamingRecord target) {
+            matches.add(new StreamingRecord[] {source, target});
+        }
+
+        @Override
+        public void onBreak(StreamingRecord record, BreakReason reason) {
+            broken.add(id(record));
+            breaks.put(id(record), reason);
+            counts.merge(reason, 1, Integer::sum);
+        }
+
+        int count(BreakReason reason) {
+            return counts.getOrDefault(reason, 0);
+        }
+    }
+}